@@ -0,0 +1,86 @@
+package com.fs.sudoku;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.io.ArgumentsPuzzleReader;
+import com.fs.sudoku.io.TextPuzzleReader;
+import com.fs.sudoku.util.PuzzleLine;
+import com.fs.sudoku.util.BoardRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayGameBenchmark {
+    private String[] positions;
+    private String lines;
+    private final byte[] givens = new byte[81];
+    private final byte[] solution = new byte[81];
+    private Board board;
+    private BoardRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(42)).generate();
+        positions = new String[81];
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                var index = col * 9 + row;
+                positions[index] = "%s,%s;%s,%s".formatted(col, row, puzzle.solution()[index], puzzle.givens()[index] != 0);
+            }
+        }
+        lines = (PuzzleLine.format(puzzle.givens()) + "\n").repeat(1000);
+        board = puzzle.toBoard();
+        renderer = new BoardRenderer(new DiscardingChannel());
+    }
+
+    @Benchmark
+    public Board parsePositions() throws IOException {
+        return new ArgumentsPuzzleReader(3, positions).next().toBoard();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int readLines() throws IOException {
+        var read = 0;
+        try (var reader = new TextPuzzleReader(new StringReader(lines), false)) {
+            while (reader.read(givens, solution)) {
+                read += givens[40];
+            }
+        }
+        return read;
+    }
+
+    @Benchmark
+    public void renderBoard() throws IOException {
+        renderer.render(board);
+    }
+
+    private static final class DiscardingChannel implements WritableByteChannel {
+        @Override
+        public int write(final ByteBuffer src) {
+            var written = src.remaining();
+            src.position(src.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.fs.sudoku;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching the console game with a script that starts a game and shows it until the
+ * board arrives. Needs the {@code startup} build: {@code ./mvnw -Pstartup,benchmark verify
+ * -Djmh.includes=Startup}. After {@code ./mvnw -Pnative package}, run with {@code -p launch=native}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+    @Param({"jar", "archive", "archive-c1"})
+    public String launch;
+
+    private List<String> command;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException {
+        var target = Path.of("target");
+        var script = Files.writeString(Files.createTempFile("sudoku", ".txt"), "1 4 8\n");
+        script.toFile().deleteOnExit();
+        command = new ArrayList<>();
+        if (launch.equals("native")) {
+            command.add(require(target.resolve("sudoku")).toString());
+        } else {
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            if (!launch.equals("jar")) {
+                command.add("-XX:SharedArchiveFile=" + require(target.resolve("sudoku.jsa")));
+            }
+            if (launch.equals("archive-c1")) {
+                command.addAll(List.of("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"));
+            }
+            command.addAll(List.of("-jar", require(target.resolve("sudoku.jar")).toString()));
+        }
+        command.addAll(List.of("--seed", "1", "--script", script.toString()));
+    }
+
+    @Benchmark
+    public int firstBoard() throws IOException {
+        process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        var out = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        var lines = 0;
+        for (var line = out.readLine(); line != null && !line.startsWith("*"); line = out.readLine()) {
+            lines++;
+        }
+        return lines;
+    }
+
+    @TearDown(Level.Invocation)
+    public void waitForExit() throws IOException, InterruptedException {
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        process.waitFor();
+    }
+
+    private static Path require(final Path path) {
+        if (!Files.exists(path)) {
+            throw new IllegalStateException(path + " is missing, build it with -Pstartup or -Pnative first");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fs.sudoku.domain;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private Board board;
+    private int openCol;
+    private int openRow;
+    private int openValue;
+
+    @Setup
+    public void setUp() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(42)).generate();
+        board = puzzle.toBoard();
+        var half = true;
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                var space = board.getSpaces().get(col).get(row);
+                if (space.isFixed()) {
+                    continue;
+                }
+                if (half) {
+                    board.changeValue(col, row, space.getExpected());
+                } else {
+                    openCol = col;
+                    openRow = row;
+                    openValue = space.getExpected();
+                }
+                half = !half;
+            }
+        }
+    }
+
+    @Benchmark
+    public GameStatusEnum getStatus() {
+        return board.getStatus();
+    }
+
+    @Benchmark
+    public boolean hasErrors() {
+        return board.hasErrors();
+    }
+
+    @Benchmark
+    public boolean gameIsFinished() {
+        return board.gameIsFinished();
+    }
+
+    @Benchmark
+    public boolean changeAndClearValue() {
+        return board.changeValue(openCol, openRow, openValue) & board.clearValue(openCol, openRow);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fs.sudoku.domain;
+
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.generator.PuzzleGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per board, measured by keeping many boards alive and comparing used heap after GC.
+ * Run with {@code java -cp <benchmark classpath> com.fs.sudoku.domain.BoardFootprint [count]}.
+ */
+public class BoardFootprint {
+
+    public static void main(final String[] args) {
+        var count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        var puzzle = new PuzzleGenerator(new SplittableRandom(1)).generate(Difficulty.MEDIUM);
+
+        System.out.printf("compact:        %,d bytes/board%n", measure(count, puzzle::toBoard));
+        System.out.printf("compact+spaces: %,d bytes/board%n", measure(count, () -> {
+            var board = puzzle.toBoard();
+            board.getSpaces();
+            return board;
+        }));
+        System.out.printf("spaces:         %,d bytes/board%n", measure(count, () -> spaceBoard(puzzle)));
+    }
+
+    private static Board spaceBoard(final Puzzle puzzle) {
+        var size = puzzle.size();
+        List<List<Space>> spaces = new ArrayList<>(size);
+        for (int col = 0; col < size; col++) {
+            List<Space> column = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                var index = col * size + row;
+                column.add(new Space(puzzle.solution()[index], puzzle.givens()[index] != 0));
+            }
+            spaces.add(column);
+        }
+        return new Board(spaces);
+    }
+
+    private static long measure(final int count, final Supplier<Board> factory) {
+        var boards = new Board[count];
+        var before = usedHeap();
+        for (int i = 0; i < count; i++) {
+            boards[i] = factory.get();
+        }
+        var after = usedHeap();
+        if (boards[count - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / count;
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
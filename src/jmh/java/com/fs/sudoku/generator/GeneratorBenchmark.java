@@ -0,0 +1,30 @@
+package com.fs.sudoku.generator;
+
+import com.fs.sudoku.domain.Puzzle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public Difficulty difficulty;
+
+    private PuzzleGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator(new SplittableRandom(42));
+    }
+
+    @Benchmark
+    public Puzzle generate() {
+        return generator.generate(difficulty);
+    }
+}
@@ -0,0 +1,48 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a rotating set of solved grids; {@code forBoxSize} is the vectorized validator when the
+ * JVM runs with the incubator module, which the benchmark profile adds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridValidatorBenchmark {
+
+    private static final int GRIDS = 1024;
+
+    private byte[][] grids;
+    private GridValidator validator;
+    private GridValidator scalar;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var generator = new PuzzleGenerator(new SplittableRandom(1));
+        grids = new byte[GRIDS][];
+        for (int i = 0; i < GRIDS; i++) {
+            grids[i] = generator.generate().solution();
+        }
+        validator = GridValidator.forBoxSize(3);
+        scalar = new ScalarGridValidator(3);
+    }
+
+    @Benchmark
+    public boolean forBoxSize() {
+        return validator.isValid(grids[next++ & (GRIDS - 1)]);
+    }
+
+    @Benchmark
+    public boolean scalar() {
+        return scalar.isValid(grids[next++ & (GRIDS - 1)]);
+    }
+}
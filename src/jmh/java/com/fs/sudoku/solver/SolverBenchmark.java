@@ -0,0 +1,46 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.util.PuzzleLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000"
+    })
+    public String puzzle;
+
+    private byte[] grid;
+    private DancingLinksSolver dancingLinks;
+    private BitmaskSolver bitmask;
+
+    @Setup
+    public void setUp() {
+        grid = PuzzleLine.parse(puzzle);
+        dancingLinks = new DancingLinksSolver(3);
+        bitmask = new BitmaskSolver(3);
+    }
+
+    @Benchmark
+    public byte[] dancingLinksSolve() {
+        return dancingLinks.solve(grid);
+    }
+
+    @Benchmark
+    public int dancingLinksCount() {
+        return dancingLinks.countSolutions(grid, 2);
+    }
+
+    @Benchmark
+    public int bitmaskCount() {
+        return bitmask.countSolutions(grid, 2);
+    }
+}
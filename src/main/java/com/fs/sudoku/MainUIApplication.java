@@ -1,23 +1,51 @@
 package com.fs.sudoku;
 
 import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.BoardListener;
+import com.fs.sudoku.domain.GameStatusEnum;
+import com.fs.sudoku.domain.MoveLog;
 import com.fs.sudoku.domain.Space;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.io.ArgumentsPuzzleReader;
+import com.fs.sudoku.io.PuzzleFormat;
+import com.fs.sudoku.solver.LogicalSolver;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static com.fs.sudoku.generator.Difficulty.MEDIUM;
 
 public class MainUIApplication extends JFrame {
+    private static final Color VALUE_COLOR = Color.BLACK;
+    private static final Color ERROR_COLOR = Color.RED;
+    private static final Color FIXED_BACKGROUND = Color.LIGHT_GRAY;
+
     private final List<List<JTextField>> fields = new ArrayList<>();
     private final Board board;
+    private final MoveLog moveLog;
     private final int size;
+    private final Font cellFont;
     private final JLabel statusLabel = new JLabel();
+    // Set while a field edit reaches the board, and while the board writes back into a field.
+    private boolean editing;
+    private boolean updatingFields;
+    // A hint stays in the status label until the board next changes.
+    private boolean hintShown;
 
     public MainUIApplication(Board board) {
         this.board = board;
+        this.moveLog = new MoveLog(board);
         this.size = board.getSpaces().size();
+        // One font for every cell; two-digit values of 16x16 and 25x25 boards need a smaller one.
+        this.cellFont = new JTextField().getFont().deriveFont(Font.BOLD, Math.min(20f, 360f / size));
         setTitle("Sudoku Game");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -26,6 +54,22 @@ public class MainUIApplication extends JFrame {
         setPreferredSize(new Dimension(700, 800)); // Make the main screen bigger
         pack();
         setLocationRelativeTo(null);
+        board.addListener(new BoardListener() {
+            @Override
+            public void valueChanged(final int index, final int previous, final int current) {
+                MainUIApplication.this.valueChanged(index, previous, current);
+            }
+
+            @Override
+            public void statusChanged(final GameStatusEnum previous, final GameStatusEnum current) {
+                updateStatus();
+            }
+
+            @Override
+            public void errorsChanged(final boolean errors) {
+                updateStatus();
+            }
+        });
         updateStatus();
     }
 
@@ -38,8 +82,9 @@ public class MainUIApplication extends JFrame {
                 JTextField field = new JTextField(2);
                 Space space = board.getSpaces().get(i).get(j);
                 field.setHorizontalAlignment(JTextField.CENTER);
-                field.setFont(field.getFont().deriveFont(Font.BOLD, 20f));
-                // Set border for 3x3 squares
+                field.setFont(cellFont);
+                field.setForeground(VALUE_COLOR);
+                // Set border for the boxes
                 int top = (i % squareSize == 0) ? 3 : 1;
                 int left = (j % squareSize == 0) ? 3 : 1;
                 int bottom = (i == size - 1) ? 3 : 1;
@@ -48,9 +93,10 @@ public class MainUIApplication extends JFrame {
                 if (space.isFixed()) {
                     field.setText(String.valueOf(space.getExpected()));
                     field.setEditable(false);
-                    field.setBackground(Color.LIGHT_GRAY);
+                    field.setBackground(FIXED_BACKGROUND);
                 } else {
                     field.setText("");
+                    field.getDocument().addDocumentListener(new FieldListener(i, j));
                 }
                 rowFields.add(field);
                 panel.add(field);
@@ -64,78 +110,137 @@ public class MainUIApplication extends JFrame {
         JPanel panel = new JPanel();
         JButton checkButton = new JButton("Check");
         JButton resetButton = new JButton("Reset");
-        checkButton.addActionListener((ActionEvent e) -> {
-            updateBoardFromFields();
-            updateStatus();
-        });
-        resetButton.addActionListener((ActionEvent e) -> {
-            board.reset();
-            updateFieldsFromBoard();
-            updateStatus();
-        });
+        JButton hintButton = new JButton("Hint");
+        JButton undoButton = new JButton("Undo");
+        JButton redoButton = new JButton("Redo");
+        checkButton.addActionListener((ActionEvent e) -> updateStatus());
+        resetButton.addActionListener((ActionEvent e) -> board.reset());
+        hintButton.addActionListener((ActionEvent e) -> showHint());
+        hintButton.setEnabled(board.getBoxSize() > 0);
+        undoButton.addActionListener((ActionEvent e) -> moveLog.undo());
+        redoButton.addActionListener((ActionEvent e) -> moveLog.redo());
         panel.add(checkButton);
         panel.add(resetButton);
+        panel.add(hintButton);
+        panel.add(undoButton);
+        panel.add(redoButton);
         panel.add(statusLabel);
         return panel;
     }
 
-    private void updateBoardFromFields() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                Space space = board.getSpaces().get(i).get(j);
-                JTextField field = fields.get(i).get(j);
-                if (!space.isFixed()) {
-                    String text = field.getText();
-                    if (text.isEmpty()) {
-                        board.clearValue(i, j);
-                    } else {
-                        try {
-                            int value = Integer.parseInt(text);
-                            board.changeValue(i, j, value);
-                        } catch (NumberFormatException ignored) {
-                            board.clearValue(i, j);
-                        }
-                    }
-                    // After updating, set bold and color for incorrect
-                    Integer val = space.getActual();
-                    field.setFont(field.getFont().deriveFont(Font.BOLD, 20f));
-                    if (val != null && val != space.getExpected()) {
-                        field.setForeground(Color.RED);
-                    } else {
-                        field.setForeground(Color.BLACK);
-                    }
-                }
+    /**
+     * Applies an edited field to the board. The board then reports the change back through
+     * {@link #valueChanged(int, int, int)}, which repaints the cell and its peers.
+     */
+    private void fieldEdited(final int col, final int row) {
+        String text = fields.get(col).get(row).getText();
+        int value;
+        try {
+            value = text.isEmpty() ? 0 : Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            value = -1;
+        }
+        editing = true;
+        try {
+            if (value == board.getValue(col, row)) {
+                return;
             }
+            if (value <= 0) {
+                board.clearValue(col, row);
+            } else {
+                board.changeValue(col, row, value);
+            }
+        } catch (IllegalArgumentException ignored) {
+            board.clearValue(col, row);
+        } finally {
+            editing = false;
+            // Text the board rejected stays in the field, painted as an error.
+            paintField(col, row);
         }
     }
 
-    private void updateFieldsFromBoard() {
+    /**
+     * Keeps the grid in step with the board, whether a field, a reset or undo and redo changed it.
+     * Only the cell and the peers holding its old or new value can change color.
+     */
+    private void valueChanged(final int index, final int previous, final int current) {
+        int col = index / size;
+        int row = index % size;
+        if (!editing) {
+            JTextField field = fields.get(col).get(row);
+            updatingFields = true;
+            try {
+                field.setText(current <= 0 ? "" : String.valueOf(current));
+            } finally {
+                updatingFields = false;
+            }
+        }
+        paintField(col, row);
+        paintPeers(col, row, previous);
+        paintPeers(col, row, current);
+        if (hintShown) {
+            updateStatus();
+        }
+    }
+
+    private void paintPeers(final int col, final int row, final int value) {
+        if (value <= 0) {
+            return;
+        }
         for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                Space space = board.getSpaces().get(i).get(j);
-                JTextField field = fields.get(i).get(j);
-                if (!space.isFixed()) {
-                    Integer val = space.getActual();
-                    if (val == null) {
-                        field.setText("");
-                        field.setFont(field.getFont().deriveFont(Font.BOLD, 20f));
-                        field.setForeground(Color.BLACK);
-                    } else {
-                        field.setText(String.valueOf(val));
-                        field.setFont(field.getFont().deriveFont(Font.BOLD, 20f));
-                        // Check if the value is different from expected, highlight in bold
-                        if (val != space.getExpected()) {
-                            field.setForeground(Color.RED);
-                        } else {
-                            field.setForeground(Color.BLACK);
-                        }
-                    }
+            if (i != row && board.getValue(col, i) == value) {
+                paintField(col, i);
+            }
+            if (i != col && board.getValue(i, row) == value) {
+                paintField(i, row);
+            }
+        }
+        int box = board.getBoxSize();
+        if (box == 0) {
+            return;
+        }
+        for (int i = col - col % box; i < col - col % box + box; i++) {
+            for (int j = row - row % box; j < row - row % box + box; j++) {
+                if (i != col && j != row && board.getValue(i, j) == value) {
+                    paintField(i, j);
                 }
             }
         }
     }
 
+    /**
+     * Red for values that clash with a peer or differ from the solution, black otherwise.
+     */
+    private void paintField(final int col, final int row) {
+        Space space = board.getSpaces().get(col).get(row);
+        JTextField field = fields.get(col).get(row);
+        Integer val = space.getActual();
+        boolean rejected = val == null && !field.getText().isEmpty();
+        Color color = rejected || board.hasConflict(col, row) || (val != null && val != space.getExpected())
+                ? ERROR_COLOR : VALUE_COLOR;
+        if (field.getForeground() != color) {
+            field.setForeground(color);
+        }
+    }
+
+    private void showHint() {
+        var steps = new LogicalSolver(board.getBoxSize()).nextHint(board);
+        if (steps.isEmpty()) {
+            statusLabel.setText("No hint available for the current board.");
+            return;
+        }
+        var placement = steps.get(steps.size() - 1);
+        var cell = placement.pattern().get(0);
+        statusLabel.setText("Hint: " + placement);
+        hintShown = true;
+        fields.get(cell.col()).get(cell.row()).requestFocusInWindow();
+    }
+
+    /**
+     * Runs when the board's status or errors change, and for the Check button, which also clears a hint.
+     */
     private void updateStatus() {
+        hintShown = false;
         if (board.gameIsFinished()) {
             statusLabel.setText("Congratulations! You solved it!");
         } else if (board.hasErrors()) {
@@ -145,47 +250,48 @@ public class MainUIApplication extends JFrame {
         }
     }
 
-    public static void main(String[] args) {
-        int size = 9;
-        List<List<Space>> spaces = new ArrayList<>();
-        if (args.length == 0) {
-            // Default board as per user prompt
-            String[] defaultArgs = ("0,0;4,false 1,0;7,false 2,0;9,true 3,0;5,false 4,0;8,true 5,0;6,true 6,0;2,true 7,0;3,false 8,0;1,false " +
-                    "0,1;1,false 1,1;3,true 2,1;5,false 3,1;4,false 4,1;7,true 5,1;2,false 6,1;8,false 7,1;9,true 8,1;6,true " +
-                    "0,2;2,false 1,2;6,true 2,2;8,false 3,2;9,false 4,2;1,true 5,2;3,false 6,2;7,false 7,2;4,false 8,2;5,true " +
-                    "0,3;5,true 1,3;1,false 2,3;3,true 3,3;7,false 4,3;6,false 5,3;4,false 6,3;9,false 7,3;8,true 8,3;2,false " +
-                    "0,4;8,false 1,4;9,true 2,4;7,false 3,4;1,true 4,4;2,true 5,4;5,true 6,4;3,false 7,4;6,true 8,4;4,false " +
-                    "0,5;6,false 1,5;4,true 2,5;2,false 3,5;3,false 4,5;9,false 5,5;8,false 6,5;1,true 7,5;5,false 8,5;7,true " +
-                    "0,6;7,true 1,6;5,false 2,6;4,false 3,6;2,false 4,6;3,true 5,6;9,false 6,6;6,false 7,6;1,true 8,6;8,false " +
-                    "0,7;9,true 1,7;8,true 2,7;1,false 3,7;6,false 4,7;4,true 5,7;7,false 6,7;5,false 7,7;2,true 8,7;3,false " +
-                    "0,8;3,false 1,8;2,false 2,8;6,true 3,8;8,true 4,8;5,true 5,8;1,false 6,8;4,true 7,8;7,false 8,8;9,false").split(" ");
-            for (int i = 0; i < size; i++) {
-                List<Space> row = new ArrayList<>();
-                for (int j = 0; j < size; j++) {
-                    row.add(null); // placeholder
-                }
-                spaces.add(row);
-            }
-            for (String arg : defaultArgs) {
-                String[] parts = arg.split(";");
-                String[] pos = parts[0].split(",");
-                int x = Integer.parseInt(pos[0]);
-                int y = Integer.parseInt(pos[1]);
-                String[] valueFixed = parts[1].split(",");
-                int value = Integer.parseInt(valueFixed[0]);
-                boolean fixed = Boolean.parseBoolean(valueFixed[1]);
-                spaces.get(y).set(x, new Space(value, fixed));
+    private class FieldListener implements DocumentListener {
+        private final int col;
+        private final int row;
+
+        FieldListener(final int col, final int row) {
+            this.col = col;
+            this.row = row;
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            changedUpdate(e);
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            changedUpdate(e);
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            if (!updatingFields) {
+                fieldEdited(col, row);
             }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Board board;
+        if (args.length == 0) {
+            board = new PuzzleGenerator(RandomGenerator.getDefault()).generate(MEDIUM).toBoard();
+        } else if (args.length == 2 && args[0].equals("--box")) {
+            board = new PuzzleGenerator(Integer.parseInt(args[1]), RandomGenerator.getDefault()).generate(MEDIUM).toBoard();
         } else {
-            for (int i = 0; i < size; i++) {
-                List<Space> row = new ArrayList<>();
-                for (int j = 0; j < size; j++) {
-                    row.add(new Space(1, false));
-                }
-                spaces.add(row);
+            try (var reader = args.length == 2 && args[0].equals("--puzzle")
+                    ? PuzzleFormat.open(Path.of(args[1])) : new ArgumentsPuzzleReader(3, args)) {
+                board = SudokuApplication.readPuzzle(reader).toBoard();
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
             }
         }
-        Board board = new Board(spaces);
         javax.swing.SwingUtilities.invokeLater(() -> {
             new MainUIApplication(board).setVisible(true);
         });
@@ -1,18 +1,173 @@
 package com.fs.sudoku;
 
-import java.util.Map;
-import java.util.stream.Stream;
+import com.fs.sudoku.batch.BatchSolver;
+import com.fs.sudoku.batch.BatchVerifier;
+import com.fs.sudoku.dedup.Deduplicator;
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.io.ArgumentsPuzzleReader;
+import com.fs.sudoku.io.PuzzleFormat;
+import com.fs.sudoku.io.PuzzleReader;
+import com.fs.sudoku.metrics.SudokuMetrics;
+import com.fs.sudoku.pool.PoolOptions;
+import com.fs.sudoku.pool.PuzzlePool;
+import com.fs.sudoku.server.GameServer;
+import com.fs.sudoku.solver.SolutionCache;
+import com.fs.sudoku.solver.SolutionCounter;
 
-import static java.util.stream.Collectors.toMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static com.fs.sudoku.generator.Difficulty.MEDIUM;
 
 public class SudokuApplication {
-    public static void main(String[] args) {
-        Map<String, String> positions = Stream.of(args)
-                .collect(toMap(
-                        k -> k.split(";")[0],
-                        v -> v.split(";")[1]
-                ));
-        PlayGame playGame = new PlayGame(positions);
-        playGame.run();
+    private static final long BATCH_CACHE_BYTES = 64L << 20;
+
+    public static void main(String[] args) throws IOException {
+        var boxSize = 3;
+        Path saveDirectory = null;
+        Path puzzleFile = null;
+        Path warmFile = null;
+        Path scriptFile = null;
+        Path spillDirectory = null;
+        // Seeded runs generate their own puzzles; the others take them from a pool.
+        RandomGenerator random = null;
+        if (args.length > 0 && args[0].equals("--metrics")) {
+            SudokuMetrics.enable();
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        while (args.length >= 2 && (args[0].equals("--box") || args[0].equals("--save") || args[0].equals("--puzzle")
+                || args[0].equals("--warm") || args[0].equals("--script") || args[0].equals("--seed")
+                || args[0].equals("--spill"))) {
+            if (args[0].equals("--box")) {
+                boxSize = Integer.parseInt(args[1]);
+                if (boxSize < 2 || boxSize > 5) {
+                    throw new IllegalArgumentException("Box size must be between 2 and 5");
+                }
+            } else if (args[0].equals("--save")) {
+                saveDirectory = Path.of(args[1]);
+            } else if (args[0].equals("--warm")) {
+                warmFile = Path.of(args[1]);
+            } else if (args[0].equals("--script")) {
+                scriptFile = Path.of(args[1]);
+            } else if (args[0].equals("--seed")) {
+                random = new SplittableRandom(Long.parseLong(args[1]));
+            } else if (args[0].equals("--spill")) {
+                spillDirectory = Path.of(args[1]);
+            } else {
+                puzzleFile = Path.of(args[1]);
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length == 3 && args[0].equals("--batch")) {
+            var cache = new SolutionCache(3, BATCH_CACHE_BYTES);
+            if (warmFile != null) {
+                try (var reader = PuzzleFormat.open(warmFile)) {
+                    System.out.printf("Loaded %s known solutions\n", cache.warm(reader));
+                    reportSkipped(reader);
+                }
+            }
+            try (var batchSolver = new BatchSolver(Runtime.getRuntime().availableProcessors(), cache)) {
+                var count = batchSolver.solve(Path.of(args[1]), Path.of(args[2]));
+                System.out.printf("Solved %s puzzles, %s of them from the cache\n", count, cache.getHits());
+            }
+            SudokuMetrics.report(System.out);
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--verify")) {
+            var verifier = new BatchVerifier();
+            verifier.verify(Path.of(args[1]), Path.of(args[2]));
+            System.out.printf("Verified %s solutions, %s wrong, %s unsolved\n", verifier.getVerified(),
+                    verifier.getFailed(), verifier.getUnsolved());
+            if (verifier.getFailed() > 0) {
+                System.out.printf("First wrong solution at line %s\n", verifier.getFirstFailure());
+            }
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--dedup")) {
+            try (var reader = PuzzleFormat.open(Path.of(args[1]));
+                 var out = Files.newBufferedWriter(Path.of(args[2]));
+                 var deduplicator = new Deduplicator(reader.getBoxSize(), 0)) {
+                var read = deduplicator.copyUnique(reader, out);
+                System.out.printf("Kept %s of %s puzzles\n", deduplicator.getUniqueCount(), read);
+                reportSkipped(reader);
+            }
+            SudokuMetrics.report(System.out);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--unique")) {
+            try (var reader = PuzzleFormat.open(Path.of(args[1]));
+                 var counter = new SolutionCounter(reader.getBoxSize())) {
+                var cells = reader.getBoxSize() * reader.getBoxSize() * reader.getBoxSize() * reader.getBoxSize();
+                var givens = new byte[cells];
+                var solution = new byte[cells];
+                long[] counts = new long[3];
+                while (reader.read(givens, solution)) {
+                    counts[counter.count(givens, 2)]++;
+                }
+                System.out.printf("%s unique, %s with several solutions, %s without a solution\n", counts[1], counts[2],
+                        counts[0]);
+                reportSkipped(reader);
+            }
+            SudokuMetrics.report(System.out);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--server")) {
+            if (spillDirectory == null) {
+                spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "sudoku-pool-" + boxSize);
+            }
+            try (var pool = new PuzzlePool(boxSize, Set.of(MEDIUM), PoolOptions.DEFAULT, spillDirectory);
+                 var server = new GameServer(Integer.parseInt(args[1]), () -> pool.take(MEDIUM).toBoard())) {
+                // Every miss made a new game wait for the generator; say so at 1, 2, 4, 8... of them.
+                pool.setMissListener(misses -> {
+                    if (Long.bitCount(misses) == 1) {
+                        System.err.printf("%s new games had to wait for a puzzle to be generated\n", misses);
+                    }
+                });
+                System.out.printf("Listening on port %s\n", server.getPort());
+                server.run();
+            }
+            return;
+        }
+        Puzzle puzzle = null;
+        if (puzzleFile != null || args.length > 0) {
+            try (var reader = puzzleFile != null ? PuzzleFormat.open(puzzleFile) : new ArgumentsPuzzleReader(boxSize, args)) {
+                puzzle = readPuzzle(reader);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+            boxSize = puzzle.boxSize();
+        }
+        PlayGame playGame = new PlayGame(puzzle, boxSize, saveDirectory, random);
+        if (scriptFile == null) {
+            playGame.run();
+            return;
+        }
+        try (var script = Files.newBufferedReader(scriptFile)) {
+            playGame.run(script, System.out, false);
+        }
+    }
+
+    private static void reportSkipped(final PuzzleReader reader) {
+        if (reader.getSkipped() > 0) {
+            System.out.printf("Skipped %s unreadable puzzles, the first on line %s\n", reader.getSkipped(),
+                    reader.getFirstSkipped());
+        }
+    }
+
+    /**
+     * The first puzzle of the reader, solved if it came without a solution.
+     */
+    static Puzzle readPuzzle(final PuzzleReader reader) throws IOException {
+        var puzzle = reader.next();
+        if (puzzle == null) {
+            throw new IllegalArgumentException("There is no puzzle to read");
+        }
+        return puzzle;
     }
 }
@@ -0,0 +1,137 @@
+package com.fs.sudoku.batch;
+
+import com.fs.sudoku.solver.BoardSolver;
+import com.fs.sudoku.solver.SolutionCache;
+import com.fs.sudoku.util.PuzzleLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a stream of puzzle lines on a work-stealing pool and writes one result line per input
+ * line, in input order: the solution and the solve time in nanoseconds separated by a comma,
+ * or {@code invalid} / {@code no solution}. Lines are handed out in chunks and only a few chunks
+ * per worker are in flight at once, so memory stays flat whatever the input size. With a
+ * {@link SolutionCache}, puzzles repeated in the input or solved before are looked up instead.
+ */
+public final class BatchSolver implements AutoCloseable {
+
+    static final String INVALID = "invalid";
+    static final String NO_SOLUTION = "no solution";
+
+    private static final int CHUNK_SIZE = 512;
+
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final SolutionCache cache;
+
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchSolver(final int parallelism) {
+        this(parallelism, null);
+    }
+
+    public BatchSolver(final int parallelism, final SolutionCache cache) {
+        if (cache != null && cache.getBoxSize() != 3) {
+            throw new IllegalArgumentException("Puzzle lines hold 9x9 puzzles only");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxInFlight = parallelism * 4;
+        this.cache = cache;
+    }
+
+    public long solve(final Path input, final Path output) throws IOException {
+        try (var in = Files.newBufferedReader(input);
+             var out = Files.newBufferedWriter(output)) {
+            return solve(in, out);
+        }
+    }
+
+    /**
+     * Returns the number of lines processed.
+     */
+    public long solve(final BufferedReader in, final Writer out) throws IOException {
+        var pending = new ArrayDeque<Future<String[]>>(maxInFlight);
+        var processed = 0L;
+        var chunk = new String[CHUNK_SIZE];
+        var filled = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            chunk[filled++] = line;
+            if (filled == CHUNK_SIZE) {
+                if (pending.size() == maxInFlight) {
+                    processed += write(pending.poll(), out);
+                }
+                pending.add(submit(chunk, filled));
+                chunk = new String[CHUNK_SIZE];
+                filled = 0;
+            }
+        }
+        if (filled > 0) {
+            pending.add(submit(chunk, filled));
+        }
+        while (!pending.isEmpty()) {
+            processed += write(pending.poll(), out);
+        }
+        out.flush();
+        return processed;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    static String solveLine(final String line, final byte[] grid, final StringBuilder result, final SolutionCache cache) {
+        result.setLength(0);
+        if (!PuzzleLine.parse(line.strip(), grid)) {
+            return INVALID;
+        }
+        var start = System.nanoTime();
+        var solution = cache != null ? cache.solve(grid) : BoardSolver.forBoxSize(3).solve(grid);
+        var elapsed = System.nanoTime() - start;
+        if (solution == null) {
+            return NO_SOLUTION;
+        }
+        PuzzleLine.format(solution, result);
+        return result.append(',').append(elapsed).toString();
+    }
+
+    private Future<String[]> submit(final String[] lines, final int count) {
+        return pool.submit(() -> {
+            var grid = new byte[PuzzleLine.LENGTH];
+            var result = new StringBuilder(PuzzleLine.LENGTH + 12);
+            var results = new String[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = solveLine(lines[i], grid, result, cache);
+            }
+            return results;
+        });
+    }
+
+    private static int write(final Future<String[]> future, final Writer out) throws IOException {
+        String[] results;
+        try {
+            results = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for solutions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solving a chunk of puzzles failed", e.getCause());
+        }
+        for (var result : results) {
+            out.write(result);
+            out.write('\n');
+        }
+        return results.length;
+    }
+}
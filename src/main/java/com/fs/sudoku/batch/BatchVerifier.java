@@ -0,0 +1,85 @@
+package com.fs.sudoku.batch;
+
+import com.fs.sudoku.solver.GridValidator;
+import com.fs.sudoku.util.PuzzleLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks a result file of {@link BatchSolver} against its puzzle file, line by line: every
+ * solution must be a valid grid that keeps the puzzle's givens. Lines the solver marked
+ * {@code invalid} or {@code no solution} are counted as unsolved.
+ */
+public final class BatchVerifier {
+
+    private final GridValidator validator = GridValidator.forBoxSize(3);
+    private long verified;
+    private long failed;
+    private long unsolved;
+    private long firstFailure = -1;
+
+    public void verify(final Path puzzles, final Path results) throws IOException {
+        try (var puzzleIn = Files.newBufferedReader(puzzles);
+             var resultIn = Files.newBufferedReader(results)) {
+            verify(puzzleIn, resultIn);
+        }
+    }
+
+    /**
+     * Verifies every result line against the puzzle line in the same position. A results file
+     * shorter or longer than the puzzle file fails with an {@link IOException}.
+     */
+    public void verify(final BufferedReader puzzles, final BufferedReader results) throws IOException {
+        var givens = new byte[PuzzleLine.LENGTH];
+        var grid = new byte[PuzzleLine.LENGTH];
+        var lineNumber = verified + failed + unsolved;
+        String result;
+        while ((result = results.readLine()) != null) {
+            lineNumber++;
+            var puzzle = puzzles.readLine();
+            if (puzzle == null) {
+                throw new IOException("More results than puzzles at line " + lineNumber);
+            }
+            if (result.equals(BatchSolver.INVALID) || result.equals(BatchSolver.NO_SOLUTION)) {
+                unsolved++;
+                continue;
+            }
+            var comma = result.indexOf(',');
+            var solution = comma < 0 ? result : result.substring(0, comma);
+            if (PuzzleLine.parse(puzzle.strip(), givens) && PuzzleLine.parse(solution, grid)
+                    && validator.isSolution(givens, grid)) {
+                verified++;
+            } else {
+                failed++;
+                if (firstFailure < 0) {
+                    firstFailure = lineNumber;
+                }
+            }
+        }
+        if (puzzles.readLine() != null) {
+            throw new IOException("Fewer results than puzzles at line " + (lineNumber + 1));
+        }
+    }
+
+    public long getVerified() {
+        return verified;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getUnsolved() {
+        return unsolved;
+    }
+
+    /**
+     * The 1-based line of the first failed solution, or -1 when none failed.
+     */
+    public long getFirstFailure() {
+        return firstFailure;
+    }
+}
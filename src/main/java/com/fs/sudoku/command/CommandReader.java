@@ -0,0 +1,171 @@
+package com.fs.sudoku.command;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Parses the keystrokes of the console menu into {@link GameCommand}s: a menu option followed by
+ * the numbers it asks for, such as {@code 2 col row value}, or {@code 6 yes}, separated by any
+ * whitespace. A number out of range or a word where a number belongs is asked for again, as the
+ * console would, so a script with a bad move skips it instead of failing. Reads through its own
+ * buffer and parses numbers without allocating.
+ */
+public final class CommandReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_TOKEN = 64;
+
+    private final Reader in;
+    private final int size;
+    private final Consumer<String> prompts;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final char[] token = new char[MAX_TOKEN];
+    private int position;
+    private int limit;
+    private int length;
+
+    /**
+     * Without prompts, such as for scripts, pass a consumer that ignores them.
+     */
+    public CommandReader(final Reader in, final int boxSize, final Consumer<String> prompts) {
+        this.in = in;
+        this.size = boxSize * boxSize;
+        this.prompts = prompts;
+    }
+
+    /**
+     * The next command, or null at the end of the input, including in the middle of a command.
+     */
+    public GameCommand next() throws IOException {
+        if (!nextToken()) {
+            return null;
+        }
+        var option = number();
+        return switch (option) {
+            case 1 -> GameCommand.START;
+            case 2 -> insert();
+            case 3 -> remove();
+            case 4 -> GameCommand.SHOW;
+            case 5 -> GameCommand.STATUS;
+            case 6 -> clear();
+            case 7 -> GameCommand.FINISH;
+            case 8 -> GameCommand.EXIT;
+            default -> new GameCommand.Invalid(new String(token, 0, length));
+        };
+    }
+
+    private GameCommand insert() throws IOException {
+        prompts.accept("Enter the column where the number will be inserted");
+        var col = nextNumber(0, size - 1);
+        if (col < 0) {
+            return null;
+        }
+        prompts.accept("Enter the row where the number will be inserted");
+        var row = nextNumber(0, size - 1);
+        if (row < 0) {
+            return null;
+        }
+        prompts.accept("Enter the number to insert at position [%s,%s]".formatted(col, row));
+        var value = nextNumber(1, size);
+        return value < 0 ? null : new GameCommand.Insert(col, row, value);
+    }
+
+    private GameCommand remove() throws IOException {
+        prompts.accept("Enter the column of the number to remove");
+        var col = nextNumber(0, size - 1);
+        if (col < 0) {
+            return null;
+        }
+        prompts.accept("Enter the row of the number to remove");
+        var row = nextNumber(0, size - 1);
+        return row < 0 ? null : new GameCommand.Remove(col, row);
+    }
+
+    private GameCommand clear() throws IOException {
+        prompts.accept("Are you sure you want to clear your game and lose all progress?");
+        while (nextToken()) {
+            if (is("yes")) {
+                return new GameCommand.Clear(true);
+            }
+            if (is("no")) {
+                return new GameCommand.Clear(false);
+            }
+            prompts.accept("Please enter 'yes' or 'no'");
+        }
+        return null;
+    }
+
+    /**
+     * The next number between min and max, or -1 at the end of the input.
+     */
+    private int nextNumber(final int min, final int max) throws IOException {
+        while (nextToken()) {
+            var number = number();
+            if (number >= min && number <= max) {
+                return number;
+            }
+            prompts.accept("Please enter a number between %s and %s".formatted(min, max));
+        }
+        return -1;
+    }
+
+    /**
+     * The token as a non-negative number, or -1 when it is not one.
+     */
+    private int number() {
+        if (length > 9) {
+            return -1;
+        }
+        var number = 0;
+        for (int i = 0; i < length; i++) {
+            var digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            number = number * 10 + digit;
+        }
+        return number;
+    }
+
+    private boolean is(final String word) {
+        if (length != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toLowerCase(token[i]) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next whitespace-separated token; characters past {@link #MAX_TOKEN} are dropped.
+     */
+    private boolean nextToken() throws IOException {
+        length = 0;
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && Character.isWhitespace(c));
+        while (c >= 0 && !Character.isWhitespace(c)) {
+            if (length < MAX_TOKEN) {
+                token[length++] = (char) c;
+            }
+            c = read();
+        }
+        return length > 0;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,114 @@
+package com.fs.sudoku.command;
+
+/**
+ * One parsed menu command. Commands are immutable, so a sequence of them can be queued, stored and
+ * replayed; {@link #toScript()} gives back the keystrokes {@link CommandReader} parses it from.
+ */
+public sealed interface GameCommand {
+
+    GameCommand START = new Start();
+    GameCommand SHOW = new Show();
+    GameCommand STATUS = new Status();
+    GameCommand FINISH = new Finish();
+    GameCommand EXIT = new Exit();
+
+    /**
+     * The metric tag of the command.
+     */
+    String getLabel();
+
+    String toScript();
+
+    record Start() implements GameCommand {
+        public String getLabel() {
+            return "start";
+        }
+
+        public String toScript() {
+            return "1";
+        }
+    }
+
+    record Insert(int col, int row, int value) implements GameCommand {
+        public String getLabel() {
+            return "insert";
+        }
+
+        public String toScript() {
+            return "2 %s %s %s".formatted(col, row, value);
+        }
+    }
+
+    record Remove(int col, int row) implements GameCommand {
+        public String getLabel() {
+            return "remove";
+        }
+
+        public String toScript() {
+            return "3 %s %s".formatted(col, row);
+        }
+    }
+
+    record Show() implements GameCommand {
+        public String getLabel() {
+            return "show";
+        }
+
+        public String toScript() {
+            return "4";
+        }
+    }
+
+    record Status() implements GameCommand {
+        public String getLabel() {
+            return "status";
+        }
+
+        public String toScript() {
+            return "5";
+        }
+    }
+
+    record Clear(boolean confirmed) implements GameCommand {
+        public String getLabel() {
+            return "clear";
+        }
+
+        public String toScript() {
+            return confirmed ? "6 yes" : "6 no";
+        }
+    }
+
+    record Finish() implements GameCommand {
+        public String getLabel() {
+            return "finish";
+        }
+
+        public String toScript() {
+            return "7";
+        }
+    }
+
+    record Exit() implements GameCommand {
+        public String getLabel() {
+            return "exit";
+        }
+
+        public String toScript() {
+            return "8";
+        }
+    }
+
+    /**
+     * A token that is not a menu option.
+     */
+    record Invalid(String option) implements GameCommand {
+        public String getLabel() {
+            return "invalid";
+        }
+
+        public String toScript() {
+            return option;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.fs.sudoku.command;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.metrics.SudokuMetrics;
+import com.fs.sudoku.store.GameJournal;
+import com.fs.sudoku.store.JournalOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Applies commands to the game, one at a time, on the thread that calls {@link #apply(GameCommand)}
+ * or {@link #run(BlockingQueue)}; it is the only writer of the board and the journal, so neither
+ * needs a lock. What the player sees goes to a {@link GameOutput}. Given the same puzzle or the same
+ * sequence of new puzzles, the same commands always produce the same game and output.
+ */
+public final class GameLoop {
+    private final Puzzle puzzle;
+    private final Supplier<Puzzle> newPuzzles;
+    private final Path saveDirectory;
+    private final GameOutput output;
+    private final boolean interactive;
+    private Board board;
+    private GameJournal journal;
+
+    /**
+     * Without a puzzle every new game is a medium puzzle from {@code newPuzzles}. With a save
+     * directory the game in progress is journaled there and resumed by {@link #begin()}. An
+     * interactive loop shows the board and the menu after every command.
+     */
+    public GameLoop(final Puzzle puzzle, final Supplier<Puzzle> newPuzzles, final Path saveDirectory,
+                    final GameOutput output, final boolean interactive) {
+        this.puzzle = puzzle;
+        this.newPuzzles = newPuzzles;
+        this.saveDirectory = saveDirectory;
+        this.output = output;
+        this.interactive = interactive;
+    }
+
+    /**
+     * Resumes the saved game, if there is one.
+     */
+    public void begin() {
+        if (saveDirectory != null && GameJournal.exists(saveDirectory)) {
+            try {
+                journal = GameJournal.resume(saveDirectory, JournalOptions.DEFAULT);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            board = journal.getBoard();
+            output.print("Your saved game was restored");
+        }
+        showMenu();
+    }
+
+    /**
+     * Applies commands from the queue until one exits the game.
+     */
+    public void run(final BlockingQueue<GameCommand> commands) throws InterruptedException {
+        var running = true;
+        while (running) {
+            running = apply(commands.take());
+        }
+    }
+
+    /**
+     * Applies one command and returns false when it exits the game, which closes the journal.
+     */
+    public boolean apply(final GameCommand command) {
+        var start = SudokuMetrics.start();
+        // Plain instanceof checks: bootstrapping a pattern switch costs tens of milliseconds at startup.
+        // Unlike the switch they are not checked for exhaustiveness, so a new command type fails here.
+        if (command instanceof GameCommand.Insert insert) {
+            inputNumber(insert);
+        } else if (command instanceof GameCommand.Remove remove) {
+            removeNumber(remove);
+        } else if (command instanceof GameCommand.Clear clear) {
+            clearGame(clear);
+        } else if (command instanceof GameCommand.Invalid) {
+            output.print("Invalid option, please select a menu option");
+        } else if (command instanceof GameCommand.Start) {
+            startGame();
+        } else if (command instanceof GameCommand.Show) {
+            showCurrentGame();
+        } else if (command instanceof GameCommand.Status) {
+            showGameStatus();
+        } else if (command instanceof GameCommand.Finish) {
+            finishGame();
+        } else if (command instanceof GameCommand.Exit) {
+            closeJournal();
+        } else {
+            throw new IllegalStateException("Unhandled command " + command);
+        }
+        SudokuMetrics.stopCommand(command.getLabel(), start);
+        if (command instanceof GameCommand.Exit) {
+            return false;
+        }
+        showMenu();
+        return true;
+    }
+
+    /**
+     * The game in progress, or null.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    private void showMenu() {
+        if (!interactive) {
+            return;
+        }
+        showCurrentGame();
+        output.print("""
+                Select one of the following options
+                1 - Start a new game
+                2 - Insert a new number
+                3 - Remove a number
+                4 - View current game
+                5 - Check game status
+                6 - Clear game
+                7 - Finish game
+                8 - Exit""");
+    }
+
+    /**
+     * Starts a new game, abandoning the one in progress.
+     */
+    private void startGame() {
+        if (board != null) {
+            closeJournal();
+            output.print("The previous game was abandoned");
+        }
+        if (puzzle == null) {
+            board = newPuzzles.get().toBoard();
+            saveNewGame();
+            output.print("A new medium puzzle is ready to start");
+            return;
+        }
+        board = puzzle.toBoard();
+        saveNewGame();
+        output.print("The game is ready to start");
+    }
+
+    private void saveNewGame() {
+        if (saveDirectory == null) {
+            return;
+        }
+        try {
+            journal = GameJournal.start(saveDirectory, board, JournalOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            journal = null;
+        }
+    }
+
+    private void inputNumber(final GameCommand.Insert insert) {
+        if (board == null) {
+            output.print("The game has not started yet");
+            return;
+        }
+        if (!board.changeValue(insert.col(), insert.row(), insert.value())) {
+            output.print("The position [%s,%s] has a fixed value".formatted(insert.col(), insert.row()));
+        }
+    }
+
+    private void removeNumber(final GameCommand.Remove remove) {
+        if (board == null) {
+            output.print("The game has not started yet");
+            return;
+        }
+        if (!board.clearValue(remove.col(), remove.row())) {
+            output.print("The position [%s,%s] has a fixed value".formatted(remove.col(), remove.row()));
+        }
+    }
+
+    private void showCurrentGame() {
+        if (board == null) {
+            output.print("The game has not started yet.");
+            return;
+        }
+        output.print("Your current game board:");
+        output.show(board.getValues());
+    }
+
+    private void showGameStatus() {
+        if (board == null) {
+            output.print("The game has not started yet");
+            return;
+        }
+        output.status(board.getStatus(), board.hasErrors());
+    }
+
+    private void clearGame(final GameCommand.Clear clear) {
+        if (board == null) {
+            output.print("The game has not started yet");
+            return;
+        }
+        if (clear.confirmed()) {
+            board.reset();
+        }
+    }
+
+    private void finishGame() {
+        if (board == null) {
+            output.print("The game has not started yet");
+            return;
+        }
+        if (board.gameIsFinished()) {
+            output.print("Congratulations, you completed the game!");
+            showCurrentGame();
+            board = null;
+            if (journal != null) {
+                try {
+                    journal.discard();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                journal = null;
+            }
+        } else if (board.hasErrors()) {
+            output.print("Your game contains errors, please check your board and fix them");
+        } else {
+            output.print("You still need to fill in some spaces");
+        }
+    }
+}
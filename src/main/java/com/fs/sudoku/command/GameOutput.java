@@ -0,0 +1,19 @@
+package com.fs.sudoku.command;
+
+import com.fs.sudoku.domain.GameStatusEnum;
+
+/**
+ * Where a {@link GameLoop} sends what the player sees. The loop only hands over copies, so an
+ * output can format and write them on another thread while the loop goes on.
+ */
+public interface GameOutput {
+
+    void print(String line);
+
+    /**
+     * Shows a board from a copy of its values, as from {@link com.fs.sudoku.domain.Board#getValues()}.
+     */
+    void show(byte[] values);
+
+    void status(GameStatusEnum status, boolean hasErrors);
+}
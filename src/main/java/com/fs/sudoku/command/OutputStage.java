@@ -0,0 +1,138 @@
+package com.fs.sudoku.command;
+
+import com.fs.sudoku.domain.GameStatusEnum;
+import com.fs.sudoku.util.BoardRenderer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Formats, renders and writes game output on its own thread. Messages go through a bounded queue,
+ * so a fast producer waits for the writer instead of piling up output, and the stream is only
+ * flushed when the queue runs empty: a player sees each answer at once, while a script pays for one
+ * write per buffer instead of one per line. {@link #close()} writes everything still queued.
+ */
+public final class OutputStage implements GameOutput, AutoCloseable {
+    private static final int CAPACITY = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> messages = new ArrayBlockingQueue<>(CAPACITY);
+    private final OutputStream out;
+    private final BoardRenderer renderer;
+    private final Thread writer;
+    private volatile IOException failure;
+
+    public OutputStage(final OutputStream out, final int boxSize) {
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        this.renderer = new BoardRenderer(Channels.newChannel(this.out), boxSize);
+        this.writer = Thread.ofPlatform().name("game-output").daemon().start(this::drain);
+    }
+
+    @Override
+    public void print(final String line) {
+        put(line);
+    }
+
+    @Override
+    public void show(final byte[] values) {
+        put(values);
+    }
+
+    @Override
+    public void status(final GameStatusEnum status, final boolean hasErrors) {
+        put(hasErrors ? StatusLine.WITH_ERRORS[status.ordinal()] : StatusLine.WITHOUT_ERRORS[status.ordinal()]);
+    }
+
+    /**
+     * Waits until everything queued is written and flushed.
+     */
+    @Override
+    public void close() throws IOException {
+        put(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the game output", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void put(final Object message) {
+        try {
+            messages.put(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            var message = messages.take();
+            while (message != END) {
+                if (failure == null) {
+                    write(message);
+                }
+                message = messages.poll();
+                if (message == null) {
+                    flush();
+                    message = messages.take();
+                }
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(final Object message) {
+        try {
+            if (message instanceof byte[] values) {
+                renderer.render(values);
+            } else if (message instanceof StatusLine line) {
+                out.write(line.bytes());
+            } else {
+                out.write(((String) message).getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void flush() {
+        if (failure == null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * The answer to a status check, encoded once per status.
+     */
+    private record StatusLine(byte[] bytes) {
+        static final StatusLine[] WITH_ERRORS = lines("The game contains errors");
+        static final StatusLine[] WITHOUT_ERRORS = lines("The game does not contain errors");
+
+        private static StatusLine[] lines(final String errors) {
+            var statuses = GameStatusEnum.values();
+            var lines = new StatusLine[statuses.length];
+            for (int i = 0; i < statuses.length; i++) {
+                var text = "The game is currently in status: %s\n%s\n".formatted(statuses[i].getLabel(), errors);
+                lines[i] = new StatusLine(text.getBytes(StandardCharsets.UTF_8));
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.fs.sudoku.dedup;
+
+import com.fs.sudoku.domain.Board;
+
+import java.util.Arrays;
+
+/**
+ * Brings puzzles into a canonical form shared by every puzzle equivalent under the Sudoku
+ * symmetries: digit relabeling, row permutations within bands, column permutations within
+ * stacks, band and stack swaps, and transposition. The canonical form is the smallest transformed
+ * grid read row by row, with digits relabeled 1, 2, 3... in order of first appearance and givens
+ * ordered before empty cells. The search fixes the first row and every column permutation that
+ * keeps it minimal, then picks the remaining rows one at a time, keeping only the transforms that
+ * tie for the smallest prefix. Not thread-safe; use one instance per thread.
+ */
+public final class Canonicalizer {
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    // Row-major copies of the givens and of their transpose.
+    private final byte[][] grids = new byte[2][];
+    private final int[] bestRow;
+    private final int[] row;
+    private final byte[] labels;
+    private final byte[] canonical;
+    private final long[] words;
+    // Scratch of the first row search, reused for every puzzle.
+    private final int[] bestCounts;
+    private final int[] counts;
+    private final int[] stacks;
+    private final int[] columns;
+    // The column orders of the first row, which later rows keep; candidates refer to them by index.
+    private int[] columnOrders;
+    private int columnOrderCount;
+    private int lastLabel;
+    private Candidates candidates;
+    private Candidates next;
+
+    public Canonicalizer(final int boxSize) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.cellCount = size * size;
+        this.grids[0] = new byte[cellCount];
+        this.grids[1] = new byte[cellCount];
+        this.bestRow = new int[size];
+        this.row = new int[size];
+        this.labels = new byte[size + 1];
+        this.canonical = new byte[cellCount];
+        this.words = new long[(cellCount + 7) / 8];
+        this.bestCounts = new int[boxSize];
+        this.counts = new int[boxSize];
+        this.stacks = new int[boxSize];
+        this.columns = new int[size];
+        this.columnOrders = new int[64 * size];
+        this.candidates = new Candidates(size + 1);
+        this.next = new Candidates(size + 1);
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    public PuzzleKey key(final Board board) {
+        return key(board.getGivens());
+    }
+
+    /**
+     * A 128-bit hash of the canonical form of the givens; equivalent puzzles share a key.
+     */
+    public PuzzleKey key(final byte[] givens) {
+        canonicalize(givens, canonical);
+        return PuzzleKey.of(canonical, words);
+    }
+
+    /**
+     * Writes the canonical form of {@code givens} into {@code result}, both in the board layout
+     * {@code index = col * size + row} with 0 for empty cells.
+     */
+    public void canonicalize(final byte[] givens, final byte[] result) {
+        if (givens.length != cellCount || result.length != cellCount) {
+            throw new IllegalArgumentException("A puzzle of box size %s needs %s cells".formatted(boxSize, cellCount));
+        }
+        for (int col = 0; col < size; col++) {
+            for (int r = 0; r < size; r++) {
+                var value = givens[col * size + r];
+                grids[0][r * size + col] = value;
+                grids[1][col * size + r] = value;
+            }
+        }
+        firstRow();
+        for (int col = 0; col < size; col++) {
+            result[col * size] = (byte) (bestRow[col] > size ? 0 : bestRow[col]);
+        }
+        for (int out = 1; out < size; out++) {
+            nextRow(out);
+            for (int col = 0; col < size; col++) {
+                result[col * size + out] = (byte) (bestRow[col] > size ? 0 : bestRow[col]);
+            }
+        }
+    }
+
+    /**
+     * Picks the source rows whose givens can be packed furthest to the left and every column
+     * permutation that does so.
+     */
+    private void firstRow() {
+        candidates.count = 0;
+        columnOrderCount = 0;
+        Arrays.fill(bestCounts, -1);
+        Arrays.fill(bestRow, Integer.MAX_VALUE);
+        for (int t = 0; t < 2; t++) {
+            for (int r = 0; r < size; r++) {
+                stackCounts(grids[t], r, counts);
+                var order = Arrays.compare(counts, bestCounts);
+                if (order > 0) {
+                    System.arraycopy(counts, 0, bestCounts, 0, boxSize);
+                }
+            }
+        }
+        for (int t = 0; t < 2; t++) {
+            for (int r = 0; r < size; r++) {
+                stackCounts(grids[t], r, counts);
+                if (Arrays.equals(counts, bestCounts)) {
+                    permuteStacks(t, r, 0, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Given counts of each stack of a row, largest first.
+     */
+    private void stackCounts(final byte[] grid, final int r, final int[] counts) {
+        for (int stack = 0; stack < boxSize; stack++) {
+            var count = 0;
+            for (int c = stack * boxSize; c < stack * boxSize + boxSize; c++) {
+                if (grid[r * size + c] != 0) {
+                    count++;
+                }
+            }
+            counts[stack] = count;
+        }
+        // Insertion sort: Arrays.sort costs more than the counting for a handful of stacks.
+        for (int i = 1; i < boxSize; i++) {
+            var count = counts[i];
+            var j = i;
+            for (; j > 0 && counts[j - 1] < count; j--) {
+                counts[j] = counts[j - 1];
+            }
+            counts[j] = count;
+        }
+    }
+
+    private void permuteStacks(final int t, final int r, final int position, final int usedStacks) {
+        if (position == boxSize) {
+            permuteColumns(t, r, 0, 0);
+            return;
+        }
+        var grid = grids[t];
+        for (int stack = 0; stack < boxSize; stack++) {
+            if ((usedStacks & 1 << stack) != 0) {
+                continue;
+            }
+            var count = 0;
+            for (int c = stack * boxSize; c < stack * boxSize + boxSize; c++) {
+                if (grid[r * size + c] != 0) {
+                    count++;
+                }
+            }
+            if (count == bestCounts[position]) {
+                stacks[position] = stack;
+                permuteStacks(t, r, position + 1, usedStacks | 1 << stack);
+            }
+        }
+    }
+
+    /**
+     * Expands the stack order into every column order that puts the givens of each stack first.
+     */
+    private void permuteColumns(final int t, final int r, final int position, final int usedColumns) {
+        if (position == size) {
+            offerFirstRow(t, r);
+            return;
+        }
+        var stack = stacks[position / boxSize];
+        var grid = grids[t];
+        var givenLeft = false;
+        for (int c = stack * boxSize; c < stack * boxSize + boxSize; c++) {
+            givenLeft |= (usedColumns & 1 << c) == 0 && grid[r * size + c] != 0;
+        }
+        for (int c = stack * boxSize; c < stack * boxSize + boxSize; c++) {
+            if ((usedColumns & 1 << c) != 0 || (givenLeft && grid[r * size + c] == 0)) {
+                continue;
+            }
+            columns[position] = c;
+            permuteColumns(t, r, position + 1, usedColumns | 1 << c);
+        }
+    }
+
+    private void offerFirstRow(final int t, final int r) {
+        Arrays.fill(labels, (byte) 0);
+        var order = evaluate(grids[t], r, columns, 0, labels, 0, 0);
+        if (order > 0) {
+            return;
+        }
+        if (order < 0) {
+            candidates.count = 0;
+            columnOrderCount = 0;
+            System.arraycopy(row, 0, bestRow, 0, size);
+        }
+        if ((columnOrderCount + 1) * size > columnOrders.length) {
+            columnOrders = Arrays.copyOf(columnOrders, columnOrders.length * 2);
+        }
+        System.arraycopy(columns, 0, columnOrders, columnOrderCount * size, size);
+        var band = r / boxSize;
+        candidates.add(t, columnOrderCount++, labels, 0, lastLabel, 1 << r, 1 << band, band);
+    }
+
+    private void nextRow(final int out) {
+        next.count = 0;
+        Arrays.fill(bestRow, Integer.MAX_VALUE);
+        var newBand = out % boxSize == 0;
+        var stride = labels.length;
+        for (int i = 0; i < candidates.count; i++) {
+            var t = candidates.t[i];
+            var grid = grids[t];
+            var columnOrder = candidates.columnOrder[i];
+            var usedRows = candidates.usedRows[i];
+            var usedBands = candidates.usedBands[i];
+            for (int band = 0; band < boxSize; band++) {
+                if (newBand ? (usedBands & 1 << band) != 0 : band != candidates.band[i]) {
+                    continue;
+                }
+                for (int r = band * boxSize; r < band * boxSize + boxSize; r++) {
+                    if ((usedRows & 1 << r) != 0) {
+                        continue;
+                    }
+                    var order = evaluate(grid, r, columnOrders, columnOrder * size, candidates.labels, i * stride,
+                            candidates.nextLabel[i]);
+                    if (order > 0) {
+                        continue;
+                    }
+                    if (order < 0) {
+                        next.count = 0;
+                        System.arraycopy(row, 0, bestRow, 0, size);
+                    }
+                    next.add(t, columnOrder, labels, 0, lastLabel, usedRows | 1 << r, usedBands | 1 << band, band);
+                }
+            }
+        }
+        var swap = candidates;
+        candidates = next;
+        next = swap;
+    }
+
+    /**
+     * Relabels source row {@code r}, read in the column order at {@code columns[from]}, into
+     * {@link #row} and compares it with the best row so far, giving up as soon as it is larger.
+     * Starts from the labels at {@code startLabels[labelsFrom]} and leaves the extended ones in
+     * {@link #labels} and the highest in {@link #lastLabel}. Empty cells rank after every label.
+     */
+    private int evaluate(final byte[] grid, final int r, final int[] columns, final int from,
+                         final byte[] startLabels, final int labelsFrom, final int firstLabel) {
+        if (startLabels != labels) {
+            System.arraycopy(startLabels, labelsFrom, labels, 0, labels.length);
+        }
+        var label = firstLabel;
+        var order = 0;
+        for (int col = 0; col < size; col++) {
+            var value = grid[r * size + columns[from + col]];
+            int ranked;
+            if (value == 0) {
+                ranked = size + 1;
+            } else {
+                if (labels[value] == 0) {
+                    labels[value] = (byte) ++label;
+                }
+                ranked = labels[value];
+            }
+            row[col] = ranked;
+            if (order == 0) {
+                order = Integer.compare(ranked, bestRow[col]);
+                if (order > 0) {
+                    return order;
+                }
+            }
+        }
+        lastLabel = label;
+        return order;
+    }
+
+    /**
+     * The transforms still tied for the smallest prefix, in growable parallel arrays that are
+     * reused from one row and one puzzle to the next.
+     */
+    private static final class Candidates {
+        private final int stride;
+        private int[] t = new int[64];
+        private int[] columnOrder = new int[64];
+        private byte[] labels;
+        private int[] nextLabel = new int[64];
+        private int[] usedRows = new int[64];
+        private int[] usedBands = new int[64];
+        private int[] band = new int[64];
+        private int count;
+
+        Candidates(final int stride) {
+            this.stride = stride;
+            this.labels = new byte[64 * stride];
+        }
+
+        void add(final int t, final int columnOrder, final byte[] labels, final int from, final int nextLabel,
+                 final int usedRows, final int usedBands, final int band) {
+            if (count == this.t.length) {
+                var capacity = count * 2;
+                this.t = Arrays.copyOf(this.t, capacity);
+                this.columnOrder = Arrays.copyOf(this.columnOrder, capacity);
+                this.labels = Arrays.copyOf(this.labels, capacity * stride);
+                this.nextLabel = Arrays.copyOf(this.nextLabel, capacity);
+                this.usedRows = Arrays.copyOf(this.usedRows, capacity);
+                this.usedBands = Arrays.copyOf(this.usedBands, capacity);
+                this.band = Arrays.copyOf(this.band, capacity);
+            }
+            this.t[count] = t;
+            this.columnOrder[count] = columnOrder;
+            System.arraycopy(labels, from, this.labels, count * stride, stride);
+            this.nextLabel[count] = nextLabel;
+            this.usedRows[count] = usedRows;
+            this.usedBands[count] = usedBands;
+            this.band[count] = band;
+            count++;
+        }
+    }
+}
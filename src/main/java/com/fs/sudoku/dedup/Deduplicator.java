@@ -0,0 +1,133 @@
+package com.fs.sudoku.dedup;
+
+import com.fs.sudoku.io.PuzzleReader;
+import com.fs.sudoku.util.PuzzleLine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lets through the first puzzle of every equivalence class and drops the rest. Canonical forms
+ * cost far more than index lookups, so {@link #copyUnique(PuzzleReader, Writer)} computes the keys
+ * of chunks of puzzles on a work-stealing pool and adds them to the index in input order, with
+ * only a few chunks per worker in flight. {@link #isNew(byte[])} is not thread-safe.
+ */
+public final class Deduplicator implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 512;
+
+    private final int boxSize;
+    private final Canonicalizer canonicalizer;
+    private final PuzzleKeyIndex index;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final ThreadLocal<Canonicalizer> canonicalizers;
+
+    public Deduplicator(final int boxSize, final long expected) {
+        this(boxSize, expected, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Deduplicator(final int boxSize, final long expected, final int parallelism) {
+        this.boxSize = boxSize;
+        this.canonicalizer = new Canonicalizer(boxSize);
+        this.index = new PuzzleKeyIndex(expected);
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxInFlight = parallelism * 4;
+        this.canonicalizers = ThreadLocal.withInitial(() -> new Canonicalizer(boxSize));
+    }
+
+    /**
+     * Returns true when no equivalent puzzle was seen before.
+     */
+    public boolean isNew(final byte[] givens) {
+        return index.add(canonicalizer.key(givens));
+    }
+
+    public long getUniqueCount() {
+        return index.size();
+    }
+
+    /**
+     * Writes the first puzzle of each equivalence class as a puzzle line, in input order, and
+     * returns the number of puzzles read.
+     */
+    public long copyUnique(final PuzzleReader in, final Writer out) throws IOException {
+        if (in.getBoxSize() != 3 || boxSize != 3) {
+            throw new IllegalArgumentException("Puzzle lines hold 9x9 puzzles only");
+        }
+        var givens = new byte[PuzzleLine.LENGTH];
+        var solution = new byte[PuzzleLine.LENGTH];
+        var line = new StringBuilder(PuzzleLine.LENGTH + 1);
+        var pending = new ArrayDeque<Chunk>(maxInFlight);
+        var read = 0L;
+        var chunk = new byte[CHUNK_SIZE * PuzzleLine.LENGTH];
+        var filled = 0;
+        while (in.read(givens, solution)) {
+            System.arraycopy(givens, 0, chunk, filled++ * PuzzleLine.LENGTH, PuzzleLine.LENGTH);
+            read++;
+            if (filled == CHUNK_SIZE) {
+                if (pending.size() == maxInFlight) {
+                    write(pending.poll(), givens, line, out);
+                }
+                pending.add(submit(chunk, filled));
+                chunk = new byte[CHUNK_SIZE * PuzzleLine.LENGTH];
+                filled = 0;
+            }
+        }
+        if (filled > 0) {
+            pending.add(submit(chunk, filled));
+        }
+        while (!pending.isEmpty()) {
+            write(pending.poll(), givens, line, out);
+        }
+        out.flush();
+        return read;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Chunk submit(final byte[] puzzles, final int count) {
+        return new Chunk(puzzles, count, pool.submit(() -> {
+            var canonicalizer = canonicalizers.get();
+            var puzzle = new byte[PuzzleLine.LENGTH];
+            var keys = new long[count * 2];
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(puzzles, i * PuzzleLine.LENGTH, puzzle, 0, PuzzleLine.LENGTH);
+                var key = canonicalizer.key(puzzle);
+                keys[i * 2] = key.high();
+                keys[i * 2 + 1] = key.low();
+            }
+            return keys;
+        }));
+    }
+
+    private void write(final Chunk chunk, final byte[] puzzle, final StringBuilder line, final Writer out) throws IOException {
+        long[] keys;
+        try {
+            keys = chunk.keys().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for canonical forms", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Canonicalizing a chunk of puzzles failed", e.getCause());
+        }
+        for (int i = 0; i < chunk.count(); i++) {
+            if (index.add(keys[i * 2], keys[i * 2 + 1])) {
+                System.arraycopy(chunk.puzzles(), i * PuzzleLine.LENGTH, puzzle, 0, PuzzleLine.LENGTH);
+                line.setLength(0);
+                PuzzleLine.format(puzzle, line);
+                out.append(line.append('\n'));
+            }
+        }
+    }
+
+    private record Chunk(byte[] puzzles, int count, Future<long[]> keys) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.fs.sudoku.dedup;
+
+/**
+ * A 128-bit hash of a canonical puzzle, built from two independently seeded 64-bit hashes. The
+ * all-zero key is never produced, so indexes can use it to mark free slots.
+ */
+public record PuzzleKey(long high, long low) {
+
+    private static final long HIGH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long LOW_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long MULTIPLIER = 0xFF51AFD7ED558CCDL;
+
+    /**
+     * Hashes {@code cells}, using {@code words} as scratch space of {@code (cells.length + 7) / 8}
+     * longs.
+     */
+    static PuzzleKey of(final byte[] cells, final long[] words) {
+        for (int i = 0; i < words.length; i++) {
+            var word = 0L;
+            for (int j = i * 8; j < Math.min(i * 8 + 8, cells.length); j++) {
+                word = word << 8 | (cells[j] & 0xFF);
+            }
+            words[i] = word;
+        }
+        var high = HIGH_SEED ^ cells.length;
+        var low = LOW_SEED ^ cells.length;
+        for (var word : words) {
+            high = mix(high ^ word) * MULTIPLIER;
+            low = Long.rotateLeft(low + word * MULTIPLIER, 31) * HIGH_SEED;
+        }
+        high = mix(high ^ low);
+        low = mix(low + high);
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        return new PuzzleKey(high, low);
+    }
+
+    /**
+     * The MurmurHash3 finalizer.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= MULTIPLIER;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "%016x%016x".formatted(high, low);
+    }
+}
@@ -0,0 +1,121 @@
+package com.fs.sudoku.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A set of {@link PuzzleKey}s kept off the Java heap in an open-addressing table with linear
+ * probing, 16 bytes per slot and no per-key objects, so corpora of hundreds of millions of
+ * puzzles neither fill the heap nor burden the garbage collector. The table lives in direct
+ * buffers of at most {@value #SEGMENT_SLOTS} slots and doubles when three quarters full. Not
+ * thread-safe.
+ */
+public final class PuzzleKeyIndex {
+
+    static final int SEGMENT_SLOTS = 1 << 26;
+    private static final int SLOT_BYTES = 16;
+    private static final long MIN_CAPACITY = 1 << 10;
+
+    private ByteBuffer[] segments;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    public PuzzleKeyIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Sizes the table so {@code expected} keys fit without growing.
+     */
+    public PuzzleKeyIndex(final long expected) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative");
+        }
+        allocate(Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1, expected * 4 / 3)) << 1));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns true when the key was not in the index yet.
+     */
+    public boolean add(final PuzzleKey key) {
+        return add(key.high(), key.low());
+    }
+
+    public boolean add(final long high, final long low) {
+        var slot = find(high, low);
+        if (slot >= 0) {
+            return false;
+        }
+        write(~slot, high, low);
+        if (++size > capacity / 4 * 3) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(final PuzzleKey key) {
+        return find(key.high(), key.low()) >= 0;
+    }
+
+    /**
+     * The slot holding the key, or the complement of the free slot where it belongs.
+     */
+    private long find(final long high, final long low) {
+        if (high == 0 && low == 0) {
+            throw new IllegalArgumentException("The all-zero key marks free slots");
+        }
+        var slot = (high ^ low) & mask;
+        while (true) {
+            var segment = segments[(int) (slot / SEGMENT_SLOTS)];
+            var offset = (int) (slot % SEGMENT_SLOTS) * SLOT_BYTES;
+            var storedHigh = segment.getLong(offset);
+            var storedLow = segment.getLong(offset + 8);
+            if (storedHigh == high && storedLow == low) {
+                return slot;
+            }
+            if (storedHigh == 0 && storedLow == 0) {
+                return ~slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void write(final long slot, final long high, final long low) {
+        var segment = segments[(int) (slot / SEGMENT_SLOTS)];
+        var offset = (int) (slot % SEGMENT_SLOTS) * SLOT_BYTES;
+        segment.putLong(offset, high).putLong(offset + 8, low);
+    }
+
+    private void allocate(final long slots) {
+        capacity = slots;
+        mask = slots - 1;
+        segments = new ByteBuffer[(int) ((slots + SEGMENT_SLOTS - 1) / SEGMENT_SLOTS)];
+        for (int i = 0; i < segments.length; i++) {
+            var segmentSlots = (int) Math.min(SEGMENT_SLOTS, slots - (long) i * SEGMENT_SLOTS);
+            segments[i] = ByteBuffer.allocateDirect(segmentSlots * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private void grow() {
+        var old = segments;
+        allocate(capacity * 2);
+        for (var segment : old) {
+            for (int offset = 0; offset < segment.capacity(); offset += SLOT_BYTES) {
+                var high = segment.getLong(offset);
+                var low = segment.getLong(offset + 8);
+                if (high != 0 || low != 0) {
+                    write(~find(high, low), high, low);
+                }
+            }
+        }
+    }
+}
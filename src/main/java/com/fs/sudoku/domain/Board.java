@@ -1,42 +1,184 @@
 package com.fs.sudoku.domain;
 
-import java.util.Collection;
+import com.fs.sudoku.metrics.SudokuMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import static com.fs.sudoku.domain.GameStatusEnum.*;
+import static com.fs.sudoku.metrics.BoardOperation.*;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 public class Board {
 
-    private final List<List<Space>> spaces;
+    static final byte EMPTY = 0;
+    static final byte OUT_OF_RANGE = -1;
+
+    // Low nibble of a compact cell that marks a given; its value is the expected one.
+    private static final int FIXED = 0xF;
+    // The same marker for wide cells, which hold the actual value in a whole byte.
+    private static final int WIDE_FIXED = Byte.MAX_VALUE;
+
+    private List<List<Space>> spaces;
+    private final boolean compact;
+
+    // One byte per cell, column-major like the list view. Boards built from spaces mirror the
+    // player's values here; compact boards keep expected << 4 | actual and have no other cell state.
+    // Digits above 15 do not fit a nibble, so wide compact boards (box 4 and 5) keep the actual
+    // value in cells and the expected one in expectedCells.
+    private final int[] offsets;
+    private final byte[] cells;
+    private final byte[] expectedCells;
+    private final int fixedMark;
+
+    // Row/column/box digit counts and masks, only present for square boards with square boxes.
+    // A digit's bit is set in conflictMasks while it appears more than once in the unit.
+    private final int size;
+    private final int boxSize;
+    private final byte[] unitCounts;
+    private final int[] unitMasks;
+    private final int[] conflictMasks;
+
+    private int filled;
+    private int entered;
+    private int wrong;
+    private int conflicts;
+
+    private BoardListener[] listeners = new BoardListener[0];
+    // What the listeners last heard, kept only while there are listeners.
+    private GameStatusEnum announcedStatus;
+    private boolean announcedErrors;
 
     public Board(final List<List<Space>> spaces) {
         this.spaces = spaces;
+        this.compact = false;
+        this.size = spaces.size();
+        this.offsets = new int[size + 1];
+        for (int col = 0; col < size; col++) {
+            offsets[col + 1] = offsets[col] + spaces.get(col).size();
+        }
+        this.cells = new byte[offsets[size]];
+        this.expectedCells = null;
+        this.fixedMark = FIXED;
+        this.boxSize = boxSizeOf(spaces);
+        this.unitCounts = boxSize == 0 ? null : new byte[3 * size * (size + 1)];
+        this.unitMasks = boxSize == 0 ? null : new int[3 * size];
+        this.conflictMasks = boxSize == 0 ? null : new int[3 * size];
+        for (int col = 0; col < size; col++) {
+            var column = spaces.get(col);
+            for (int row = 0; row < column.size(); row++) {
+                var space = column.get(row);
+                space.attach(this, offsets[col] + row);
+                if (nonNull(space.getActual())) {
+                    cells[offsets[col] + row] = encode(space.getActual());
+                    add(offsets[col] + row, space.getActual(), space.getExpected(), space.isFixed());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compact board for box sizes 2 to 5: givens and solution packed {@code index = col * size + row}.
+     * Cell state takes one byte per cell up to 9x9 and two beyond; {@link #getSpaces()} builds
+     * flyweight views on first use.
+     */
+    public Board(final int boxSize, final byte[] givens, final byte[] solution) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Compact boards support box sizes 2 to 5");
+        }
+        this.compact = true;
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        if (givens.length != size * size || solution.length != size * size) {
+            throw new IllegalArgumentException("A board of box size %s needs %s cells".formatted(boxSize, size * size));
+        }
+        this.offsets = new int[size + 1];
+        for (int col = 0; col < size; col++) {
+            offsets[col + 1] = offsets[col] + size;
+        }
+        this.cells = new byte[size * size];
+        this.expectedCells = boxSize > 3 ? new byte[size * size] : null;
+        this.fixedMark = boxSize > 3 ? WIDE_FIXED : FIXED;
+        this.unitCounts = new byte[3 * size * (size + 1)];
+        this.unitMasks = new int[3 * size];
+        this.conflictMasks = new int[3 * size];
+        for (int index = 0; index < cells.length; index++) {
+            var expected = solution[index];
+            if (expected < 0 || expected > size) {
+                throw new IllegalArgumentException("Invalid solution digit %s at cell %s".formatted(expected, index));
+            }
+            var given = givens[index];
+            if (given < 0 || given > size) {
+                throw new IllegalArgumentException("Invalid given %s at cell %s".formatted(given, index));
+            }
+            if (given != 0 && given != expected) {
+                throw new IllegalArgumentException("Given %s at cell %s differs from the solution digit %s"
+                        .formatted(given, index, expected));
+            }
+            if (given == 0) {
+                store(index, expected, 0);
+            } else {
+                store(index, expected, fixedMark);
+                add(index, expected, expected, true);
+            }
+        }
     }
 
     public List<List<Space>> getSpaces() {
+        if (isNull(spaces)) {
+            List<List<Space>> views = new ArrayList<>(size);
+            for (int col = 0; col < size; col++) {
+                List<Space> column = new ArrayList<>(size);
+                for (int row = 0; row < size; row++) {
+                    column.add(new Space(this, offsets[col] + row));
+                }
+                views.add(List.copyOf(column));
+            }
+            spaces = List.copyOf(views);
+        }
         return spaces;
     }
 
     public GameStatusEnum getStatus(){
-        if (spaces.stream().flatMap(Collection::stream).noneMatch(s -> !s.isFixed() && nonNull(s.getActual()))){
-            return NON_STARTED;
-        }
-
-        return spaces.stream().flatMap(Collection::stream).anyMatch(s -> isNull(s.getActual())) ? INCOMPLETED : COMPLETED;
+        var start = SudokuMetrics.start();
+        var status = status();
+        SudokuMetrics.stop(GET_STATUS, start);
+        return status;
     }
 
     public boolean hasErrors(){
-        if(getStatus() == NON_STARTED){
-            return false;
-        }
-
-        return spaces.stream().flatMap(Collection::stream)
-                .anyMatch(s -> nonNull(s.getActual()) && !s.getActual().equals(s.getExpected()));
+        var start = SudokuMetrics.start();
+        var errors = errors();
+        SudokuMetrics.stop(HAS_ERRORS, start);
+        return errors;
     }
 
     public boolean changeValue(final int col, final int row, final int value){
+        var start = SudokuMetrics.start();
+        var changed = applyChange(col, row, value);
+        SudokuMetrics.stop(CHANGE_VALUE, start);
+        return changed;
+    }
+
+    public boolean clearValue(final int col, final int row){
+        var start = SudokuMetrics.start();
+        var cleared = applyClear(col, row);
+        SudokuMetrics.stop(CLEAR_VALUE, start);
+        return cleared;
+    }
+
+    private boolean applyChange(final int col, final int row, final int value){
+        if (compact) {
+            var index = indexOf(col, row);
+            if (fixedAt(index)) {
+                return false;
+            }
+            setActualAt(index, value);
+            return true;
+        }
         var space = spaces.get(col).get(row);
         if (space.isFixed()){
             return false;
@@ -46,7 +188,15 @@ public class Board {
         return true;
     }
 
-    public boolean clearValue(final int col, final int row){
+    private boolean applyClear(final int col, final int row){
+        if (compact) {
+            var index = indexOf(col, row);
+            if (fixedAt(index)) {
+                return false;
+            }
+            setActualAt(index, null);
+            return true;
+        }
         var space = spaces.get(col).get(row);
         if (space.isFixed()){
             return false;
@@ -57,10 +207,435 @@ public class Board {
     }
 
     public void reset(){
-        spaces.forEach(c -> c.forEach(Space::clearSpace));
+        for (var listener : listeners) {
+            listener.resetStarted();
+        }
+        if (compact) {
+            for (int index = 0; index < cells.length; index++) {
+                setActualAt(index, null);
+            }
+        } else {
+            spaces.forEach(c -> c.forEach(Space::clearSpace));
+        }
+        for (var listener : listeners) {
+            listener.resetFinished();
+        }
     }
 
     public boolean gameIsFinished(){
-        return !hasErrors() && getStatus().equals(COMPLETED);
+        var start = SudokuMetrics.start();
+        var finished = wrong == 0 && entered > 0 && filled == cells.length;
+        SudokuMetrics.stop(GAME_IS_FINISHED, start);
+        return finished;
+    }
+
+    /**
+     * The value of a cell without unboxing: 0 when empty, -1 when it holds a number outside 1..127.
+     */
+    public int getValue(final int col, final int row) {
+        return valueAt(offsets[col] + row);
+    }
+
+    /**
+     * Number of columns; rows and digits too on square boards.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Bit {@code d} is set when digit {@code d} does not yet appear in the cell's row, column or box.
+     * Always 0 for boards that are not square with square boxes.
+     */
+    public int getCandidates(final int col, final int row) {
+        if (boxSize == 0) {
+            return 0;
+        }
+        var used = unitMasks[col] | unitMasks[size + row] | unitMasks[2 * size + boxOf(col, row)];
+        return ~used & (((1 << size) - 1) << 1);
+    }
+
+    /**
+     * Whether any row, column or box holds the same digit twice, judged by the rules alone.
+     */
+    public boolean hasConflicts() {
+        return conflicts > 0;
+    }
+
+    /**
+     * Whether the cell's value also appears elsewhere in its row, column or box.
+     */
+    public boolean hasConflict(final int col, final int row) {
+        var value = getValue(col, row);
+        if (isNull(conflictMasks) || value < 1 || value > size) {
+            return false;
+        }
+        var clashing = conflictMasks[col] | conflictMasks[size + row] | conflictMasks[2 * size + boxOf(col, row)];
+        return (clashing & 1 << value) != 0;
+    }
+
+    /**
+     * The row, column and box peers holding the same value as the cell, each reported once.
+     * Empty when the cell is empty, has no clash, or the board is not square with square boxes.
+     */
+    public List<Cell> getConflicts(final int col, final int row) {
+        if (!hasConflict(col, row)) {
+            return List.of();
+        }
+        var value = getValue(col, row);
+        var bit = 1 << value;
+        List<Cell> peers = new ArrayList<>();
+        if ((conflictMasks[col] & bit) != 0) {
+            for (int r = 0; r < size; r++) {
+                if (r != row && valueAt(offsets[col] + r) == value) {
+                    peers.add(new Cell(col, r));
+                }
+            }
+        }
+        if ((conflictMasks[size + row] & bit) != 0) {
+            for (int c = 0; c < size; c++) {
+                if (c != col && valueAt(offsets[c] + row) == value) {
+                    peers.add(new Cell(c, row));
+                }
+            }
+        }
+        if ((conflictMasks[2 * size + boxOf(col, row)] & bit) != 0) {
+            var firstCol = col - col % boxSize;
+            var firstRow = row - row % boxSize;
+            for (int c = firstCol; c < firstCol + boxSize; c++) {
+                for (int r = firstRow; r < firstRow + boxSize; r++) {
+                    if (c != col && r != row && valueAt(offsets[c] + r) == value) {
+                        peers.add(new Cell(c, r));
+                    }
+                }
+            }
+        }
+        return peers;
+    }
+
+    /**
+     * Fixed values packed one byte per cell, {@code index = col * size + row}, 0 for open cells.
+     */
+    public byte[] getGivens() {
+        var givens = new byte[cells.length];
+        for (int col = 0; col < size; col++) {
+            var column = compact ? null : spaces.get(col);
+            var rows = compact ? size : column.size();
+            for (int row = 0; row < rows; row++) {
+                var index = offsets[col] + row;
+                if (compact ? fixedAt(index) : column.get(row).isFixed()) {
+                    givens[index] = (byte) valueAt(index);
+                }
+            }
+        }
+        return givens;
+    }
+
+    /**
+     * Expected values packed one byte per cell, {@code index = col * size + row}, fixed cells included.
+     */
+    public byte[] getSolution() {
+        var solution = new byte[cells.length];
+        for (int col = 0; col < size; col++) {
+            var column = compact ? null : spaces.get(col);
+            var rows = compact ? size : column.size();
+            for (int row = 0; row < rows; row++) {
+                var index = offsets[col] + row;
+                solution[index] = (byte) (compact ? expectedAt(index) : column.get(row).getExpected());
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Current values packed one byte per cell, {@code index = col * size + row}, 0 for empty cells
+     * and -1 for numbers outside 1..127. Unlike {@link #gameIsFinished()} this needs no expected
+     * values, so a grid can be checked against the rules alone.
+     */
+    public byte[] getValues() {
+        var values = new byte[cells.length];
+        for (int index = 0; index < cells.length; index++) {
+            values[index] = (byte) valueAt(index);
+        }
+        return values;
+    }
+
+    /**
+     * Listeners hear about changes in the order they were added. Cell indexes follow
+     * {@link #getGivens()}.
+     */
+    public void addListener(final BoardListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        announcedStatus = status();
+        announcedErrors = errors();
+    }
+
+    public void removeListener(final BoardListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                var remaining = new BoardListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the expected value of every open cell with the given solution, in {@link #getGivens()} order.
+     */
+    public void setSolution(final byte[] solution) {
+        if (solution.length != cells.length) {
+            throw new IllegalArgumentException("Solution must have %s cells".formatted(cells.length));
+        }
+        if (compact) {
+            for (int index = 0; index < cells.length; index++) {
+                if (fixedAt(index)) {
+                    continue;
+                }
+                var actual = valueAt(index);
+                if (actual != 0 && actual != expectedAt(index)) {
+                    wrong--;
+                }
+                store(index, solution[index], actual);
+                if (actual != 0 && actual != expectedAt(index)) {
+                    wrong++;
+                }
+            }
+            announce();
+            return;
+        }
+        for (int col = 0; col < size; col++) {
+            var column = spaces.get(col);
+            for (int row = 0; row < column.size(); row++) {
+                var space = column.get(row);
+                if (space.isFixed()) {
+                    continue;
+                }
+                var actual = space.getActual();
+                if (nonNull(actual) && actual != space.getExpected()) {
+                    wrong--;
+                }
+                space.setExpected(solution[offsets[col] + row]);
+                if (nonNull(actual) && actual != space.getExpected()) {
+                    wrong++;
+                }
+            }
+        }
+        announce();
+    }
+
+    void spaceChanged(final int index, final Integer previous, final Integer current, final int expected) {
+        var before = cells[index];
+        if (nonNull(previous)) {
+            remove(index, previous, expected);
+        }
+        cells[index] = isNull(current) ? EMPTY : encode(current);
+        if (nonNull(current)) {
+            add(index, current, expected, false);
+        }
+        if (before != cells[index]) {
+            changed(index, before, cells[index]);
+        }
+    }
+
+    int cellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Puts back a value recorded by {@link MoveLog}; -1 comes back as an out of range value.
+     */
+    void restore(final int index, final int value) {
+        if (compact) {
+            setActualAt(index, value == 0 ? null : value);
+            return;
+        }
+        var col = 0;
+        while (offsets[col + 1] <= index) {
+            col++;
+        }
+        spaces.get(col).get(index - offsets[col]).setActual(value == 0 ? null : value);
+    }
+
+    Integer actualAt(final int index) {
+        var value = valueAt(index);
+        return value == 0 ? null : value;
+    }
+
+    int expectedAt(final int index) {
+        return nonNull(expectedCells) ? expectedCells[index] : (cells[index] >> 4) & 0xF;
+    }
+
+    boolean fixedAt(final int index) {
+        return lowAt(index) == fixedMark;
+    }
+
+    void setActualAt(final int index, final Integer value) {
+        if (fixedAt(index)) {
+            return;
+        }
+        if (nonNull(value) && (value < 1 || value > size)) {
+            throw new IllegalArgumentException("%s is not between 1 and %s".formatted(value, size));
+        }
+        var expected = expectedAt(index);
+        var previous = valueAt(index);
+        if (previous != 0) {
+            remove(index, previous, expected);
+        }
+        store(index, expected, isNull(value) ? 0 : value);
+        if (nonNull(value)) {
+            add(index, value, expected, false);
+        }
+        if (previous != valueAt(index)) {
+            changed(index, previous, valueAt(index));
+        }
+    }
+
+    private void changed(final int index, final int previous, final int current) {
+        for (var listener : listeners) {
+            listener.valueChanged(index, previous, current);
+        }
+        announce();
+    }
+
+    /**
+     * Tells the listeners about status and error transitions since they last heard; both come
+     * from the counters, so a change that moves neither costs two comparisons.
+     */
+    private void announce() {
+        if (listeners.length == 0) {
+            return;
+        }
+        var status = status();
+        if (status != announcedStatus) {
+            var previous = announcedStatus;
+            announcedStatus = status;
+            for (var listener : listeners) {
+                listener.statusChanged(previous, status);
+            }
+        }
+        var errors = errors();
+        if (errors != announcedErrors) {
+            announcedErrors = errors;
+            for (var listener : listeners) {
+                listener.errorsChanged(errors);
+            }
+        }
+    }
+
+    private GameStatusEnum status() {
+        return entered == 0 ? NON_STARTED : filled < cells.length ? INCOMPLETED : COMPLETED;
+    }
+
+    private boolean errors() {
+        return entered > 0 && wrong > 0;
+    }
+
+    private int valueAt(final int index) {
+        if (!compact) {
+            return cells[index];
+        }
+        var low = lowAt(index);
+        return low == fixedMark ? expectedAt(index) : low;
+    }
+
+    private int lowAt(final int index) {
+        return nonNull(expectedCells) ? cells[index] : cells[index] & 0xF;
+    }
+
+    private void store(final int index, final int expectedValue, final int low) {
+        if (nonNull(expectedCells)) {
+            expectedCells[index] = (byte) expectedValue;
+            cells[index] = (byte) low;
+        } else {
+            cells[index] = (byte) (expectedValue << 4 | low);
+        }
+    }
+
+    private int indexOf(final int col, final int row) {
+        Objects.checkIndex(col, size);
+        Objects.checkIndex(row, size);
+        return offsets[col] + row;
+    }
+
+    private void add(final int index, final int value, final int expected, final boolean fixed) {
+        filled++;
+        if (!fixed) {
+            entered++;
+        }
+        if (value != expected) {
+            wrong++;
+        }
+        updateUnits(index, value, 1);
+    }
+
+    private void remove(final int index, final int value, final int expected) {
+        updateUnits(index, value, -1);
+        filled--;
+        entered--;
+        if (value != expected) {
+            wrong--;
+        }
+    }
+
+    private void updateUnits(final int index, final int digit, final int delta) {
+        if (isNull(unitCounts) || digit < 1 || digit > size) {
+            return;
+        }
+        var col = index / size;
+        var row = index % size;
+        updateUnit(col, digit, delta);
+        updateUnit(size + row, digit, delta);
+        updateUnit(2 * size + boxOf(col, row), digit, delta);
+    }
+
+    private void updateUnit(final int unit, final int digit, final int delta) {
+        var slot = unit * (size + 1) + digit;
+        unitCounts[slot] += (byte) delta;
+        if (unitCounts[slot] == 0) {
+            unitMasks[unit] &= ~(1 << digit);
+        } else {
+            unitMasks[unit] |= 1 << digit;
+        }
+        if (delta > 0 && unitCounts[slot] == 2) {
+            conflictMasks[unit] |= 1 << digit;
+            conflicts++;
+        } else if (delta < 0 && unitCounts[slot] == 1) {
+            conflictMasks[unit] &= ~(1 << digit);
+            conflicts--;
+        }
+    }
+
+    private int boxOf(final int col, final int row) {
+        return (col / boxSize) * boxSize + row / boxSize;
+    }
+
+    private static byte encode(final int value) {
+        return value > 0 && value <= Byte.MAX_VALUE ? (byte) value : OUT_OF_RANGE;
+    }
+
+    private static int boxSizeOf(final List<List<Space>> spaces) {
+        var size = spaces.size();
+        var box = (int) Math.round(Math.sqrt(size));
+        if (size == 0 || box * box != size || size > 25) {
+            return 0;
+        }
+        for (var column : spaces) {
+            if (column.size() != size) {
+                return 0;
+            }
+        }
+        return box;
     }
 }
@@ -0,0 +1,208 @@
+package com.fs.sudoku.domain;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carries the events of a {@link Board} from the thread that changes it to one other thread that
+ * reads them, such as a spectator view or a metrics reporter. Each event is packed into a long of
+ * a ring the board fills and the reader drains in batches, so publishing allocates nothing and
+ * takes no lock. When the reader falls a whole ring behind, the {@link Overflow} policy decides
+ * whether the board waits for room or the feed drops events and has the reader resync.
+ */
+public final class BoardFeed implements BoardListener {
+
+    public enum Overflow {
+        /**
+         * The board's thread waits until the reader makes room. Nothing is lost.
+         */
+        BLOCK,
+        /**
+         * Events are dropped and the next drain starts with {@link Subscriber#resync()}.
+         */
+        RESYNC
+    }
+
+    /**
+     * Gets the events of a feed on the thread that drains it.
+     */
+    public interface Subscriber extends BoardListener {
+        /**
+         * Events were dropped, so the ones before this call no longer add up to the board. The
+         * subscriber reads the board afresh, the way it shares it with the board's thread, and
+         * the events after this call follow from there.
+         */
+        void resync();
+    }
+
+    private static final int CELL = 0;
+    private static final int STATUS = 1;
+    private static final int ERRORS = 2;
+    private static final int RESET_STARTED = 3;
+    private static final int RESET_FINISHED = 4;
+    private static final GameStatusEnum[] STATUSES = GameStatusEnum.values();
+    // A blocked board's thread sleeps this long between looks at the ring.
+    private static final long BLOCKED_NANOS = 20_000L;
+
+    private final Board board;
+    private final Overflow overflow;
+    private final long[] events;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong read = new AtomicLong();
+    // The board's thread only reads the reader's position when the ring looks full.
+    private long readSeen;
+    private volatile boolean overflowed;
+    private volatile boolean closed;
+    private volatile Thread waitingReader;
+
+    /**
+     * Subscribes to the board, which must not change meanwhile. The capacity is rounded up to a
+     * power of two.
+     */
+    public BoardFeed(final Board board, final int capacity, final Overflow overflow) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        this.board = board;
+        this.overflow = overflow;
+        var length = Integer.highestOneBit(capacity);
+        this.events = new long[length < capacity ? length << 1 : length];
+        this.mask = events.length - 1;
+        board.addListener(this);
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    /**
+     * Hands the subscriber every event published so far and returns how many there were, counting
+     * a resync as one. Never blocks.
+     */
+    public int drain(final Subscriber subscriber) {
+        if (overflowed) {
+            overflowed = false;
+            read.set(written.get());
+            subscriber.resync();
+            return 1;
+        }
+        var from = read.get();
+        var to = written.get();
+        for (var position = from; position < to; position++) {
+            dispatch(events[(int) position & mask], subscriber);
+        }
+        read.lazySet(to);
+        return (int) (to - from);
+    }
+
+    /**
+     * Like {@link #drain(Subscriber)}, but waits up to the timeout for an event when there is none.
+     */
+    public int drain(final Subscriber subscriber, final long timeout, final TimeUnit unit) throws InterruptedException {
+        var drained = drain(subscriber);
+        if (drained > 0) {
+            return drained;
+        }
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        waitingReader = Thread.currentThread();
+        try {
+            while (true) {
+                // Recheck after announcing the wait, in case an event arrived just before.
+                drained = drain(subscriber);
+                var remaining = deadline - System.nanoTime();
+                if (drained > 0 || remaining <= 0 || closed) {
+                    return drained;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingReader = null;
+        }
+    }
+
+    /**
+     * Stops the feed. A board's thread blocked on a full ring goes on, and the feed leaves the
+     * board's listeners with the next change.
+     */
+    public void close() {
+        closed = true;
+        var reader = waitingReader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    @Override
+    public void valueChanged(final int index, final int previous, final int current) {
+        publish(CELL, index, previous, current);
+    }
+
+    @Override
+    public void statusChanged(final GameStatusEnum previous, final GameStatusEnum current) {
+        publish(STATUS, 0, previous.ordinal(), current.ordinal());
+    }
+
+    @Override
+    public void errorsChanged(final boolean errors) {
+        publish(ERRORS, 0, 0, errors ? 1 : 0);
+    }
+
+    @Override
+    public void resetStarted() {
+        publish(RESET_STARTED, 0, 0, 0);
+    }
+
+    @Override
+    public void resetFinished() {
+        publish(RESET_FINISHED, 0, 0, 0);
+    }
+
+    /**
+     * Packs the type in the top byte, the index in the next three and the values in two shorts.
+     */
+    private void publish(final int type, final int index, final int previous, final int current) {
+        if (closed) {
+            board.removeListener(this);
+            return;
+        }
+        var position = written.get();
+        if (position - readSeen >= events.length) {
+            readSeen = read.get();
+            while (position - readSeen >= events.length) {
+                if (overflow == Overflow.RESYNC) {
+                    overflowed = true;
+                    return;
+                }
+                LockSupport.parkNanos(this, BLOCKED_NANOS);
+                if (closed) {
+                    return;
+                }
+                readSeen = read.get();
+            }
+        }
+        events[(int) position & mask] = (long) type << 56 | (long) index << 32
+                | (previous & 0xFFFFL) << 16 | current & 0xFFFFL;
+        written.lazySet(position + 1);
+        var reader = waitingReader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    private static void dispatch(final long event, final Subscriber subscriber) {
+        var previous = (int) (short) (event >>> 16);
+        var current = (int) (short) event;
+        switch ((int) (event >>> 56)) {
+            case CELL -> subscriber.valueChanged((int) (event >>> 32) & 0xFFFFFF, previous, current);
+            case STATUS -> subscriber.statusChanged(STATUSES[previous], STATUSES[current]);
+            case ERRORS -> subscriber.errorsChanged(current == 1);
+            case RESET_STARTED -> subscriber.resetStarted();
+            default -> subscriber.resetFinished();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fs.sudoku.domain;
+
+/**
+ * Told about every value change of a {@link Board}, whichever way it was made. Values are 0 for
+ * empty and -1 for numbers outside 1..127. Listeners run on the thread that changed the board.
+ */
+public interface BoardListener {
+
+    void valueChanged(int index, int previous, int current);
+
+    /**
+     * Follows the value change that moved {@link Board#getStatus()} from one status to another.
+     */
+    default void statusChanged(GameStatusEnum previous, GameStatusEnum current) {
+    }
+
+    /**
+     * Follows the value change that made {@link Board#hasErrors()} flip.
+     */
+    default void errorsChanged(boolean errors) {
+    }
+
+    /**
+     * Precedes the value changes of a {@link Board#reset()}.
+     */
+    default void resetStarted() {
+    }
+
+    default void resetFinished() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.fs.sudoku.domain;
+
+/**
+ * A board position, in the same {@code col, row} order as {@link Board#changeValue(int, int, int)}.
+ */
+public record Cell(int col, int row) {
+}
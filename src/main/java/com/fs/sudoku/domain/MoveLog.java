@@ -0,0 +1,252 @@
+package com.fs.sudoku.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every value change of a board, packed one int per move in a ring buffer that grows up to its
+ * capacity and then drops the oldest moves. Undo and redo apply a single move, or the moves of one
+ * {@link Board#reset()} together. A snapshot of all values every {@value #SNAPSHOT_INTERVAL}
+ * moves keeps {@link #seek(long)} to any retained position short. Positions count moves since the
+ * log was created and keep counting after old moves are dropped. Not thread-safe.
+ */
+public final class MoveLog implements BoardListener {
+
+    static final int SNAPSHOT_INTERVAL = 64;
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    // Bit 31 marks a move that undoes and redoes together with the one before it.
+    private static final int JOINED = 1 << 31;
+
+    private final Board board;
+    private final int capacity;
+
+    private int[] moves;
+    private int head;
+    private long first;
+    private long end;
+    private long position;
+
+    // Values before the first retained move, and at every later position divisible by the interval.
+    private final byte[] base;
+    private final List<Snapshot> snapshots = new ArrayList<>();
+
+    private boolean replaying;
+    private boolean grouping;
+    private boolean groupStarted;
+
+    public MoveLog(final Board board) {
+        this(board, DEFAULT_CAPACITY);
+    }
+
+    public MoveLog(final Board board, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.board = board;
+        this.capacity = capacity;
+        this.moves = new int[Math.min(64, capacity)];
+        this.base = board.getValues();
+        board.addListener(this);
+    }
+
+    /**
+     * Packs a move; values are 0 for empty and -1 for numbers outside 1..127.
+     */
+    public static int encode(final int index, final int previous, final int current) {
+        return index << 16 | (previous & 0xFF) << 8 | current & 0xFF;
+    }
+
+    public static int index(final int move) {
+        return (move & ~JOINED) >>> 16;
+    }
+
+    public static int previous(final int move) {
+        return (byte) (move >>> 8);
+    }
+
+    public static int current(final int move) {
+        return (byte) move;
+    }
+
+    /**
+     * Moves applied since the log was created, less the ones undone.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * The oldest position {@link #seek(long)} can still reach.
+     */
+    public long getFirstPosition() {
+        return first;
+    }
+
+    /**
+     * The newest position, reached again by redoing everything.
+     */
+    public long getEndPosition() {
+        return end;
+    }
+
+    /**
+     * The move that led to {@code position + 1}, as packed by {@link #encode(int, int, int)}.
+     */
+    public int getMove(final long position) {
+        if (position < first || position >= end) {
+            throw new IndexOutOfBoundsException("Move %s is not retained".formatted(position));
+        }
+        return moves[slot(position)] & ~JOINED;
+    }
+
+    public boolean canUndo() {
+        return position > first;
+    }
+
+    public boolean canRedo() {
+        return position < end;
+    }
+
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        int move;
+        do {
+            move = moves[slot(--position)];
+            apply(index(move), previous(move));
+        } while ((move & JOINED) != 0 && position > first);
+        return true;
+    }
+
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        do {
+            var move = moves[slot(position++)];
+            apply(index(move), current(move));
+        } while (position < end && (moves[slot(position)] & JOINED) != 0);
+        return true;
+    }
+
+    /**
+     * Brings the board to the state after {@code target} moves, walking from the current position
+     * or from the nearest snapshot at or before the target, whichever applies fewer changes.
+     */
+    public void seek(final long target) {
+        if (target < first || target > end) {
+            throw new IndexOutOfBoundsException("Position %s is not retained".formatted(target));
+        }
+        var values = base;
+        var from = first;
+        if (!snapshots.isEmpty()) {
+            var index = (int) (target / SNAPSHOT_INTERVAL - snapshots.get(0).position() / SNAPSHOT_INTERVAL);
+            if (index >= 0) {
+                var snapshot = snapshots.get(Math.min(index, snapshots.size() - 1));
+                values = snapshot.values();
+                from = snapshot.position();
+            }
+        }
+        if (Math.abs(target - position) > target - from + board.cellCount()) {
+            for (int index = 0; index < values.length; index++) {
+                apply(index, values[index]);
+            }
+            position = from;
+        }
+        while (position < target) {
+            var move = moves[slot(position++)];
+            apply(index(move), current(move));
+        }
+        while (position > target) {
+            var move = moves[slot(--position)];
+            apply(index(move), previous(move));
+        }
+    }
+
+    /**
+     * The retained moves, oldest first.
+     */
+    public int[] toArray() {
+        var result = new int[(int) (end - first)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = moves[slot(first + i)] & ~JOINED;
+        }
+        return result;
+    }
+
+    @Override
+    public void resetStarted() {
+        grouping = true;
+        groupStarted = false;
+    }
+
+    @Override
+    public void resetFinished() {
+        grouping = false;
+    }
+
+    @Override
+    public void valueChanged(final int index, final int previous, final int current) {
+        if (replaying) {
+            return;
+        }
+        var move = encode(index, previous, current);
+        if (grouping) {
+            move |= groupStarted ? JOINED : 0;
+            groupStarted = true;
+        }
+        // A new move after undoing discards the moves that could have been redone.
+        end = position;
+        while (!snapshots.isEmpty() && snapshots.get(snapshots.size() - 1).position() > end) {
+            snapshots.remove(snapshots.size() - 1);
+        }
+        if (end - first == capacity) {
+            dropOldest();
+        } else if (end - first == moves.length) {
+            grow();
+        }
+        moves[slot(end)] = move;
+        position = ++end;
+        if (end % SNAPSHOT_INTERVAL == 0) {
+            snapshots.add(new Snapshot(end, board.getValues()));
+        }
+    }
+
+    private void apply(final int index, final int value) {
+        replaying = true;
+        try {
+            board.restore(index, value);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private void dropOldest() {
+        var move = moves[head];
+        base[index(move)] = (byte) current(move);
+        head = (head + 1) % moves.length;
+        first++;
+        if (!snapshots.isEmpty() && snapshots.get(0).position() <= first) {
+            snapshots.remove(0);
+        }
+    }
+
+    private void grow() {
+        var length = (int) Math.min((long) moves.length * 2, capacity);
+        var grown = new int[length];
+        var count = (int) (end - first);
+        for (int i = 0; i < count; i++) {
+            grown[i] = moves[(head + i) % moves.length];
+        }
+        moves = grown;
+        head = 0;
+    }
+
+    private int slot(final long position) {
+        return (int) ((head + (position - first)) % moves.length);
+    }
+
+    private record Snapshot(long position, byte[] values) {
+    }
+}
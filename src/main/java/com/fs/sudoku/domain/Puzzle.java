@@ -0,0 +1,32 @@
+package com.fs.sudoku.domain;
+
+/**
+ * Givens and solution of a puzzle, packed one byte per cell with {@code index = col * size + row}.
+ */
+public record Puzzle(int boxSize, byte[] givens, byte[] solution) {
+
+    public Puzzle {
+        var cellCount = boxSize * boxSize * boxSize * boxSize;
+        if (givens.length != cellCount || solution.length != cellCount) {
+            throw new IllegalArgumentException("A puzzle of box size %s needs %s cells".formatted(boxSize, cellCount));
+        }
+    }
+
+    public int size() {
+        return boxSize * boxSize;
+    }
+
+    public int givenCount() {
+        var count = 0;
+        for (var given : givens) {
+            if (given != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Board toBoard() {
+        return new Board(boxSize, givens, solution);
+    }
+}
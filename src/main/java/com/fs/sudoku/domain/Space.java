@@ -2,25 +2,45 @@ package com.fs.sudoku.domain;
 
 public class Space {
     private Integer actual;
-    private final int expected;
+    private int expected;
     private final boolean fixed;
 
+    private Board board;
+    private int index;
+    // Views read and write a compact board's cell instead of their own fields.
+    private final boolean view;
 
     public Space(final int expected, final boolean fixed) {
         this.expected = expected;
         this.fixed = fixed;
+        this.view = false;
         if (fixed){
             actual = expected;
         }
     }
 
+    Space(final Board board, final int index) {
+        this.board = board;
+        this.index = index;
+        this.fixed = false;
+        this.view = true;
+    }
+
     public Integer getActual() {
-        return actual;
+        return view ? board.actualAt(index) : actual;
     }
 
     public void setActual(final Integer actual) {
+        if (view) {
+            board.setActualAt(index, actual);
+            return;
+        }
         if (fixed) return;
+        var previous = this.actual;
         this.actual = actual;
+        if (board != null) {
+            board.spaceChanged(index, previous, actual, expected);
+        }
     }
 
     public void clearSpace(){
@@ -28,10 +48,22 @@ public class Space {
     }
 
     public int getExpected() {
-        return expected;
+        return view ? board.expectedAt(index) : expected;
     }
 
     public boolean isFixed() {
-        return fixed;
+        return view ? board.fixedAt(index) : fixed;
+    }
+
+    void setExpected(final int expected) {
+        this.expected = expected;
+    }
+
+    void attach(final Board board, final int index) {
+        if (view) {
+            throw new IllegalStateException("A compact board's space cannot join another board");
+        }
+        this.board = board;
+        this.index = index;
     }
 }
@@ -0,0 +1,17 @@
+package com.fs.sudoku.generator;
+
+public enum Difficulty {
+    EASY("easy"),
+    MEDIUM("medium"),
+    HARD("hard"),;
+
+    private final String label;
+
+    Difficulty(final String label){
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
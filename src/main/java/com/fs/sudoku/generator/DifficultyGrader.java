@@ -0,0 +1,122 @@
+package com.fs.sudoku.generator;
+
+import com.fs.sudoku.solver.Units;
+
+import java.util.Arrays;
+
+import static com.fs.sudoku.generator.Difficulty.*;
+
+/**
+ * Grades a puzzle by the cheapest techniques that solve it: naked singles only is
+ * {@link Difficulty#EASY}, needing hidden singles is {@link Difficulty#MEDIUM}, anything
+ * singles cannot finish is {@link Difficulty#HARD}. Not thread-safe.
+ */
+public final class DifficultyGrader {
+
+    private final int size;
+    private final int cellCount;
+    private final int allDigits;
+    private final int[][] units;
+    private final int[][] unitsOfCell;
+    private final int[] unitMask;
+    private final byte[] cells;
+
+    public DifficultyGrader(final int boxSize) {
+        this.size = boxSize * boxSize;
+        this.cellCount = size * size;
+        this.allDigits = (1 << size) - 1;
+        var layout = Units.of(boxSize);
+        this.units = layout.cells();
+        this.unitsOfCell = layout.unitsOfCell();
+        this.unitMask = new int[3 * size];
+        this.cells = new byte[cellCount];
+    }
+
+    public Difficulty grade(final byte[] grid) {
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected %s cells but got %s".formatted(cellCount, grid.length));
+        }
+        Arrays.fill(unitMask, 0);
+        var remaining = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            cells[cell] = grid[cell];
+            if (grid[cell] == 0) {
+                remaining++;
+            } else {
+                place(cell, grid[cell]);
+            }
+        }
+
+        var hidden = false;
+        while (remaining > 0) {
+            var placed = nakedSingles();
+            if (placed < 0) {
+                return HARD;
+            }
+            if (placed == 0) {
+                placed = hiddenSingles();
+                if (placed <= 0) {
+                    return HARD;
+                }
+                hidden = true;
+            }
+            remaining -= placed;
+        }
+        return hidden ? MEDIUM : EASY;
+    }
+
+    private int nakedSingles() {
+        var placed = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (cells[cell] != 0) {
+                continue;
+            }
+            var candidates = candidates(cell);
+            if (candidates == 0) {
+                return -1;
+            }
+            if ((candidates & (candidates - 1)) == 0) {
+                place(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    private int hiddenSingles() {
+        var placed = 0;
+        for (int unit = 0; unit < units.length; unit++) {
+            for (var missing = ~unitMask[unit] & allDigits; missing != 0; missing &= missing - 1) {
+                var bit = missing & -missing;
+                var only = -1;
+                var count = 0;
+                for (var cell : units[unit]) {
+                    if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                        only = cell;
+                        count++;
+                    }
+                }
+                if (count == 0) {
+                    return -1;
+                }
+                if (count == 1) {
+                    place(only, Integer.numberOfTrailingZeros(bit) + 1);
+                    placed++;
+                }
+            }
+        }
+        return placed;
+    }
+
+    private int candidates(final int cell) {
+        var cellUnits = unitsOfCell[cell];
+        return ~(unitMask[cellUnits[0]] | unitMask[cellUnits[1]] | unitMask[cellUnits[2]]) & allDigits;
+    }
+
+    private void place(final int cell, final int digit) {
+        cells[cell] = (byte) digit;
+        for (var unit : unitsOfCell[cell]) {
+            unitMask[unit] |= 1 << (digit - 1);
+        }
+    }
+}
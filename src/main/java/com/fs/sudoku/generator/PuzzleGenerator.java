@@ -0,0 +1,166 @@
+package com.fs.sudoku.generator;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.metrics.SudokuMetrics;
+import com.fs.sudoku.solver.BitmaskSolver;
+import com.fs.sudoku.solver.Units;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+import static com.fs.sudoku.generator.Difficulty.HARD;
+
+/**
+ * Builds a random full grid and removes givens, in random order, for as long as the puzzle keeps
+ * a single solution and stays within the requested difficulty. Not thread-safe; use one generator
+ * per thread.
+ */
+public final class PuzzleGenerator {
+
+    private static final int MAX_ATTEMPTS = 1000;
+    // Search nodes one uniqueness check may visit before the given is kept as a precaution;
+    // proving a sparse 25x25 grid unique can otherwise take minutes.
+    private static final long NODE_BUDGET = 10_000;
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    private final RandomGenerator random;
+    // Unrecorded: its uniqueness checks are part of the generation, which is timed as a whole.
+    private final BitmaskSolver solver;
+    private final DifficultyGrader grader;
+    private final int[] order;
+    private final int allDigits;
+    private final int[][] unitsOfCell;
+    private final int[] unitMask;
+
+    public PuzzleGenerator(final RandomGenerator random) {
+        this(3, random);
+    }
+
+    public PuzzleGenerator(final int boxSize, final RandomGenerator random) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.cellCount = size * size;
+        this.random = random;
+        this.solver = new BitmaskSolver(boxSize, false);
+        this.grader = new DifficultyGrader(boxSize);
+        this.allDigits = (1 << size) - 1;
+        this.unitsOfCell = Units.of(boxSize).unitsOfCell();
+        this.unitMask = new int[3 * size];
+        this.order = new int[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            order[i] = i;
+        }
+    }
+
+    public Difficulty grade(final byte[] givens) {
+        return grader.grade(givens);
+    }
+
+    /**
+     * Returns a puzzle with a unique solution from which no further given can be removed.
+     */
+    public Puzzle generate() {
+        var start = SudokuMetrics.start();
+        var solution = generateSolution();
+        var puzzle = new Puzzle(boxSize, carve(solution, HARD), solution);
+        SudokuMetrics.stopGenerate("minimal", start);
+        return puzzle;
+    }
+
+    public Puzzle generate(final Difficulty target) {
+        var start = SudokuMetrics.start();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            var solution = generateSolution();
+            var givens = carve(solution, target);
+            if (grader.grade(givens) == target) {
+                SudokuMetrics.stopGenerate(target.getLabel(), start);
+                return new Puzzle(boxSize, givens, solution);
+            }
+        }
+        throw new IllegalStateException("Could not generate a %s puzzle of box size %s".formatted(target.getLabel(), boxSize));
+    }
+
+    /**
+     * Fills the boxes on the diagonal, which never constrain each other, with random permutations
+     * and lets the solver complete the rest. On 4x4 boards some diagonals cannot be completed, and
+     * those are drawn again.
+     */
+    public byte[] generateSolution() {
+        byte[] solution;
+        do {
+            solution = solver.solve(randomDiagonal());
+        } while (solution == null);
+        return solution;
+    }
+
+    private byte[] randomDiagonal() {
+        var grid = new byte[cellCount];
+        var digits = new byte[size];
+        for (int box = 0; box < boxSize; box++) {
+            for (int i = 0; i < size; i++) {
+                digits[i] = (byte) (i + 1);
+            }
+            shuffle(digits);
+            for (int i = 0; i < size; i++) {
+                var col = box * boxSize + i / boxSize;
+                var row = box * boxSize + i % boxSize;
+                grid[col * size + row] = digits[i];
+            }
+        }
+        return grid;
+    }
+
+    private byte[] carve(final byte[] solution, final Difficulty target) {
+        var givens = solution.clone();
+        Arrays.fill(unitMask, allDigits);
+        shuffle(order);
+        for (var cell : order) {
+            var digit = givens[cell];
+            var bit = 1 << (digit - 1);
+            givens[cell] = 0;
+            updateUnits(cell, bit, false);
+            // A removed cell that is still a naked single changes neither uniqueness nor grade,
+            // and singles-solvable puzzles are unique already, so only HARD needs the counter.
+            var keep = (~used(cell) & allDigits) == bit
+                    || (target == HARD
+                    ? solver.countSolutions(givens, 2, NODE_BUDGET) == 1
+                    : grader.grade(givens).compareTo(target) <= 0);
+            if (!keep) {
+                givens[cell] = digit;
+                updateUnits(cell, bit, true);
+            }
+        }
+        return givens;
+    }
+
+    private int used(final int cell) {
+        var cellUnits = unitsOfCell[cell];
+        return unitMask[cellUnits[0]] | unitMask[cellUnits[1]] | unitMask[cellUnits[2]];
+    }
+
+    private void updateUnits(final int cell, final int bit, final boolean present) {
+        for (var unit : unitsOfCell[cell]) {
+            unitMask[unit] = present ? unitMask[unit] | bit : unitMask[unit] & ~bit;
+        }
+    }
+
+    private void shuffle(final int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private void shuffle(final byte[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fs.sudoku.io;
+
+import java.util.Arrays;
+
+/**
+ * Reads the single puzzle given as command-line arguments of the form
+ * {@code <col>,<row>;<value>,<fixed>}. Fixed values become givens, and every value becomes part of
+ * the solution, which is solved from the givens when some cells have none.
+ */
+public final class ArgumentsPuzzleReader implements PuzzleReader {
+
+    private final int boxSize;
+    private final String[] args;
+    private boolean read;
+
+    public ArgumentsPuzzleReader(final int boxSize, final String... args) {
+        this.boxSize = boxSize;
+        this.args = args;
+    }
+
+    @Override
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    @Override
+    public boolean read(final byte[] givens, final byte[] solution) {
+        if (read) {
+            return false;
+        }
+        read = true;
+        var size = boxSize * boxSize;
+        if (givens.length != size * size || solution.length != size * size) {
+            throw new IllegalArgumentException("A puzzle of box size %s needs %s cells".formatted(boxSize, size * size));
+        }
+        Arrays.fill(givens, (byte) 0);
+        Arrays.fill(solution, (byte) 0);
+        for (var arg : args) {
+            var comma = arg.indexOf(',');
+            var semicolon = arg.indexOf(';', comma + 1);
+            var flag = arg.indexOf(',', semicolon + 1);
+            if (comma < 0 || semicolon < 0 || flag < 0) {
+                throw new IllegalArgumentException("Expected <col>,<row>;<value>,<fixed> but got " + arg);
+            }
+            var col = number(arg, 0, comma, 0, size - 1);
+            var row = number(arg, comma + 1, semicolon, 0, size - 1);
+            var value = number(arg, semicolon + 1, flag, 0, size);
+            var index = col * size + row;
+            if (value == 0) {
+                continue;
+            }
+            if (solution[index] != 0) {
+                throw new IllegalArgumentException("Position %s,%s is given more than once".formatted(col, row));
+            }
+            solution[index] = (byte) value;
+            if (arg.regionMatches(true, flag + 1, "true", 0, 4) && arg.length() == flag + 5) {
+                givens[index] = (byte) value;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int number(final String arg, final int from, final int to, final int min, final int max) {
+        int value;
+        try {
+            value = Integer.parseInt(arg, from, to, 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected <col>,<row>;<value>,<fixed> but got " + arg);
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("%s must be between %s and %s in %s".formatted(value, min, max, arg));
+        }
+        return value;
+    }
+}
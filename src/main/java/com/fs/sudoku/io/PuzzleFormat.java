@@ -0,0 +1,49 @@
+package com.fs.sudoku.io;
+
+import com.fs.sudoku.store.PuzzleStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The puzzle files the applications read.
+ */
+public enum PuzzleFormat {
+    LINE("one 81-character line per puzzle"),
+    SDK("one puzzle over several lines"),
+    STORE("binary puzzle store"),;
+
+    private final String label;
+
+    PuzzleFormat(final String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Puzzle stores are recognized by their header, {@code .sdk} files by name, and anything else
+     * is read as lines, which includes {@code .sdm} collections.
+     */
+    public static PuzzleFormat detect(final Path path) throws IOException {
+        if (PuzzleStore.isStore(path)) {
+            return STORE;
+        }
+        return path.getFileName().toString().toLowerCase().endsWith(".sdk") ? SDK : LINE;
+    }
+
+    public static PuzzleReader open(final Path path) throws IOException {
+        return detect(path).reader(path);
+    }
+
+    public PuzzleReader reader(final Path path) throws IOException {
+        return switch (this) {
+            case LINE -> new TextPuzzleReader(Files.newBufferedReader(path), false);
+            case SDK -> new TextPuzzleReader(Files.newBufferedReader(path), true);
+            case STORE -> new StorePuzzleReader(PuzzleStore.open(path));
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.fs.sudoku.io;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.solver.BoardSolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A source of puzzles read one at a time into grids owned by the caller, so a corpus of any size
+ * streams through without allocating per puzzle or per cell. Grids use the board layout,
+ * {@code index = col * size + row}. Not thread-safe.
+ */
+public interface PuzzleReader extends Closeable {
+
+    int getBoxSize();
+
+    /**
+     * Reads the next puzzle into {@code givens} and its solution into {@code solution}, leaving
+     * zeros in the solution cells the input does not carry. Returns false at the end of the input.
+     */
+    boolean read(byte[] givens, byte[] solution) throws IOException;
+
+    /**
+     * Records passed over so far because they could not be read. Whether that is fatal is up to
+     * the caller.
+     */
+    default long getSkipped() {
+        return 0;
+    }
+
+    /**
+     * The line the first skipped record starts on, or 0 when none was skipped.
+     */
+    default long getFirstSkipped() {
+        return 0;
+    }
+
+    /**
+     * The next puzzle with its solution completed, or null at the end of the input. Throws
+     * IllegalArgumentException when the givens have no solution.
+     */
+    default Puzzle next() throws IOException {
+        var cellCount = getBoxSize() * getBoxSize() * getBoxSize() * getBoxSize();
+        var givens = new byte[cellCount];
+        var solution = new byte[cellCount];
+        if (!read(givens, solution)) {
+            return null;
+        }
+        var puzzle = complete(getBoxSize(), givens, solution);
+        if (puzzle == null) {
+            throw new IllegalArgumentException("The given positions have no solution");
+        }
+        return puzzle;
+    }
+
+    /**
+     * Solves the givens when the solution has gaps; null when they have no solution.
+     */
+    static Puzzle complete(final int boxSize, final byte[] givens, final byte[] solution) {
+        for (var value : solution) {
+            if (value == 0) {
+                var solved = BoardSolver.forBoxSize(boxSize).solve(givens);
+                return solved == null ? null : new Puzzle(boxSize, givens, solved);
+            }
+        }
+        return new Puzzle(boxSize, givens, solution);
+    }
+}
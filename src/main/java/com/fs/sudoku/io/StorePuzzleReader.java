@@ -0,0 +1,37 @@
+package com.fs.sudoku.io;
+
+import com.fs.sudoku.store.PuzzleStore;
+
+import java.io.IOException;
+
+/**
+ * Reads a {@link PuzzleStore} front to back. Stored puzzles always carry their solution.
+ */
+public final class StorePuzzleReader implements PuzzleReader {
+
+    private final PuzzleStore store;
+    private long next;
+
+    public StorePuzzleReader(final PuzzleStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int getBoxSize() {
+        return store.getBoxSize();
+    }
+
+    @Override
+    public boolean read(final byte[] givens, final byte[] solution) {
+        if (next == store.size()) {
+            return false;
+        }
+        store.load(next++, givens, solution);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
@@ -0,0 +1,148 @@
+package com.fs.sudoku.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static com.fs.sudoku.util.PuzzleLine.LENGTH;
+import static com.fs.sudoku.util.PuzzleLine.SIZE;
+
+/**
+ * Reads 9x9 puzzles written as digits for filled cells and {@code 0} or {@code .} for empty ones,
+ * row by row, in a single pass over a reused {@link CharBuffer}. In the line format every puzzle
+ * is one line of 81 cells. In the SDK format a puzzle may span lines and {@code |}, {@code -} and
+ * {@code +} drawing characters are skipped, and {@code [Section]} headers other than
+ * {@code [Puzzle]} are ignored with their content. Both skip blank lines and {@code #} comments.
+ * A record that cannot be read, a line with too few or too many cells or a puzzle with an
+ * unexpected character, is skipped with the rest of its line and counted, and reading goes on.
+ */
+public final class TextPuzzleReader implements PuzzleReader {
+
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private final Reader in;
+    private final boolean multiline;
+    private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+    private long line = 1;
+    private boolean lineStart = true;
+    private boolean comment;
+    private boolean skippedSection;
+    private long recordLine;
+    private long skipped;
+    private long firstSkipped;
+
+    public TextPuzzleReader(final Reader in, final boolean multiline) {
+        this.in = in;
+        this.multiline = multiline;
+        buffer.flip();
+    }
+
+    @Override
+    public int getBoxSize() {
+        return 3;
+    }
+
+    @Override
+    public boolean read(final byte[] givens, final byte[] solution) throws IOException {
+        if (givens.length != LENGTH || solution.length != LENGTH) {
+            throw new IllegalArgumentException("Text puzzles have %s cells".formatted(LENGTH));
+        }
+        Arrays.fill(solution, (byte) 0);
+        var cells = 0;
+        while (buffer.hasRemaining() || fill()) {
+            var c = buffer.get();
+            if (c == '\n') {
+                line++;
+                lineStart = true;
+                comment = false;
+                if (cells == LENGTH) {
+                    return true;
+                }
+                if (cells > 0 && !multiline) {
+                    skip();
+                    cells = 0;
+                }
+                continue;
+            }
+            if (comment || Character.isWhitespace(c)) {
+                continue;
+            }
+            var atLineStart = lineStart;
+            lineStart = false;
+            if (c == '#') {
+                comment = true;
+                continue;
+            }
+            if (c == '[' && atLineStart && multiline) {
+                // Section headers are skipped like comments; the first letter tells whether to read on.
+                comment = true;
+                skippedSection = !(buffer.hasRemaining() || fill()) || buffer.get(buffer.position()) != 'P';
+                continue;
+            }
+            if (skippedSection || (multiline && (c == '|' || c == '-' || c == '+'))) {
+                continue;
+            }
+            if (cells == 0) {
+                recordLine = line;
+            }
+            byte digit;
+            if (c >= '1' && c <= '9') {
+                digit = (byte) (c - '0');
+            } else if (c == '0' || c == '.') {
+                digit = 0;
+            } else {
+                digit = -1;
+            }
+            // Only the line format can run past the last cell; the SDK format returns on reaching it.
+            if (digit < 0 || cells == LENGTH) {
+                skip();
+                cells = 0;
+                comment = true;
+                continue;
+            }
+            givens[(cells % SIZE) * SIZE + cells / SIZE] = digit;
+            if (++cells == LENGTH && multiline) {
+                return true;
+            }
+        }
+        if (cells == LENGTH) {
+            return true;
+        }
+        if (cells > 0) {
+            skip();
+        }
+        return false;
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public long getFirstSkipped() {
+        return firstSkipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void skip() {
+        if (skipped++ == 0) {
+            firstSkipped = recordLine;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        var read = 0;
+        while (read == 0) {
+            read = in.read(buffer);
+        }
+        buffer.flip();
+        return read > 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fs.sudoku.metrics;
+
+public enum BoardOperation {
+    CHANGE_VALUE("changeValue"),
+    CLEAR_VALUE("clearValue"),
+    GET_STATUS("getStatus"),
+    HAS_ERRORS("hasErrors"),
+    GAME_IS_FINISHED("gameIsFinished"),;
+
+    private final String label;
+
+    BoardOperation(final String label){
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
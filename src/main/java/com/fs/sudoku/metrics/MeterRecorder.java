@@ -0,0 +1,114 @@
+package com.fs.sudoku.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The meters behind {@link SudokuMetrics}. Every Micrometer type is referenced from here only, so
+ * the library is loaded once metrics are enabled and is not needed on the class path otherwise.
+ */
+final class MeterRecorder {
+
+    private final MeterRegistry registry;
+    private final Timer[] boardTimers;
+    private final Map<String, Timer> commandTimers = new ConcurrentHashMap<>();
+    private final Map<String, SearchMeters> searchMeters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> generateTimers = new ConcurrentHashMap<>();
+
+    MeterRecorder(final MeterRegistry registry) {
+        this.registry = registry;
+        var operations = BoardOperation.values();
+        this.boardTimers = new Timer[operations.length];
+        for (var operation : operations) {
+            boardTimers[operation.ordinal()] = Timer.builder("sudoku.board.operation")
+                    .tag("operation", operation.getLabel())
+                    .register(registry);
+        }
+    }
+
+    static MeterRegistry simpleRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    MeterRegistry registry() {
+        return registry;
+    }
+
+    void recordBoard(final BoardOperation operation, final long nanos) {
+        boardTimers[operation.ordinal()].record(nanos, NANOSECONDS);
+    }
+
+    void recordCommand(final String command, final long nanos) {
+        commandTimers.computeIfAbsent(command, c -> Timer.builder("sudoku.game.command")
+                        .tag("command", c)
+                        .register(registry))
+                .record(nanos, NANOSECONDS);
+    }
+
+    void recordSearch(final String solver, final long nanos, final long nodes, final long backtracks) {
+        var meters = searchMeters.computeIfAbsent(solver, s -> new SearchMeters(registry, s, true));
+        meters.time.record(nanos, NANOSECONDS);
+        meters.nodes.record(nodes);
+        meters.backtracks.record(backtracks);
+    }
+
+    void recordSearch(final String solver, final long nanos) {
+        searchMeters.computeIfAbsent(solver, s -> new SearchMeters(registry, s, false))
+                .time.record(nanos, NANOSECONDS);
+    }
+
+    void recordGenerate(final String difficulty, final long nanos) {
+        generateTimers.computeIfAbsent(difficulty, d -> Timer.builder("sudoku.generator.generate")
+                        .tag("difficulty", d)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, NANOSECONDS);
+    }
+
+    void report(final PrintStream out) {
+        registry.getMeters().stream()
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> meter.getId().getTags().toString()))
+                .forEach(meter -> {
+                    var id = meter.getId();
+                    var tag = id.getTags().isEmpty() ? "" : id.getTags().get(0).getValue();
+                    if (meter instanceof Timer timer && timer.count() > 0) {
+                        out.printf("%s %s: count=%s mean=%.3fms max=%.3fms\n", id.getName(), tag, timer.count(),
+                                timer.mean(MILLISECONDS), timer.max(MILLISECONDS));
+                    } else if (meter instanceof DistributionSummary summary && summary.count() > 0) {
+                        out.printf("%s %s: count=%s mean=%.1f max=%.0f\n", id.getName(), tag, summary.count(),
+                                summary.mean(), summary.max());
+                    }
+                });
+    }
+
+    private static final class SearchMeters {
+        private final Timer time;
+        private final DistributionSummary nodes;
+        private final DistributionSummary backtracks;
+
+        SearchMeters(final MeterRegistry registry, final String solver, final boolean counted) {
+            this.time = Timer.builder("sudoku.solver.search")
+                    .tag("solver", solver)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.nodes = counted ? DistributionSummary.builder("sudoku.solver.nodes")
+                    .tag("solver", solver)
+                    .register(registry) : null;
+            this.backtracks = counted ? DistributionSummary.builder("sudoku.solver.backtracks")
+                    .tag("solver", solver)
+                    .register(registry) : null;
+        }
+    }
+}
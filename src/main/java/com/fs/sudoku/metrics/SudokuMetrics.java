@@ -0,0 +1,112 @@
+package com.fs.sudoku.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.PrintStream;
+
+/**
+ * Timers and summaries of board operations, game commands, solver searches and puzzle generation,
+ * kept in a Micrometer registry while enabled. Instrumented code brackets an operation with
+ * {@link #start()} and one of the {@code stop} methods; while disabled, which is the default,
+ * that is one read of a volatile field and a branch, and no clock is read.
+ * <p>
+ * Meters: {@code sudoku.board.operation} (tag {@code operation}), {@code sudoku.game.command}
+ * (tag {@code command}), {@code sudoku.solver.search} with {@code sudoku.solver.nodes} and
+ * {@code sudoku.solver.backtracks} (tag {@code solver}; the logical solver, which has no search
+ * tree, records the time only), and {@code sudoku.generator.generate}
+ * (tag {@code difficulty}). Search and generation times publish percentile histograms.
+ */
+public final class SudokuMetrics {
+
+    private static volatile MeterRecorder current;
+
+    private SudokuMetrics() {
+    }
+
+    /**
+     * Starts recording into a new in-memory registry.
+     */
+    public static MeterRegistry enable() {
+        return enable(MeterRecorder.simpleRegistry());
+    }
+
+    public static MeterRegistry enable(final MeterRegistry registry) {
+        current = new MeterRecorder(registry);
+        return registry;
+    }
+
+    public static void disable() {
+        current = null;
+    }
+
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * The registry being recorded into, or null while disabled.
+     */
+    public static MeterRegistry registry() {
+        var metrics = current;
+        return metrics == null ? null : metrics.registry();
+    }
+
+    /**
+     * The start of an operation to pass to a {@code stop} method, 0 while disabled.
+     */
+    public static long start() {
+        return current == null ? 0 : System.nanoTime();
+    }
+
+    public static void stop(final BoardOperation operation, final long start) {
+        var metrics = current;
+        if (start != 0 && metrics != null) {
+            metrics.recordBoard(operation, System.nanoTime() - start);
+        }
+    }
+
+    public static void stopCommand(final String command, final long start) {
+        var metrics = current;
+        if (start != 0 && metrics != null) {
+            metrics.recordCommand(command, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records one search for solutions with the nodes it visited and the dead ends it backed out of.
+     */
+    public static void stopSearch(final String solver, final long start, final long nodes, final long backtracks) {
+        var metrics = current;
+        if (start != 0 && metrics != null) {
+            metrics.recordSearch(solver, System.nanoTime() - start, nodes, backtracks);
+        }
+    }
+
+    /**
+     * Records one solve by a solver that does not search, so has no nodes or dead ends to count.
+     */
+    public static void stopSearch(final String solver, final long start) {
+        var metrics = current;
+        if (start != 0 && metrics != null) {
+            metrics.recordSearch(solver, System.nanoTime() - start);
+        }
+    }
+
+    public static void stopGenerate(final String difficulty, final long start) {
+        var metrics = current;
+        if (start != 0 && metrics != null) {
+            metrics.recordGenerate(difficulty, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Prints one line per meter that recorded something: count, mean and max, in milliseconds for
+     * timers. Prints nothing while disabled.
+     */
+    public static void report(final PrintStream out) {
+        var metrics = current;
+        if (metrics != null) {
+            metrics.report(out);
+        }
+    }
+}
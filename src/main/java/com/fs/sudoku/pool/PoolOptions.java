@@ -0,0 +1,23 @@
+package com.fs.sudoku.pool;
+
+/**
+ * How a {@link PuzzlePool} keeps puzzles ready: each difficulty is topped up to
+ * {@code highWatermark} puzzles in memory once it falls below {@code lowWatermark}, by
+ * {@code generators} background threads. With a spill directory, idle generators keep going and
+ * store up to {@code spillLimit} more puzzles per difficulty on disk, in files of
+ * {@code highWatermark - lowWatermark} puzzles, which refill memory far faster than generating.
+ */
+public record PoolOptions(int lowWatermark, int highWatermark, int generators, int spillLimit) {
+
+    public static final PoolOptions DEFAULT = new PoolOptions(16, 64, 1, 4096);
+
+    public PoolOptions {
+        if (lowWatermark < 1 || highWatermark <= lowWatermark || generators < 1 || spillLimit < 0) {
+            throw new IllegalArgumentException("Invalid pool options");
+        }
+    }
+
+    int spillBatch() {
+        return highWatermark - lowWatermark;
+    }
+}
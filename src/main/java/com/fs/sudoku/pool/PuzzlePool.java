@@ -0,0 +1,303 @@
+package com.fs.sudoku.pool;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.generator.PuzzleGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Puzzles generated ahead of demand, so starting a game does not wait for the generator. Each
+ * difficulty has a lock-free queue in memory that background threads top up between the
+ * watermarks of the {@link PoolOptions}; handing out a puzzle is a queue poll and a counter
+ * update. With a spill directory, surplus puzzles go to a file tier that refills memory in bulk
+ * when a burst of requests drains it, and {@link #close()} stores what is left in memory there
+ * for the next pool.
+ */
+public final class PuzzlePool implements AutoCloseable {
+    // Generators asleep recheck the queues this often, in case a wake-up raced with a refill.
+    private static final long IDLE_NANOS = 100_000_000L;
+
+    private final int boxSize;
+    private final PoolOptions options;
+    private final Shelf[] shelves = new Shelf[Difficulty.values().length];
+    private final Thread[] workers;
+    // Generators for callers that found nothing ready, shared so a miss on a new virtual thread
+    // does not build one; there are at most as many as generated at the same time.
+    private final ConcurrentLinkedQueue<PuzzleGenerator> spareGenerators = new ConcurrentLinkedQueue<>();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile LongConsumer missListener;
+    private volatile boolean closed;
+    private volatile IOException spillFailure;
+
+    /**
+     * Starts generating right away. The difficulties must be ones the generator reaches at this
+     * box size; without a spill directory there is no file tier.
+     */
+    public PuzzlePool(final int boxSize, final Set<Difficulty> difficulties, final PoolOptions options,
+                      final Path spillDirectory) throws IOException {
+        if (difficulties.isEmpty()) {
+            throw new IllegalArgumentException("A pool needs at least one difficulty");
+        }
+        this.boxSize = boxSize;
+        this.options = options;
+        if (spillDirectory != null) {
+            Files.createDirectories(spillDirectory);
+        }
+        for (var difficulty : difficulties) {
+            var spill = spillDirectory == null || options.spillLimit() == 0 ? null
+                    : new SpillTier(spillDirectory, boxSize, difficulty, options.spillBatch());
+            shelves[difficulty.ordinal()] = new Shelf(difficulty, spill);
+        }
+        var random = new SplittableRandom();
+        this.workers = new Thread[options.generators()];
+        for (int i = 0; i < workers.length; i++) {
+            var generator = new PuzzleGenerator(boxSize, random.split());
+            workers[i] = Thread.ofPlatform().name("puzzle-pool-" + i).daemon().unstarted(() -> generate(generator));
+            workers[i].setPriority(Thread.MIN_PRIORITY);
+        }
+        for (var worker : workers) {
+            worker.start();
+        }
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * A ready puzzle, or null when memory has none of this difficulty. Never blocks.
+     */
+    public Puzzle poll(final Difficulty difficulty) {
+        var shelf = shelf(difficulty);
+        var puzzle = shelf.ready.poll();
+        if (puzzle != null && shelf.count.decrementAndGet() < options.lowWatermark() && !shelf.refilling) {
+            shelf.refilling = true;
+            for (var worker : workers) {
+                LockSupport.unpark(worker);
+            }
+        }
+        return puzzle;
+    }
+
+    /**
+     * A ready puzzle, reading a batch back from the file tier when memory ran dry and generating
+     * one on the calling thread only when both are empty.
+     */
+    public Puzzle take(final Difficulty difficulty) {
+        var puzzle = poll(difficulty);
+        if (puzzle != null) {
+            return puzzle;
+        }
+        var shelf = shelf(difficulty);
+        if (unspill(shelf) > 0) {
+            puzzle = poll(difficulty);
+            if (puzzle != null) {
+                return puzzle;
+            }
+        }
+        var generator = spareGenerators.poll();
+        if (generator == null) {
+            generator = new PuzzleGenerator(boxSize, new SplittableRandom());
+        }
+        try {
+            puzzle = generator.generate(difficulty);
+        } finally {
+            spareGenerators.offer(generator);
+        }
+        var listener = missListener;
+        var missed = misses.incrementAndGet();
+        if (listener != null) {
+            listener.accept(missed);
+        }
+        return puzzle;
+    }
+
+    /**
+     * Puzzles of the difficulty ready in memory.
+     */
+    public int getReady(final Difficulty difficulty) {
+        return Math.max(0, shelf(difficulty).count.get());
+    }
+
+    /**
+     * Puzzles of the difficulty in the file tier.
+     */
+    public long getSpilled(final Difficulty difficulty) {
+        var spill = shelf(difficulty).spill;
+        return spill == null ? 0 : spill.size();
+    }
+
+    /**
+     * Puzzles {@link #take(Difficulty)} had to generate on the calling thread.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Tells {@code listener} the number of misses so far after each one, on the thread that
+     * generated the puzzle, or stops telling when it is null.
+     */
+    public void setMissListener(final LongConsumer listener) {
+        this.missListener = listener;
+    }
+
+    /**
+     * Stops the generators and moves the puzzles in memory to the file tier, if there is one.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (var worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        try {
+            for (var worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stopping the generators", e);
+        }
+        if (spillFailure != null) {
+            throw spillFailure;
+        }
+        for (var shelf : shelves) {
+            if (shelf != null && shelf.spill != null) {
+                for (var puzzle = shelf.ready.poll(); puzzle != null; puzzle = shelf.ready.poll()) {
+                    shelf.spill.add(puzzle);
+                }
+                shelf.spill.flush();
+            }
+        }
+    }
+
+    private Shelf shelf(final Difficulty difficulty) {
+        var shelf = shelves[difficulty.ordinal()];
+        if (shelf == null) {
+            throw new IllegalArgumentException("This pool has no %s puzzles".formatted(difficulty.getLabel()));
+        }
+        return shelf;
+    }
+
+    private void generate(final PuzzleGenerator generator) {
+        while (!closed) {
+            var shelf = neediest();
+            if (shelf != null) {
+                if (unspill(shelf) == 0) {
+                    var puzzle = generate(generator, shelf);
+                    if (puzzle != null) {
+                        offer(shelf, puzzle);
+                    }
+                }
+                continue;
+            }
+            shelf = roomiest();
+            if (shelf != null) {
+                try {
+                    var puzzle = generate(generator, shelf);
+                    if (puzzle != null) {
+                        shelf.spill.add(puzzle);
+                    }
+                } catch (IOException e) {
+                    spillFailure = e;
+                }
+                continue;
+            }
+            LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+    }
+
+    /**
+     * A puzzle for the shelf, or null when the generator cannot reach its difficulty at this box
+     * size; the shelf is then left alone, and {@link #take(Difficulty)} reports the failure.
+     */
+    private static Puzzle generate(final PuzzleGenerator generator, final Shelf shelf) {
+        try {
+            return generator.generate(shelf.difficulty);
+        } catch (IllegalStateException e) {
+            shelf.unreachable = true;
+            return null;
+        }
+    }
+
+    /**
+     * The refilling shelf with the fewest puzzles ready, or null.
+     */
+    private Shelf neediest() {
+        Shelf neediest = null;
+        for (var shelf : shelves) {
+            if (shelf != null && shelf.refilling && !shelf.unreachable && (neediest == null || shelf.count.get() < neediest.count.get())) {
+                neediest = shelf;
+            }
+        }
+        return neediest;
+    }
+
+    /**
+     * The shelf with the fewest spilled puzzles among those whose file tier has room, or null.
+     */
+    private Shelf roomiest() {
+        if (spillFailure != null) {
+            return null;
+        }
+        Shelf roomiest = null;
+        var fewest = Long.MAX_VALUE;
+        for (var shelf : shelves) {
+            if (shelf != null && shelf.spill != null && !shelf.unreachable) {
+                var spilled = shelf.spill.size();
+                if (spilled < options.spillLimit() && spilled < fewest) {
+                    roomiest = shelf;
+                    fewest = spilled;
+                }
+            }
+        }
+        return roomiest;
+    }
+
+    private void offer(final Shelf shelf, final Puzzle puzzle) {
+        shelf.ready.offer(puzzle);
+        if (shelf.count.incrementAndGet() >= options.highWatermark()) {
+            shelf.refilling = false;
+        }
+    }
+
+    /**
+     * Moves a batch from the file tier into memory and returns its size.
+     */
+    private int unspill(final Shelf shelf) {
+        if (shelf.spill == null || spillFailure != null) {
+            return 0;
+        }
+        try {
+            return shelf.spill.drainTo(puzzle -> offer(shelf, puzzle));
+        } catch (IOException e) {
+            spillFailure = e;
+            return 0;
+        }
+    }
+
+    private static final class Shelf {
+        private final Difficulty difficulty;
+        private final SpillTier spill;
+        private final ConcurrentLinkedQueue<Puzzle> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile boolean refilling = true;
+        private volatile boolean unreachable;
+
+        Shelf(final Difficulty difficulty, final SpillTier spill) {
+            this.difficulty = difficulty;
+            this.spill = spill;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.fs.sudoku.pool;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.store.PuzzleStore;
+import com.fs.sudoku.store.PuzzleStoreWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The file tier of one difficulty of a {@link PuzzlePool}: puzzle store files named
+ * {@code <difficulty>-<sequence>.puzzles}, each read back whole and deleted. Files left by an
+ * earlier pool are picked up, so a restarted pool begins with the puzzles the last one stored.
+ */
+final class SpillTier {
+    private static final String SUFFIX = ".puzzles";
+
+    private final Path directory;
+    private final int boxSize;
+    private final Difficulty difficulty;
+    private final int batch;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final List<Puzzle> buffer = new ArrayList<>();
+    private long stored;
+    private long sequence;
+
+    SpillTier(final Path directory, final int boxSize, final Difficulty difficulty, final int batch) throws IOException {
+        this.directory = directory;
+        this.boxSize = boxSize;
+        this.difficulty = difficulty;
+        this.batch = batch;
+        var prefix = difficulty.getLabel() + "-";
+        var found = new ArrayList<Long>();
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                var name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(SUFFIX)) {
+                    found.add(Long.parseLong(name, prefix.length(), name.length() - SUFFIX.length(), 10));
+                }
+            }
+        }
+        found.sort(null);
+        for (var number : found) {
+            var path = segment(number);
+            try (var store = PuzzleStore.open(path)) {
+                if (store.getBoxSize() != boxSize) {
+                    throw new IOException("%s holds puzzles of box size %s".formatted(path, store.getBoxSize()));
+                }
+                segments.add(new Segment(path, store.size()));
+                stored += store.size();
+            }
+            sequence = number + 1;
+        }
+    }
+
+    /**
+     * Puzzles on disk and waiting to be written.
+     */
+    long size() {
+        lock.lock();
+        try {
+            return stored;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a puzzle, writing a file once a batch is complete.
+     */
+    void add(final Puzzle puzzle) throws IOException {
+        lock.lock();
+        try {
+            buffer.add(puzzle);
+            stored++;
+            if (buffer.size() >= batch) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the oldest batch to the sink and returns its size, 0 when the tier is empty.
+     */
+    int drainTo(final Consumer<Puzzle> sink) throws IOException {
+        lock.lock();
+        try {
+            if (!buffer.isEmpty()) {
+                var count = buffer.size();
+                buffer.forEach(sink);
+                buffer.clear();
+                stored -= count;
+                return count;
+            }
+            var segment = segments.poll();
+            if (segment == null) {
+                return 0;
+            }
+            try (var store = PuzzleStore.open(segment.path())) {
+                for (long i = 0; i < store.size(); i++) {
+                    sink.accept(store.get(i));
+                }
+            }
+            Files.delete(segment.path());
+            stored -= segment.count();
+            return (int) segment.count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the puzzles still waiting in memory.
+     */
+    void flush() throws IOException {
+        lock.lock();
+        try {
+            if (!buffer.isEmpty()) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() throws IOException {
+        var path = segment(sequence++);
+        try (var writer = new PuzzleStoreWriter(path, boxSize)) {
+            for (var puzzle : buffer) {
+                writer.write(puzzle, difficulty);
+            }
+        }
+        segments.add(new Segment(path, buffer.size()));
+        buffer.clear();
+    }
+
+    private Path segment(final long number) {
+        return directory.resolve(difficulty.getLabel() + "-" + number + SUFFIX);
+    }
+
+    private record Segment(Path path, long count) {
+    }
+}
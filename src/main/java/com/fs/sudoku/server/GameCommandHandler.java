@@ -0,0 +1,124 @@
+package com.fs.sudoku.server;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.util.PuzzleLine;
+
+import java.util.function.Supplier;
+
+/**
+ * Executes one line of the text protocol and returns the reply line:
+ * <pre>
+ * NEW                        -> OK &lt;session&gt;
+ * SHOW &lt;session&gt;             -> OK &lt;cells, row by row, . for empty&gt;
+ * INSERT &lt;session&gt; c r v     -> OK | ERR fixed
+ * REMOVE &lt;session&gt; c r       -> OK | ERR fixed
+ * STATUS &lt;session&gt;           -> OK &lt;status&gt; &lt;errors&gt;
+ * FINISH &lt;session&gt;           -> OK finished | OK errors | OK incomplete
+ * CLOSE &lt;session&gt;            -> OK
+ * </pre>
+ * A finished game closes its session. Boards larger than 9x9 show their cells separated by commas.
+ */
+public final class GameCommandHandler {
+    private final SessionRegistry sessions;
+    private final Supplier<Board> boards;
+
+    public GameCommandHandler(final SessionRegistry sessions, final Supplier<Board> boards) {
+        this.sessions = sessions;
+        this.boards = boards;
+    }
+
+    public String handle(final String line) {
+        var parts = line.strip().split("\\s+");
+        try {
+            return switch (parts[0].toUpperCase()) {
+                case "NEW" -> "OK " + sessions.create(boards.get()).getId();
+                case "SHOW" -> withSession(parts, 2, this::show);
+                case "INSERT" -> withSession(parts, 5, (board, args) ->
+                        board.changeValue(cell(board, args[2]), cell(board, args[3]), value(board, args[4])) ? "OK" : "ERR fixed");
+                case "REMOVE" -> withSession(parts, 4, (board, args) ->
+                        board.clearValue(cell(board, args[2]), cell(board, args[3])) ? "OK" : "ERR fixed");
+                case "STATUS" -> withSession(parts, 2, (board, args) ->
+                        "OK %s %s".formatted(board.getStatus().name(), board.hasErrors()));
+                case "FINISH" -> withSession(parts, 2, this::finish);
+                case "CLOSE" -> sessions.remove(id(parts, 2)) ? "OK" : "ERR unknown session";
+                default -> "ERR unknown command";
+            };
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private String withSession(final String[] args, final int arity, final SessionCommand command) {
+        var session = sessions.get(id(args, arity));
+        if (session == null) {
+            return "ERR unknown session";
+        }
+        var lock = session.getLock();
+        lock.lock();
+        try {
+            return command.run(session.getBoard(), args);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String show(final Board board, final String[] args) {
+        var size = board.getSize();
+        if (size == PuzzleLine.SIZE) {
+            var grid = new byte[size * size];
+            for (int col = 0; col < size; col++) {
+                for (int row = 0; row < size; row++) {
+                    grid[col * size + row] = (byte) board.getValue(col, row);
+                }
+            }
+            return "OK " + PuzzleLine.format(grid);
+        }
+        var line = new StringBuilder("OK ");
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                var value = board.getValue(col, row);
+                if (size > PuzzleLine.SIZE && line.length() > 3) {
+                    line.append(',');
+                }
+                line.append(value == 0 ? "." : String.valueOf(value));
+            }
+        }
+        return line.toString();
+    }
+
+    private String finish(final Board board, final String[] args) {
+        if (board.gameIsFinished()) {
+            sessions.remove(Long.parseLong(args[1]));
+            return "OK finished";
+        }
+        return board.hasErrors() ? "OK errors" : "OK incomplete";
+    }
+
+    private static long id(final String[] args, final int arity) {
+        if (args.length != arity) {
+            throw new IllegalArgumentException("expected %s arguments".formatted(arity - 1));
+        }
+        return Long.parseLong(args[1]);
+    }
+
+    private static int cell(final Board board, final String arg) {
+        return number(arg, 0, board.getSize() - 1);
+    }
+
+    private static int value(final Board board, final String arg) {
+        return number(arg, 1, board.getSize());
+    }
+
+    private static int number(final String arg, final int min, final int max) {
+        var number = Integer.parseInt(arg);
+        if (number < min || number > max) {
+            throw new IllegalArgumentException("%s is not between %s and %s".formatted(number, min, max));
+        }
+        return number;
+    }
+
+    @FunctionalInterface
+    private interface SessionCommand {
+        String run(Board board, String[] args);
+    }
+}
@@ -0,0 +1,118 @@
+package com.fs.sudoku.server;
+
+import com.fs.sudoku.domain.Board;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Serves the {@link GameCommandHandler} protocol over TCP, one virtual thread per connection.
+ * Any number of connections may work on the same session; the session lock orders their commands.
+ * Sessions outlive connections, so a background thread drops those left idle for too long.
+ */
+public final class GameServer implements Runnable, AutoCloseable {
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final ServerSocket serverSocket;
+    private final SessionRegistry sessions = new SessionRegistry();
+    private final GameCommandHandler handler;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread sweeper;
+
+    public GameServer(final int port, final Supplier<Board> boards) throws IOException {
+        this(port, boards, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Drops sessions no command used for {@code idleTimeout}, checking a few times per timeout.
+     */
+    public GameServer(final int port, final Supplier<Board> boards, final Duration idleTimeout) throws IOException {
+        var idleNanos = idleTimeout.toNanos();
+        if (idleNanos <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be positive");
+        }
+        this.serverSocket = new ServerSocket(port, 1024);
+        this.handler = new GameCommandHandler(sessions, boards);
+        this.sweeper = Thread.ofVirtual().name("sudoku-sweep").start(() -> sweep(idleNanos));
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    public void start() {
+        Thread.ofVirtual().name("sudoku-accept").start(this);
+    }
+
+    /**
+     * Accepts connections on the calling thread until the server is closed.
+     */
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.printf("Failed to accept a connection: %s\n", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sweeper.interrupt();
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void sweep(final long idleNanos) {
+        var period = Duration.ofNanos(Math.max(idleNanos / 4, 1_000_000L));
+        try {
+            while (true) {
+                Thread.sleep(period);
+                sessions.evictIdle(idleNanos);
+            }
+        } catch (InterruptedException e) {
+            // The server closed.
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                out.write(handler.handle(line));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (SocketException ignored) {
+            // The client went away.
+        } catch (IOException e) {
+            System.err.printf("Connection failed: %s\n", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.fs.sudoku.server;
+
+import com.fs.sudoku.domain.Board;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One player's board. Boards are not thread-safe, so every command on a session runs under its lock;
+ * a {@link ReentrantLock} rather than {@code synchronized} keeps waiting virtual threads unpinned.
+ */
+public final class GameSession {
+    private final long id;
+    private final Board board;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastUsed = System.nanoTime();
+
+    GameSession(final long id, final Board board) {
+        this.id = id;
+        this.board = board;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * The {@link System#nanoTime()} of the last lookup.
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+}
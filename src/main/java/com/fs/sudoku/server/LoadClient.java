@@ -0,0 +1,105 @@
+package com.fs.sudoku.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Load generator for {@link GameServer}: every client opens a connection and a session, then plays
+ * random inserts, removals and status checks on the open cells of its board, whatever its size.
+ * <p>
+ * Usage: {@code LoadClient <host> <port> <clients> <moves per client>}
+ */
+public final class LoadClient {
+
+    public record Result(long commands, long errors, Duration elapsed) {
+        public double commandsPerSecond() {
+            return commands * 1e9 / Math.max(1, elapsed.toNanos());
+        }
+    }
+
+    private LoadClient() {}
+
+    public static void main(String[] args) throws Exception {
+        var result = run(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        System.out.printf("%s commands, %s errors in %s ms (%.0f commands/s)\n", result.commands(), result.errors(),
+                result.elapsed().toMillis(), result.commandsPerSecond());
+    }
+
+    public static Result run(final String host, final int port, final int clients, final int moves) throws Exception {
+        var commands = new AtomicLong();
+        var errors = new AtomicLong();
+        var start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                var seed = i;
+                futures.add(executor.submit(() -> {
+                    play(host, port, moves, new SplittableRandom(seed), commands, errors);
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        return new Result(commands.get(), errors.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void play(final String host, final int port, final int moves, final SplittableRandom random,
+                             final AtomicLong commands, final AtomicLong errors) throws IOException {
+        try (var socket = new Socket(host, port);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+             var out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII))) {
+            var session = send(out, in, "NEW", commands, errors).substring(3);
+            var shown = send(out, in, "SHOW " + session, commands, errors).substring(3);
+            // Boards larger than 9x9 separate their cells with commas.
+            var cells = shown.contains(",") ? shown.split(",") : shown.split("");
+            var size = (int) Math.round(Math.sqrt(cells.length));
+            List<int[]> open = new ArrayList<>();
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i].equals(".")) {
+                    open.add(new int[]{i % size, i / size});
+                }
+            }
+            for (int move = 0; move < moves && !open.isEmpty(); move++) {
+                var cell = open.get(random.nextInt(open.size()));
+                var command = switch (random.nextInt(4)) {
+                    case 0 -> "REMOVE %s %s %s".formatted(session, cell[0], cell[1]);
+                    case 1 -> "STATUS " + session;
+                    default -> "INSERT %s %s %s %s".formatted(session, cell[0], cell[1], 1 + random.nextInt(size));
+                };
+                send(out, in, command, commands, errors);
+            }
+            if (!send(out, in, "FINISH " + session, commands, errors).equals("OK finished")) {
+                send(out, in, "CLOSE " + session, commands, errors);
+            }
+        }
+    }
+
+    private static String send(final PrintWriter out, final BufferedReader in, final String command,
+                               final AtomicLong commands, final AtomicLong errors) throws IOException {
+        out.print(command);
+        out.print('\n');
+        out.flush();
+        var reply = in.readLine();
+        commands.incrementAndGet();
+        if (reply == null || !reply.startsWith("OK")) {
+            errors.incrementAndGet();
+            return reply == null ? "" : reply;
+        }
+        return reply;
+    }
+}
@@ -0,0 +1,52 @@
+package com.fs.sudoku.server;
+
+import com.fs.sudoku.domain.Board;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live sessions by id. Lookups are lock-free reads of a {@link ConcurrentHashMap}, and updates only
+ * contend on the bin of the session being added or removed. Sessions are not tied to a connection,
+ * so those a client left behind are only dropped by {@link #evictIdle(long)}.
+ */
+public final class SessionRegistry {
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public GameSession create(final Board board) {
+        var session = new GameSession(nextId.getAndIncrement(), board);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    public GameSession get(final long id) {
+        var session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    public boolean remove(final long id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Removes the sessions nobody looked up for {@code idleNanos} and returns how many there were.
+     */
+    public int evictIdle(final long idleNanos) {
+        var now = System.nanoTime();
+        var evicted = 0;
+        for (var session : sessions.values()) {
+            if (now - session.getLastUsed() > idleNanos && sessions.remove(session.getId(), session)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,330 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.metrics.SudokuMetrics;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Backtracking solver over row/column/box digit masks. Each step branches on the cell with the
+ * fewest candidates, or on a hidden single when a unit has a digit with one place left.
+ * Cheaper to set up than {@link DancingLinksSolver}, which makes it the better fit for the many
+ * short uniqueness checks a generator runs on nearly complete grids. Not thread-safe.
+ * <p>
+ * Each call is recorded as one search in {@link SudokuMetrics} unless the solver was built
+ * unrecorded, which callers that run it as a step of a larger operation use.
+ */
+public final class BitmaskSolver {
+
+    static final String METRICS_NAME = "bitmask";
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    private final int allDigits;
+    private final boolean recorded;
+
+    private final int[][] units;
+    private final int[][] unitsOfCell;
+    private final int[] unitMask;
+    private final int[] empty;
+    private final int[] position;
+    private final byte[] cells;
+
+    private byte[] solution;
+    private Consumer<byte[]> sink;
+    private BooleanSupplier cancelled;
+    private SolveProgress progress;
+    private long progressInterval;
+    private long untilProgress;
+    private long searchStart;
+    private int searchOpen;
+    private int limit;
+    private int found;
+    private long nodes;
+    private long backtracks;
+    private long maxNodes;
+
+    public BitmaskSolver(final int boxSize) {
+        this(boxSize, true);
+    }
+
+    public BitmaskSolver(final int boxSize, final boolean recorded) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.cellCount = size * size;
+        this.allDigits = (1 << size) - 1;
+        this.recorded = recorded;
+        var layout = Units.of(boxSize);
+        this.units = layout.cells();
+        this.unitsOfCell = layout.unitsOfCell();
+        this.unitMask = new int[3 * size];
+        this.empty = new int[cellCount];
+        this.position = new int[cellCount];
+        this.cells = new byte[cellCount];
+        this.maxNodes = Long.MAX_VALUE;
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    public byte[] solve(final byte[] grid) {
+        var result = new byte[cellCount];
+        return search(grid, 1, result) == 1 ? result : null;
+    }
+
+    public int countSolutions(final byte[] grid, final int limit) {
+        return search(grid, limit, null);
+    }
+
+    /**
+     * Like {@link #countSolutions(byte[], int)} but gives up after visiting {@code maxNodes} search
+     * nodes, returning -1 when that happens before {@code limit} solutions were found. Sparse 16x16
+     * and 25x25 grids can take far longer to prove unique than to solve.
+     */
+    public int countSolutions(final byte[] grid, final int limit, final long maxNodes) {
+        return countSolutions(grid, limit, maxNodes, null);
+    }
+
+    /**
+     * The node-limited count, also handing the solutions to {@code sink} when it is not null.
+     */
+    int countSolutions(final byte[] grid, final int limit, final long maxNodes, final Consumer<byte[]> sink) {
+        this.maxNodes = maxNodes;
+        this.sink = sink;
+        try {
+            var count = search(grid, limit, null);
+            return nodes > maxNodes && count < limit ? -1 : count;
+        } finally {
+            this.maxNodes = Long.MAX_VALUE;
+            this.sink = null;
+        }
+    }
+
+    /**
+     * Hands up to {@code limit} solutions to {@code sink} in search order and returns how many
+     * there were. The sink gets the solver's working grid, which it must copy to keep.
+     */
+    public int enumerate(final byte[] grid, final int limit, final Consumer<byte[]> sink) {
+        this.sink = sink;
+        try {
+            return search(grid, limit, null);
+        } finally {
+            this.sink = null;
+        }
+    }
+
+    /**
+     * Like {@link #enumerate(byte[], int, Consumer)}, with a null sink allowed, but gives up once
+     * {@code cancelled} turns true; it is polled every few hundred nodes. Returns the solutions
+     * found until then.
+     */
+    int enumerate(final byte[] grid, final int limit, final Consumer<byte[]> sink, final BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        try {
+            return enumerate(grid, limit, sink);
+        } finally {
+            this.cancelled = null;
+            this.maxNodes = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Reports to {@code progress} every {@code interval} nodes of the searches that follow, or
+     * stops reporting when it is null.
+     */
+    public void setProgress(final SolveProgress progress, final long interval) {
+        if (progress != null && interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.progress = progress;
+        this.progressInterval = interval;
+    }
+
+    /**
+     * Search nodes visited by the last call.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Dead ends the last call backed out of.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    private int search(final byte[] grid, final int limit, final byte[] result) {
+        var start = recorded ? SudokuMetrics.start() : 0;
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected %s cells but got %s".formatted(cellCount, grid.length));
+        }
+        Arrays.fill(unitMask, 0);
+        this.limit = limit;
+        this.solution = result;
+        this.found = 0;
+        this.nodes = 0;
+        this.backtracks = 0;
+
+        var open = 0;
+        var consistent = true;
+        for (int cell = 0; cell < cellCount; cell++) {
+            var digit = grid[cell];
+            cells[cell] = digit;
+            if (digit == 0) {
+                position[cell] = open;
+                empty[open++] = cell;
+                continue;
+            }
+            if (digit < 0 || digit > size) {
+                throw new IllegalArgumentException("Invalid digit %s at cell %s".formatted(digit, cell));
+            }
+            var bit = 1 << (digit - 1);
+            if ((used(cell) & bit) != 0) {
+                consistent = false;
+            }
+            place(cell, bit);
+        }
+        if (consistent && limit > 0) {
+            if (progress != null) {
+                this.searchOpen = open;
+                this.searchStart = System.nanoTime();
+                this.untilProgress = progressInterval;
+            }
+            search(open);
+        }
+        this.solution = null;
+        SudokuMetrics.stopSearch(METRICS_NAME, start, nodes, backtracks);
+        return found;
+    }
+
+    private void search(final int open) {
+        if (++nodes > maxNodes) {
+            return;
+        }
+        if ((nodes & 0xFF) == 0 && cancelled != null && cancelled.getAsBoolean()) {
+            maxNodes = 0;
+            return;
+        }
+        if (progress != null && --untilProgress == 0) {
+            untilProgress = progressInterval;
+            progress.progress(cellCount - open, searchOpen - open, nodes, System.nanoTime() - searchStart);
+        }
+        if (open == 0) {
+            if (found++ == 0 && solution != null) {
+                System.arraycopy(cells, 0, solution, 0, cellCount);
+            }
+            if (sink != null) {
+                sink.accept(cells);
+            }
+            return;
+        }
+
+        var cell = -1;
+        var choices = 0;
+        var bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < open; i++) {
+            var candidates = ~used(empty[i]) & allDigits;
+            var count = Integer.bitCount(candidates);
+            if (count < bestCount) {
+                cell = empty[i];
+                choices = candidates;
+                bestCount = count;
+                if (count <= 1) {
+                    break;
+                }
+            }
+        }
+        if (bestCount == 0) {
+            backtracks++;
+            return;
+        }
+        if (bestCount > 1) {
+            var forced = hiddenSingle();
+            if (forced == -2) {
+                backtracks++;
+                return;
+            }
+            if (forced >= 0) {
+                cell = forced & 0xFFFF;
+                choices = 1 << (forced >>> 16);
+            }
+        }
+
+        var index = position[cell];
+        swap(index, open - 1);
+        for (var remaining = choices; remaining != 0 && found < limit && nodes <= maxNodes; remaining &= remaining - 1) {
+            var bit = remaining & -remaining;
+            place(cell, bit);
+            cells[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+            search(open - 1);
+            remove(cell, bit);
+        }
+        cells[cell] = 0;
+        swap(index, open - 1);
+    }
+
+    /**
+     * Returns {@code digit index << 16 | cell} for the first digit that fits only one cell of a unit,
+     * -2 when some unit has a missing digit that fits nowhere, or -1 when there is neither.
+     */
+    private int hiddenSingle() {
+        for (int unit = 0; unit < units.length; unit++) {
+            var once = 0;
+            var twice = 0;
+            for (var cell : units[unit]) {
+                if (cells[cell] == 0) {
+                    var candidates = ~used(cell) & allDigits;
+                    twice |= once & candidates;
+                    once |= candidates;
+                }
+            }
+            var missing = ~unitMask[unit] & allDigits;
+            if ((missing & ~once) != 0) {
+                return -2;
+            }
+            var single = once & ~twice & missing;
+            if (single != 0) {
+                var bit = single & -single;
+                for (var cell : units[unit]) {
+                    if (cells[cell] == 0 && (used(cell) & bit) == 0) {
+                        return Integer.numberOfTrailingZeros(bit) << 16 | cell;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int used(final int cell) {
+        var cellUnits = unitsOfCell[cell];
+        return unitMask[cellUnits[0]] | unitMask[cellUnits[1]] | unitMask[cellUnits[2]];
+    }
+
+    private void swap(final int i, final int j) {
+        var a = empty[i];
+        var b = empty[j];
+        empty[i] = b;
+        empty[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+
+    private void place(final int cell, final int bit) {
+        for (var unit : unitsOfCell[cell]) {
+            unitMask[unit] |= bit;
+        }
+    }
+
+    private void remove(final int cell, final int bit) {
+        for (var unit : unitsOfCell[cell]) {
+            unitMask[unit] &= ~bit;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+
+public final class BoardSolver {
+
+    private static final ThreadLocal<DancingLinksSolver[]> SOLVERS =
+            ThreadLocal.withInitial(() -> new DancingLinksSolver[6]);
+
+    private BoardSolver() {}
+
+    public static DancingLinksSolver forBoxSize(final int boxSize) {
+        var solvers = SOLVERS.get();
+        if (boxSize < 2 || boxSize >= solvers.length) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        if (solvers[boxSize] == null) {
+            solvers[boxSize] = new DancingLinksSolver(boxSize);
+        }
+        return solvers[boxSize];
+    }
+
+    /**
+     * Solves the board from its fixed spaces and stores the result as the expected values.
+     * Returns false, leaving the board untouched, when the givens have no solution.
+     */
+    public static boolean solve(final Board board) {
+        var solution = forBoxSize(requireBoxSize(board)).solve(board.getGivens());
+        if (solution == null) {
+            return false;
+        }
+        board.setSolution(solution);
+        return true;
+    }
+
+    public static int countSolutions(final Board board, final int limit) {
+        return forBoxSize(requireBoxSize(board)).countSolutions(board.getGivens(), limit);
+    }
+
+    private static int requireBoxSize(final Board board) {
+        if (board.getBoxSize() == 0) {
+            throw new IllegalArgumentException("Only square boards with square boxes can be solved");
+        }
+        return board.getBoxSize();
+    }
+}
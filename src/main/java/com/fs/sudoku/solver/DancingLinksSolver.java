@@ -0,0 +1,290 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.metrics.SudokuMetrics;
+
+/**
+ * Exact-cover solver (Knuth's Algorithm X over dancing links) for boards of box size 2 to 5.
+ * Grids are packed one byte per cell, {@code index = col * size + row}, with 0 for empty cells.
+ * The link structure is built once and restored after every search, so an instance should be
+ * reused, but not shared between threads.
+ */
+public final class DancingLinksSolver {
+
+    static final String METRICS_NAME = "dancing-links";
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    private final int columnCount;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] candidate;
+    private final int[] columnSize;
+
+    private final int[] chosen;
+    private final byte[] givens;
+    private byte[] solution;
+    private int limit;
+    private int found;
+    private long nodes;
+    private long backtracks;
+    private SolveProgress progress;
+    private long progressInterval;
+    private long untilProgress;
+    private long searchStart;
+    private int givenCount;
+
+    public DancingLinksSolver(final int boxSize) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.cellCount = size * size;
+        this.columnCount = 4 * cellCount;
+        var nodeCount = 1 + columnCount + 4 * cellCount * size;
+        this.left = new int[nodeCount];
+        this.right = new int[nodeCount];
+        this.up = new int[nodeCount];
+        this.down = new int[nodeCount];
+        this.column = new int[nodeCount];
+        this.candidate = new int[nodeCount];
+        this.columnSize = new int[columnCount + 1];
+        this.chosen = new int[cellCount];
+        this.givens = new byte[cellCount];
+        build();
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * Returns a solved copy of the grid, or null when the givens have no solution.
+     */
+    public byte[] solve(final byte[] grid) {
+        var result = new byte[cellCount];
+        return search(grid, 1, result) == 1 ? result : null;
+    }
+
+    /**
+     * Counts solutions of the grid, stopping as soon as {@code limit} of them have been found.
+     */
+    public int countSolutions(final byte[] grid, final int limit) {
+        return search(grid, limit, null);
+    }
+
+    /**
+     * Reports to {@code progress} every {@code interval} nodes of the searches that follow, or
+     * stops reporting when it is null.
+     */
+    public void setProgress(final SolveProgress progress, final long interval) {
+        if (progress != null && interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.progress = progress;
+        this.progressInterval = interval;
+    }
+
+    /**
+     * Search nodes visited by the last call.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Dead ends the last call backed out of.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    private int search(final byte[] grid, final int limit, final byte[] result) {
+        var start = SudokuMetrics.start();
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected %s cells but got %s".formatted(cellCount, grid.length));
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (grid[cell] < 0 || grid[cell] > size) {
+                throw new IllegalArgumentException("Invalid digit %s at cell %s".formatted(grid[cell], cell));
+            }
+        }
+        this.limit = limit;
+        this.solution = result;
+        this.found = 0;
+        this.nodes = 0;
+        this.backtracks = 0;
+        System.arraycopy(grid, 0, givens, 0, cellCount);
+
+        var placed = 0;
+        var consistent = true;
+        for (int cell = 0; cell < cellCount && consistent; cell++) {
+            var digit = grid[cell];
+            if (digit == 0) {
+                continue;
+            }
+            var node = firstNodeOf(cell * size + digit - 1);
+            if (!allColumnsOpen(node)) {
+                consistent = false;
+                continue;
+            }
+            coverRow(node);
+            chosen[placed++] = node;
+        }
+        if (consistent && limit > 0) {
+            if (progress != null) {
+                this.givenCount = placed;
+                this.searchStart = System.nanoTime();
+                this.untilProgress = progressInterval;
+            }
+            search(placed);
+        }
+        for (int i = placed - 1; i >= 0; i--) {
+            uncoverRow(chosen[i]);
+        }
+        this.solution = null;
+        SudokuMetrics.stopSearch(METRICS_NAME, start, nodes, backtracks);
+        return found;
+    }
+
+    private void search(final int depth) {
+        nodes++;
+        if (progress != null && --untilProgress == 0) {
+            untilProgress = progressInterval;
+            progress.progress(depth, depth - givenCount, nodes, System.nanoTime() - searchStart);
+        }
+        if (right[0] == 0) {
+            if (found++ == 0 && solution != null) {
+                System.arraycopy(givens, 0, solution, 0, cellCount);
+                for (int i = 0; i < depth; i++) {
+                    var id = candidate[chosen[i]];
+                    solution[id / size] = (byte) (id % size + 1);
+                }
+            }
+            return;
+        }
+
+        var best = right[0];
+        for (int c = right[best]; c != 0 && columnSize[best] > 1; c = right[c]) {
+            if (columnSize[c] < columnSize[best]) {
+                best = c;
+            }
+        }
+        if (columnSize[best] == 0) {
+            backtracks++;
+            return;
+        }
+
+        cover(best);
+        for (int r = down[best]; r != best && found < limit; r = down[r]) {
+            chosen[depth] = r;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            search(depth + 1);
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(best);
+    }
+
+    private boolean allColumnsOpen(final int node) {
+        var j = node;
+        do {
+            var c = column[j];
+            if (right[left[c]] != c) {
+                return false;
+            }
+            j = right[j];
+        } while (j != node);
+        return true;
+    }
+
+    private void coverRow(final int node) {
+        var j = node;
+        do {
+            cover(column[j]);
+            j = right[j];
+        } while (j != node);
+    }
+
+    private void uncoverRow(final int node) {
+        var j = left[node];
+        do {
+            uncover(column[j]);
+            j = left[j];
+        } while (j != left[node]);
+    }
+
+    private void cover(final int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                columnSize[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(final int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                columnSize[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    private int firstNodeOf(final int id) {
+        return 1 + columnCount + 4 * id;
+    }
+
+    private void build() {
+        for (int c = 0; c <= columnCount; c++) {
+            left[c] = c == 0 ? columnCount : c - 1;
+            right[c] = c == columnCount ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            var col = cell / size;
+            var row = cell % size;
+            var box = (col / boxSize) * boxSize + row / boxSize;
+            for (int digit = 0; digit < size; digit++) {
+                var id = cell * size + digit;
+                var first = firstNodeOf(id);
+                int[] columns = {
+                        1 + cell,
+                        1 + cellCount + col * size + digit,
+                        1 + 2 * cellCount + row * size + digit,
+                        1 + 3 * cellCount + box * size + digit
+                };
+                for (int k = 0; k < 4; k++) {
+                    var node = first + k;
+                    var c = columns[k];
+                    candidate[node] = id;
+                    column[node] = c;
+                    left[node] = first + (k + 3) % 4;
+                    right[node] = first + (k + 1) % 4;
+                    up[node] = up[c];
+                    down[node] = c;
+                    down[up[c]] = node;
+                    up[c] = node;
+                    columnSize[c]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Checks complete grids, packed {@code index = col * size + row}: every column, row and box must
+ * hold each digit exactly once. {@link #forBoxSize(int)} returns the vectorized validator when the
+ * {@code jdk.incubator.vector} module is present (run with {@code --add-modules jdk.incubator.vector})
+ * and the CPU has native 512-bit vectors, as with AVX-512, and the scalar one otherwise, AVX2
+ * included. Validators are thread-safe.
+ */
+public interface GridValidator {
+
+    int getBoxSize();
+
+    /**
+     * Whether the grid is a complete, valid solution; false as soon as a cell is empty or out of range.
+     */
+    boolean isValid(byte[] grid);
+
+    /**
+     * Whether the grid is a valid solution that keeps every given.
+     */
+    default boolean isSolution(final byte[] givens, final byte[] grid) {
+        if (givens.length != grid.length) {
+            return false;
+        }
+        for (int i = 0; i < givens.length; i++) {
+            if (givens[i] != 0 && givens[i] != grid[i]) {
+                return false;
+            }
+        }
+        return isValid(grid);
+    }
+
+    static GridValidator forBoxSize(final int boxSize) {
+        return GridValidators.of(boxSize);
+    }
+
+    /**
+     * Whether {@link #forBoxSize(int)} hands out vectorized validators in this JVM.
+     */
+    static boolean isVectorized() {
+        return GridValidators.VECTORIZED;
+    }
+}
@@ -0,0 +1,27 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Shared validators per box size. {@link VectorGridValidator} is only loaded once the incubator
+ * module is known to be present, so the scalar path needs nothing beyond {@code java.base}.
+ */
+final class GridValidators {
+
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorGridValidator.isSupported();
+
+    private static final GridValidator[] CACHE = new GridValidator[6];
+
+    private GridValidators() {}
+
+    static synchronized GridValidator of(final int boxSize) {
+        if (boxSize < 2 || boxSize >= CACHE.length) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        if (CACHE[boxSize] == null) {
+            CACHE[boxSize] = VECTORIZED && VectorGridValidator.supports(boxSize)
+                    ? VectorGridValidator.create(boxSize)
+                    : new ScalarGridValidator(boxSize);
+        }
+        return CACHE[boxSize];
+    }
+}
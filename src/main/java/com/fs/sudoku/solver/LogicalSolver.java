@@ -0,0 +1,673 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.Cell;
+import com.fs.sudoku.metrics.SudokuMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.fs.sudoku.solver.Technique.*;
+
+/**
+ * Solves the way a person would, one deduction at a time, trying the {@link Technique}s in order
+ * of cost and starting over from the cheapest after every step. Candidates are bitmasks updated in
+ * place: a placement clears its digit from the peers, an elimination clears single bits, so no
+ * step recomputes the grid. Works from the rules alone and never guesses. Not thread-safe.
+ */
+public final class LogicalSolver {
+
+    static final String METRICS_NAME = "logical";
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    private final int allDigits;
+    private final int[][] units;
+    private final int[][] unitsOfCell;
+
+    private final byte[] values;
+    private final int[] candidates;
+    private int open;
+    private boolean broken;
+
+    private SolveProgress progress;
+    private long progressInterval;
+    private long untilProgress;
+    private long searchStart;
+    private int loadedOpen;
+    private long steps;
+
+    private final int[] chosen = new int[3];
+    private final int[] lineCells;
+    private final int[] subsetDigits;
+    private final int[] hits;
+    private int hitCount;
+    private final byte[] color;
+    private final int[] component;
+
+    public LogicalSolver(final int boxSize) {
+        var layout = Units.of(boxSize);
+        this.boxSize = boxSize;
+        this.size = layout.size();
+        this.cellCount = layout.cellCount();
+        this.allDigits = (1 << size) - 1;
+        this.units = layout.cells();
+        this.unitsOfCell = layout.unitsOfCell();
+        this.values = new byte[cellCount];
+        this.candidates = new int[cellCount];
+        this.lineCells = new int[size];
+        this.subsetDigits = new int[size];
+        this.hits = new int[cellCount];
+        this.color = new byte[cellCount];
+        this.component = new int[cellCount];
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * Reports to {@code progress} every {@code interval} steps of the solves, ratings and hints
+     * that follow, counting steps as nodes, or stops reporting when it is null.
+     */
+    public void setProgress(final SolveProgress progress, final long interval) {
+        if (progress != null && interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.progress = progress;
+        this.progressInterval = interval;
+    }
+
+    /**
+     * Fills in {@code grid} as far as the techniques reach and returns the steps taken, in order.
+     * The grid still has empty cells when the puzzle needs guessing or has no solution.
+     */
+    public List<Step> solve(final byte[] grid) {
+        var start = SudokuMetrics.start();
+        load(grid);
+        List<Step> steps = new ArrayList<>();
+        for (var step = next(); step != null; step = next()) {
+            steps.add(step);
+        }
+        System.arraycopy(values, 0, grid, 0, cellCount);
+        SudokuMetrics.stopSearch(METRICS_NAME, start);
+        return steps;
+    }
+
+    /**
+     * The hardest technique the puzzle needs, or null when the techniques cannot finish it.
+     */
+    public Technique rate(final byte[] givens) {
+        var start = SudokuMetrics.start();
+        load(givens);
+        var hardest = NAKED_SINGLE;
+        for (var step = next(); step != null; step = next()) {
+            if (step.technique().compareTo(hardest) > 0) {
+                hardest = step.technique();
+            }
+        }
+        SudokuMetrics.stopSearch(METRICS_NAME, start);
+        return open == 0 && !broken ? hardest : null;
+    }
+
+    /**
+     * The steps that lead from the board's current values to the next placement, ending with it.
+     * Empty when the board is full, the techniques get stuck, or the values contradict each other.
+     */
+    public List<Step> nextHint(final Board board) {
+        if (board.getBoxSize() != boxSize) {
+            throw new IllegalArgumentException("Expected a board of box size %s".formatted(boxSize));
+        }
+        var grid = new byte[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            var value = board.getValue(cell / size, cell % size);
+            grid[cell] = value > 0 && value <= size ? (byte) value : 0;
+        }
+        load(grid);
+        List<Step> steps = new ArrayList<>();
+        for (var step = next(); step != null; step = next()) {
+            steps.add(step);
+            if (step.technique().isPlacement()) {
+                return steps;
+            }
+        }
+        return List.of();
+    }
+
+    private void load(final byte[] grid) {
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected %s cells but got %s".formatted(cellCount, grid.length));
+        }
+        Arrays.fill(values, (byte) 0);
+        Arrays.fill(candidates, allDigits);
+        open = cellCount;
+        broken = false;
+        for (int cell = 0; cell < cellCount; cell++) {
+            var digit = grid[cell];
+            if (digit == 0) {
+                continue;
+            }
+            if (digit < 0 || digit > size) {
+                throw new IllegalArgumentException("Invalid digit %s at cell %s".formatted(digit, cell));
+            }
+            var bit = 1 << (digit - 1);
+            if ((candidates[cell] & bit) == 0) {
+                broken = true;
+            }
+            place(cell, bit);
+        }
+        if (progress != null) {
+            loadedOpen = open;
+            steps = 0;
+            untilProgress = progressInterval;
+            searchStart = System.nanoTime();
+        }
+    }
+
+    private Step next() {
+        var step = deduce();
+        if (step != null && progress != null) {
+            steps++;
+            if (--untilProgress == 0) {
+                untilProgress = progressInterval;
+                progress.progress(cellCount - open, loadedOpen - open, steps, System.nanoTime() - searchStart);
+            }
+        }
+        return step;
+    }
+
+    /**
+     * The next step of the cheapest technique that finds one, or null.
+     */
+    private Step deduce() {
+        if (broken || open == 0) {
+            return null;
+        }
+        var step = nakedSingle();
+        if (step == null && !broken) {
+            step = hiddenSingle();
+        }
+        if (step == null && !broken) {
+            step = nakedSubset(2, NAKED_PAIR);
+        }
+        if (step == null && !broken) {
+            step = nakedSubset(3, NAKED_TRIPLE);
+        }
+        if (step == null && !broken) {
+            step = hiddenSubset(2, HIDDEN_PAIR);
+        }
+        if (step == null && !broken) {
+            step = hiddenSubset(3, HIDDEN_TRIPLE);
+        }
+        if (step == null && !broken) {
+            step = pointing();
+        }
+        if (step == null && !broken) {
+            step = claiming();
+        }
+        if (step == null && !broken) {
+            step = fish(2, X_WING);
+        }
+        if (step == null && !broken) {
+            step = fish(3, SWORDFISH);
+        }
+        if (step == null && !broken) {
+            step = simpleColoring();
+        }
+        return step;
+    }
+
+    private Step nakedSingle() {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (values[cell] != 0) {
+                continue;
+            }
+            var bits = candidates[cell];
+            if (bits == 0) {
+                broken = true;
+                return null;
+            }
+            if ((bits & (bits - 1)) == 0) {
+                place(cell, bits);
+                return placement(NAKED_SINGLE, cell, bits);
+            }
+        }
+        return null;
+    }
+
+    private Step hiddenSingle() {
+        for (var unit : units) {
+            var once = 0;
+            var twice = 0;
+            var placed = 0;
+            for (var cell : unit) {
+                if (values[cell] == 0) {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                } else {
+                    placed |= 1 << (values[cell] - 1);
+                }
+            }
+            var missing = ~placed & allDigits;
+            if ((missing & ~once) != 0) {
+                broken = true;
+                return null;
+            }
+            var single = once & ~twice;
+            if (single != 0) {
+                var bit = single & -single;
+                for (var cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        place(cell, bit);
+                        return placement(HIDDEN_SINGLE, cell, bit);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code k} open cells of a unit whose candidates together are {@code k} digits take those
+     * digits away from the rest of the unit.
+     */
+    private Step nakedSubset(final int k, final Technique technique) {
+        for (var unit : units) {
+            var count = 0;
+            for (var cell : unit) {
+                var bits = Integer.bitCount(candidates[cell]);
+                if (values[cell] == 0 && bits >= 2 && bits <= k) {
+                    lineCells[count++] = cell;
+                }
+            }
+            var step = nakedSubset(unit, count, k, 0, 0, 0, technique);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    private Step nakedSubset(final int[] unit, final int count, final int k, final int start, final int depth,
+                             final int union, final Technique technique) {
+        if (depth == k) {
+            if (Integer.bitCount(union) != k) {
+                return null;
+            }
+            hitCount = 0;
+            for (var cell : unit) {
+                if (values[cell] == 0 && (candidates[cell] & union) != 0 && !isChosen(cell, k)) {
+                    hits[hitCount++] = cell;
+                }
+            }
+            return eliminate(technique, union, Arrays.copyOf(chosen, k));
+        }
+        for (int i = start; i < count; i++) {
+            var merged = union | candidates[lineCells[i]];
+            if (Integer.bitCount(merged) > k) {
+                continue;
+            }
+            chosen[depth] = lineCells[i];
+            var step = nakedSubset(unit, count, k, i + 1, depth + 1, merged, technique);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code k} digits of a unit whose places together are {@code k} cells take every other
+     * digit away from those cells.
+     */
+    private Step hiddenSubset(final int k, final Technique technique) {
+        for (int unit = 0; unit < units.length; unit++) {
+            var count = 0;
+            for (int bit = 1; bit <= allDigits; bit <<= 1) {
+                var places = Integer.bitCount(positions(unit, bit));
+                if (places >= 2 && places <= k) {
+                    subsetDigits[count++] = bit;
+                }
+            }
+            var step = hiddenSubset(unit, count, k, 0, 0, 0, 0, technique);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    private Step hiddenSubset(final int unit, final int count, final int k, final int start, final int depth,
+                              final int digits, final int places, final Technique technique) {
+        if (depth == k) {
+            if (Integer.bitCount(places) != k) {
+                return null;
+            }
+            var cells = units[unit];
+            var others = 0;
+            hitCount = 0;
+            for (int i = 0; i < cells.length; i++) {
+                if ((places & 1 << i) != 0 && (candidates[cells[i]] & ~digits) != 0) {
+                    others |= candidates[cells[i]] & ~digits;
+                    hits[hitCount++] = cells[i];
+                }
+            }
+            var pattern = new int[k];
+            for (int i = 0, found = 0; found < k; i++) {
+                if ((places & 1 << i) != 0) {
+                    pattern[found++] = cells[i];
+                }
+            }
+            return eliminate(technique, others, pattern);
+        }
+        for (int i = start; i < count; i++) {
+            var merged = places | positions(unit, subsetDigits[i]);
+            if (Integer.bitCount(merged) > k) {
+                continue;
+            }
+            var step = hiddenSubset(unit, count, k, i + 1, depth + 1, digits | subsetDigits[i], merged, technique);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A digit confined to one column or row within a box leaves the rest of that line.
+     */
+    private Step pointing() {
+        for (int box = 2 * size; box < 3 * size; box++) {
+            for (int bit = 1; bit <= allDigits; bit <<= 1) {
+                var step = confined(box, bit, 0, POINTING);
+                if (step == null) {
+                    step = confined(box, bit, 1, POINTING);
+                }
+                if (step != null) {
+                    return step;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A digit confined to one box within a column or row leaves the rest of that box.
+     */
+    private Step claiming() {
+        for (int line = 0; line < 2 * size; line++) {
+            for (int bit = 1; bit <= allDigits; bit <<= 1) {
+                var step = confined(line, bit, 2, CLAIMING);
+                if (step != null) {
+                    return step;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * When every place for {@code bit} in {@code unit} shares the unit of the given kind
+     * (0 column, 1 row, 2 box), removes the digit from the rest of that shared unit.
+     */
+    private Step confined(final int unit, final int bit, final int kind, final Technique technique) {
+        var shared = -1;
+        var count = 0;
+        for (var cell : units[unit]) {
+            if ((candidates[cell] & bit) == 0) {
+                continue;
+            }
+            var other = unitsOfCell[cell][kind];
+            if (shared != -1 && other != shared) {
+                return null;
+            }
+            shared = other;
+            lineCells[count++] = cell;
+        }
+        if (count < 2) {
+            return null;
+        }
+        hitCount = 0;
+        for (var cell : units[shared]) {
+            if ((candidates[cell] & bit) != 0 && !contains(units[unit], cell)) {
+                hits[hitCount++] = cell;
+            }
+        }
+        return eliminate(technique, bit, Arrays.copyOf(lineCells, count));
+    }
+
+    /**
+     * X-Wing for {@code n = 2} and swordfish for 3: a digit whose places in {@code n} rows fall in
+     * just {@code n} columns leaves the rest of those columns, and the same with rows and columns swapped.
+     */
+    private Step fish(final int n, final Technique technique) {
+        for (int bit = 1; bit <= allDigits; bit <<= 1) {
+            for (var base : new int[] {size, 0}) {
+                var step = fish(n, technique, bit, base, 0, 0, 0, 0);
+                if (step != null) {
+                    return step;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Step fish(final int n, final Technique technique, final int bit, final int base,
+                      final int start, final int depth, final int lines, final int cover) {
+        if (depth == n) {
+            if (Integer.bitCount(cover) != n) {
+                return null;
+            }
+            // Rows as base lines are covered by columns (units 0..size-1) and the other way round.
+            var crossBase = base == 0 ? size : 0;
+            hitCount = 0;
+            for (var rest = cover; rest != 0; rest &= rest - 1) {
+                for (var cell : units[crossBase + Integer.numberOfTrailingZeros(rest)]) {
+                    var line = unitsOfCell[cell][base == 0 ? 0 : 1] - base;
+                    if ((candidates[cell] & bit) != 0 && (lines & 1 << line) == 0) {
+                        hits[hitCount++] = cell;
+                    }
+                }
+            }
+            if (hitCount == 0) {
+                return null;
+            }
+            var pattern = new ArrayList<Integer>();
+            for (var rest = lines; rest != 0; rest &= rest - 1) {
+                for (var cell : units[base + Integer.numberOfTrailingZeros(rest)]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        pattern.add(cell);
+                    }
+                }
+            }
+            return eliminate(technique, bit, pattern.stream().mapToInt(Integer::intValue).toArray());
+        }
+        for (int line = start; line < size; line++) {
+            var positions = positions(base + line, bit);
+            var count = Integer.bitCount(positions);
+            if (count < 2 || count > n || Integer.bitCount(cover | positions) > n) {
+                continue;
+            }
+            var step = fish(n, technique, bit, base, line + 1, depth + 1, lines | 1 << line, cover | positions);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Connects the places of a digit through units where it has exactly two, colors them
+     * alternately and removes the digit where a color contradicts itself or where a cell sees
+     * both colors of the same chain.
+     */
+    private Step simpleColoring() {
+        for (int bit = 1; bit <= allDigits; bit <<= 1) {
+            Arrays.fill(color, (byte) 0);
+            for (int start = 0; start < cellCount; start++) {
+                if ((candidates[start] & bit) == 0 || color[start] != 0 || !linked(start, bit)) {
+                    continue;
+                }
+                var step = colorChain(start, bit);
+                if (step != null) {
+                    return step;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Step colorChain(final int start, final int bit) {
+        var length = 0;
+        component[length++] = start;
+        color[start] = 1;
+        for (int i = 0; i < length; i++) {
+            var cell = component[i];
+            for (int kind = 0; kind < 3; kind++) {
+                var other = partner(cell, bit, kind);
+                if (other >= 0 && color[other] == 0) {
+                    color[other] = (byte) (3 - color[cell]);
+                    component[length++] = other;
+                }
+            }
+        }
+        hitCount = 0;
+        for (var wrong = (byte) 1; wrong <= 2 && hitCount == 0; wrong++) {
+            if (colorSeesItself(length, wrong)) {
+                for (int i = 0; i < length; i++) {
+                    if (color[component[i]] == wrong) {
+                        hits[hitCount++] = component[i];
+                    }
+                }
+            }
+        }
+        if (hitCount == 0) {
+            for (int cell = 0; cell < cellCount; cell++) {
+                if ((candidates[cell] & bit) != 0 && color[cell] == 0
+                        && seesColor(cell, length, (byte) 1) && seesColor(cell, length, (byte) 2)) {
+                    hits[hitCount++] = cell;
+                }
+            }
+        }
+        return eliminate(SIMPLE_COLORING, bit, Arrays.copyOf(component, length));
+    }
+
+    private boolean colorSeesItself(final int length, final byte shade) {
+        for (int i = 0; i < length; i++) {
+            if (color[component[i]] == shade && seesColor(component[i], length, shade)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean seesColor(final int cell, final int length, final byte shade) {
+        for (int i = 0; i < length; i++) {
+            var other = component[i];
+            if (other != cell && color[other] == shade && sees(cell, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The other place of the digit in the cell's unit of the given kind when it has exactly two, else -1.
+     */
+    private int partner(final int cell, final int bit, final int kind) {
+        var other = -1;
+        for (var peer : units[unitsOfCell[cell][kind]]) {
+            if (peer == cell || (candidates[peer] & bit) == 0) {
+                continue;
+            }
+            if (other >= 0) {
+                return -1;
+            }
+            other = peer;
+        }
+        return other;
+    }
+
+    private boolean linked(final int cell, final int bit) {
+        return partner(cell, bit, 0) >= 0 || partner(cell, bit, 1) >= 0 || partner(cell, bit, 2) >= 0;
+    }
+
+    private boolean sees(final int a, final int b) {
+        var ua = unitsOfCell[a];
+        var ub = unitsOfCell[b];
+        return ua[0] == ub[0] || ua[1] == ub[1] || ua[2] == ub[2];
+    }
+
+    /**
+     * Bit {@code i} is set when the digit fits the {@code i}-th cell of the unit; for a row that
+     * is the column index, for a column the row index.
+     */
+    private int positions(final int unit, final int bit) {
+        var positions = 0;
+        var cells = units[unit];
+        for (int i = 0; i < cells.length; i++) {
+            if ((candidates[cells[i]] & bit) != 0) {
+                positions |= 1 << i;
+            }
+        }
+        return positions;
+    }
+
+    private boolean isChosen(final int cell, final int k) {
+        for (int i = 0; i < k; i++) {
+            if (chosen[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(final int[] cells, final int cell) {
+        for (var other : cells) {
+            if (other == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void place(final int cell, final int bit) {
+        values[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+        candidates[cell] = 0;
+        open--;
+        for (var unit : unitsOfCell[cell]) {
+            for (var peer : units[unit]) {
+                candidates[peer] &= ~bit;
+            }
+        }
+    }
+
+    private Step placement(final Technique technique, final int cell, final int bit) {
+        return new Step(technique, bit << 1, List.of(cell(cell)), List.of());
+    }
+
+    /**
+     * Removes {@code digits} from the cells collected in {@link #hits}; null when there are none.
+     */
+    private Step eliminate(final Technique technique, final int digits, final int[] pattern) {
+        if (hitCount == 0) {
+            return null;
+        }
+        List<Cell> eliminated = new ArrayList<>(hitCount);
+        for (int i = 0; i < hitCount; i++) {
+            candidates[hits[i]] &= ~digits;
+            eliminated.add(cell(hits[i]));
+        }
+        List<Cell> cells = new ArrayList<>(pattern.length);
+        for (var cell : pattern) {
+            cells.add(cell(cell));
+        }
+        return new Step(technique, digits << 1, List.copyOf(cells), List.copyOf(eliminated));
+    }
+
+    private Cell cell(final int cell) {
+        return new Cell(cell / size, cell % size);
+    }
+}
@@ -0,0 +1,51 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Checks the range of every cell, then ORs the digit bits of each column, row and box and
+ * compares them with the full set.
+ */
+final class ScalarGridValidator implements GridValidator {
+
+    private final int boxSize;
+    private final int size;
+    private final int full;
+    private final int[][] units;
+
+    ScalarGridValidator(final int boxSize) {
+        var units = Units.of(boxSize);
+        this.boxSize = boxSize;
+        this.size = units.size();
+        this.full = ((1 << size) - 1) << 1;
+        this.units = units.cells();
+    }
+
+    @Override
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    @Override
+    public boolean isValid(final byte[] grid) {
+        if (grid.length != size * size) {
+            return false;
+        }
+        var outside = 0;
+        for (var digit : grid) {
+            // Negative when the digit is outside 1..size.
+            outside |= (size - digit) | (digit - 1);
+        }
+        if (outside < 0) {
+            return false;
+        }
+        for (var unit : units) {
+            var seen = 0;
+            for (var cell : unit) {
+                seen |= 1 << grid[cell];
+            }
+            if (seen != full) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
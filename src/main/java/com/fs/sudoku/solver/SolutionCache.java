@@ -0,0 +1,273 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.io.PuzzleReader;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Solutions of recently solved puzzles, so a puzzle submitted again costs one lookup instead of a
+ * search. Entries are keyed by a 64-bit hash of the givens and hold the solution packed a nibble
+ * per cell up to box size 4 (41 bytes for 9x9) and a byte per cell above. The cache is split into
+ * lock-striped least-recently-used segments, so threads only contend when they hit the same
+ * stripe. A hit is checked against the givens before it is returned, so a hash collision costs a
+ * solve, never a wrong answer.
+ */
+public final class SolutionCache {
+
+    // Estimated heap per entry besides the packed solution: map entry, boxed key, array header.
+    static final int ENTRY_OVERHEAD = 88;
+    private static final int STRIPES = 64;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int boxSize;
+    private final int cellCount;
+    private final int packedBytes;
+    private final long maxEntries;
+    private final UnaryOperator<byte[]> solver;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Caches the thread's {@link BoardSolver} within about {@code maxBytes} of heap.
+     */
+    public SolutionCache(final int boxSize, final long maxBytes) {
+        this(boxSize, maxBytes, grid -> BoardSolver.forBoxSize(boxSize).solve(grid));
+    }
+
+    /**
+     * Caches {@code solver}, which must be safe to call from every thread using the cache and
+     * return null for givens without a solution.
+     */
+    public SolutionCache(final int boxSize, final long maxBytes, final UnaryOperator<byte[]> solver) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        this.boxSize = boxSize;
+        this.cellCount = boxSize * boxSize * boxSize * boxSize;
+        this.packedBytes = boxSize <= 4 ? (cellCount + 1) / 2 : cellCount;
+        this.maxEntries = Math.max(STRIPES, maxBytes / (packedBytes + ENTRY_OVERHEAD));
+        this.solver = solver;
+        var perStripe = (int) Math.min(Integer.MAX_VALUE, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * The solution of the givens from the cache, or from the solver and then cached. Null when the
+     * givens have no solution.
+     */
+    public byte[] solve(final byte[] givens) {
+        var solution = get(givens);
+        if (solution != null) {
+            return solution;
+        }
+        solution = solver.apply(givens);
+        if (solution != null) {
+            put(givens, solution);
+        }
+        return solution;
+    }
+
+    /**
+     * Like {@link BoardSolver#solve(Board)}, going through the cache.
+     */
+    public boolean solve(final Board board) {
+        if (board.getBoxSize() != boxSize) {
+            throw new IllegalArgumentException("This cache holds solutions of box size " + boxSize);
+        }
+        var solution = solve(board.getGivens());
+        if (solution == null) {
+            return false;
+        }
+        board.setSolution(solution);
+        return true;
+    }
+
+    /**
+     * The cached solution of the givens, or null on a miss.
+     */
+    public byte[] get(final byte[] givens) {
+        checkLength(givens);
+        var key = hash(givens);
+        var stripe = stripes[stripe(key)];
+        byte[] packed;
+        stripe.lock.lock();
+        try {
+            packed = stripe.entries.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (packed != null) {
+            var solution = unpack(packed);
+            if (matches(givens, solution)) {
+                hits.increment();
+                return solution;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(final byte[] givens, final byte[] solution) {
+        checkLength(givens);
+        checkLength(solution);
+        var key = hash(givens);
+        var packed = pack(solution);
+        var stripe = stripes[stripe(key)];
+        stripe.lock.lock();
+        try {
+            stripe.entries.put(key, packed);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Fills the cache from a puzzle file, solving the puzzles stored without a solution, and
+     * returns the number of puzzles loaded. Puzzles past the capacity evict the earliest ones.
+     */
+    public long warm(final PuzzleReader reader) throws IOException {
+        if (reader.getBoxSize() != boxSize) {
+            throw new IllegalArgumentException("This cache holds solutions of box size " + boxSize);
+        }
+        var givens = new byte[cellCount];
+        var solution = new byte[cellCount];
+        var loaded = 0L;
+        while (reader.read(givens, solution)) {
+            var puzzle = PuzzleReader.complete(boxSize, givens, solution);
+            if (puzzle != null) {
+                put(givens, puzzle.solution());
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    public long size() {
+        var size = 0L;
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void checkLength(final byte[] grid) {
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("A puzzle of box size %s needs %s cells".formatted(boxSize, cellCount));
+        }
+    }
+
+    private static boolean matches(final byte[] givens, final byte[] solution) {
+        for (int i = 0; i < givens.length; i++) {
+            if (givens[i] != 0 && givens[i] != solution[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(final byte[] givens) {
+        var hash = SEED ^ givens.length;
+        var word = 0L;
+        for (int i = 0; i < givens.length; i++) {
+            word = word << 8 | givens[i] & 0xFF;
+            if ((i & 7) == 7) {
+                hash = Long.rotateLeft(hash ^ word * 0xFF51AFD7ED558CCDL, 29) * SEED;
+                word = 0;
+            }
+        }
+        hash ^= word * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ hash >>> 33;
+    }
+
+    private static int stripe(final long key) {
+        return (int) (key >>> 58) & (STRIPES - 1);
+    }
+
+    private byte[] pack(final byte[] solution) {
+        var packed = new byte[packedBytes];
+        if (packedBytes == cellCount) {
+            for (int i = 0; i < cellCount; i++) {
+                packed[i] = (byte) (solution[i] - 1);
+            }
+            return packed;
+        }
+        for (int i = 0; i < cellCount; i += 2) {
+            var high = solution[i] - 1;
+            var low = i + 1 < cellCount ? solution[i + 1] - 1 : 0;
+            packed[i / 2] = (byte) (high << 4 | low);
+        }
+        return packed;
+    }
+
+    private byte[] unpack(final byte[] packed) {
+        var solution = new byte[cellCount];
+        if (packedBytes == cellCount) {
+            for (int i = 0; i < cellCount; i++) {
+                solution[i] = (byte) (packed[i] + 1);
+            }
+            return solution;
+        }
+        for (int i = 0; i < cellCount; i += 2) {
+            solution[i] = (byte) (((packed[i / 2] >> 4) & 0xF) + 1);
+            if (i + 1 < cellCount) {
+                solution[i + 1] = (byte) ((packed[i / 2] & 0xF) + 1);
+            }
+        }
+        return solution;
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, byte[]> entries;
+
+        Stripe(final int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.metrics.SudokuMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts or lists the solutions of a partially filled grid up to a cap, on a work-stealing pool.
+ * Most grids are settled by a sequential search within {@value #PROBE_NODES} nodes, which is tried
+ * first. Otherwise the top of the search tree is expanded breadth first, branching on the open
+ * cell with the fewest candidates in digit order after placing every forced digit, until there are
+ * {@value #SUBTREES} subtrees; fork-join tasks then search them with one {@link BitmaskSolver} per
+ * thread. The split does not depend on the parallelism, so neither do the results: a count is
+ * {@code min(solutions, cap)} and an enumeration the first {@code cap} solutions in subtree order.
+ * A count stops everywhere once {@code cap} solutions were found; an enumeration cancels the
+ * subtrees after a finished prefix that already holds {@code cap} solutions. Each count or
+ * enumeration is recorded as one search, with the nodes of the probe and the subtrees added up.
+ */
+public final class SolutionCounter implements AutoCloseable {
+
+    static final String METRICS_NAME = "counter";
+    static final int SUBTREES = 64;
+    // Searches that end within this many nodes are not worth splitting.
+    static final long PROBE_NODES = 16_384;
+
+    private final int boxSize;
+    private final int size;
+    private final int cellCount;
+    private final int allDigits;
+    private final int[][] units;
+    private final int[][] unitsOfCell;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<BitmaskSolver> solvers;
+
+    public SolutionCounter(final int boxSize) {
+        this(boxSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SolutionCounter(final int boxSize, final int parallelism) {
+        var units = Units.of(boxSize);
+        this.boxSize = boxSize;
+        this.size = units.size();
+        this.cellCount = units.cellCount();
+        this.allDigits = (1 << size) - 1;
+        this.units = units.cells();
+        this.unitsOfCell = units.unitsOfCell();
+        this.pool = new ForkJoinPool(parallelism);
+        this.solvers = ThreadLocal.withInitial(() -> new BitmaskSolver(boxSize, false));
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * The number of solutions of the grid, counting at most {@code cap}.
+     */
+    public int count(final byte[] grid, final int cap) {
+        return Math.min(run(grid, cap, false).total.get(), cap);
+    }
+
+    public int count(final Board board, final int cap) {
+        return count(valuesOf(board), cap);
+    }
+
+    /**
+     * Whether the grid has exactly one solution, the check a puzzle must pass before publishing.
+     */
+    public boolean isUnique(final byte[] grid) {
+        return count(grid, 2) == 1;
+    }
+
+    /**
+     * The first {@code cap} solutions, each a new grid in the board layout.
+     */
+    public List<byte[]> enumerate(final byte[] grid, final int cap) {
+        var search = run(grid, cap, true);
+        List<byte[]> solutions = new ArrayList<>(Math.min(cap, 1024));
+        for (int i = 0; i < search.cutoff && solutions.size() < cap; i++) {
+            for (var solution : search.solutions.get(i)) {
+                if (solutions.size() == cap) {
+                    break;
+                }
+                solutions.add(solution);
+            }
+        }
+        return solutions;
+    }
+
+    public List<byte[]> enumerate(final Board board, final int cap) {
+        return enumerate(valuesOf(board), cap);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private byte[] valuesOf(final Board board) {
+        if (board.getBoxSize() != boxSize) {
+            throw new IllegalArgumentException("This counter solves boards of box size " + boxSize);
+        }
+        return board.getValues();
+    }
+
+    private Search run(final byte[] grid, final int cap, final boolean keep) {
+        var start = SudokuMetrics.start();
+        var search = probe(grid, cap, keep);
+        if (search == null) {
+            search = new Search(split(grid), cap, keep);
+            search.count(solvers.get());
+            if (cap > 0 && !search.subtrees.isEmpty()) {
+                pool.invoke(new Subtrees(search, 0, search.subtrees.size()));
+            }
+        }
+        SudokuMetrics.stopSearch(METRICS_NAME, start, search.nodes.get(), search.backtracks.get());
+        return search;
+    }
+
+    /**
+     * The whole search on the calling thread when it ends within the node budget, else null.
+     */
+    private Search probe(final byte[] grid, final int cap, final boolean keep) {
+        var search = new Search(List.of(grid), cap, keep);
+        List<byte[]> found = keep ? new ArrayList<>() : null;
+        var solver = solvers.get();
+        var count = solver.countSolutions(grid, cap, PROBE_NODES, found == null ? null : solution -> found.add(solution.clone()));
+        if (count < 0) {
+            return null;
+        }
+        search.total.set(count);
+        search.count(solver);
+        search.finished(0, found);
+        return search;
+    }
+
+    /**
+     * Expands the grid level by level, each node replaced by its children in place so the list
+     * stays in depth-first order, until there are enough subtrees or nothing is left to branch on.
+     * Dead ends are dropped; an inconsistent grid yields no subtrees at all.
+     */
+    List<byte[]> split(final byte[] grid) {
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected %s cells but got %s".formatted(cellCount, grid.length));
+        }
+        var unitMasks = new int[3 * size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            var digit = grid[cell];
+            if (digit < 0 || digit > size) {
+                throw new IllegalArgumentException("Invalid digit %s at cell %s".formatted(digit, cell));
+            }
+            if (digit != 0) {
+                var bit = 1 << (digit - 1);
+                for (var unit : unitsOfCell[cell]) {
+                    if ((unitMasks[unit] & bit) != 0) {
+                        return List.of();
+                    }
+                    unitMasks[unit] |= bit;
+                }
+            }
+        }
+        List<byte[]> frontier = List.of(grid.clone());
+        var branched = true;
+        while (branched && frontier.size() < SUBTREES) {
+            branched = false;
+            List<byte[]> next = new ArrayList<>();
+            for (var node : frontier) {
+                branched |= expand(node, unitMasks, next);
+            }
+            frontier = next;
+        }
+        return frontier;
+    }
+
+    /**
+     * Places forced digits in the node until it branches, and adds its children, the completed
+     * node, or nothing for a dead end to {@code next}. Returns false when the node was complete.
+     */
+    private boolean expand(final byte[] node, final int[] unitMasks, final List<byte[]> next) {
+        Arrays.fill(unitMasks, 0);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (node[cell] != 0) {
+                place(cell, 1 << (node[cell] - 1), unitMasks);
+            }
+        }
+        while (true) {
+            var best = -1;
+            var bestChoices = 0;
+            for (int cell = 0; cell < cellCount && (best < 0 || bestChoices != 0); cell++) {
+                if (node[cell] == 0) {
+                    var choices = candidates(cell, unitMasks);
+                    if (best < 0 || Integer.bitCount(choices) < Integer.bitCount(bestChoices)) {
+                        best = cell;
+                        bestChoices = choices;
+                    }
+                }
+            }
+            if (best < 0) {
+                next.add(node);
+                return false;
+            }
+            if (Integer.bitCount(bestChoices) > 1) {
+                var forced = hiddenSingle(node, unitMasks);
+                if (forced == -2) {
+                    return true;
+                }
+                if (forced >= 0) {
+                    best = forced & 0xFFFF;
+                    bestChoices = 1 << (forced >>> 16);
+                }
+            }
+            if (Integer.bitCount(bestChoices) == 1) {
+                node[best] = (byte) (Integer.numberOfTrailingZeros(bestChoices) + 1);
+                place(best, bestChoices, unitMasks);
+                continue;
+            }
+            for (var remaining = bestChoices; remaining != 0; remaining &= remaining - 1) {
+                var child = node.clone();
+                child[best] = (byte) (Integer.numberOfTrailingZeros(remaining) + 1);
+                next.add(child);
+            }
+            return true;
+        }
+    }
+
+    private void place(final int cell, final int bit, final int[] unitMasks) {
+        for (var unit : unitsOfCell[cell]) {
+            unitMasks[unit] |= bit;
+        }
+    }
+
+    /**
+     * Like the {@link BitmaskSolver} rule: {@code digit index << 16 | cell} for a digit with one
+     * place left in some unit, -2 when a missing digit has no place, -1 otherwise.
+     */
+    private int hiddenSingle(final byte[] node, final int[] unitMasks) {
+        for (var unit : units) {
+            var once = 0;
+            var twice = 0;
+            var missing = allDigits;
+            for (var cell : unit) {
+                if (node[cell] != 0) {
+                    missing &= ~(1 << (node[cell] - 1));
+                    continue;
+                }
+                var candidates = candidates(cell, unitMasks);
+                twice |= once & candidates;
+                once |= candidates;
+            }
+            if ((missing & ~once) != 0) {
+                return -2;
+            }
+            var single = once & ~twice & missing;
+            if (single != 0) {
+                var bit = single & -single;
+                for (var cell : unit) {
+                    if (node[cell] == 0 && (candidates(cell, unitMasks) & bit) != 0) {
+                        return Integer.numberOfTrailingZeros(bit) << 16 | cell;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int candidates(final int cell, final int[] unitMasks) {
+        var cellUnits = unitsOfCell[cell];
+        return ~(unitMasks[cellUnits[0]] | unitMasks[cellUnits[1]] | unitMasks[cellUnits[2]]) & allDigits;
+    }
+
+    private static final class Search {
+        private final List<byte[]> subtrees;
+        private final int cap;
+        private final boolean keep;
+        private final List<List<byte[]>> solutions;
+        private final boolean[] done;
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicLong nodes = new AtomicLong();
+        private final AtomicLong backtracks = new AtomicLong();
+        // Enumeration only: subtrees from cutoff on are not needed. The finished prefix is
+        // guarded by this.
+        private volatile int cutoff;
+        private int prefix;
+        private int prefixSolutions;
+
+        Search(final List<byte[]> subtrees, final int cap, final boolean keep) {
+            this.subtrees = subtrees;
+            this.cap = cap;
+            this.keep = keep;
+            this.solutions = keep ? new ArrayList<>(Collections.nCopies(subtrees.size(), null)) : null;
+            this.done = new boolean[subtrees.size()];
+            this.cutoff = subtrees.size();
+        }
+
+        boolean cancelled(final int index) {
+            return index >= cutoff || !keep && total.get() >= cap;
+        }
+
+        /**
+         * Adds the nodes and dead ends of the solver's last call.
+         */
+        void count(final BitmaskSolver solver) {
+            nodes.addAndGet(solver.getNodes());
+            backtracks.addAndGet(solver.getBacktracks());
+        }
+
+        synchronized void finished(final int index, final List<byte[]> found) {
+            if (!keep) {
+                return;
+            }
+            solutions.set(index, found);
+            done[index] = true;
+            while (prefix < done.length && done[prefix]) {
+                prefixSolutions += solutions.get(prefix++).size();
+                if (prefixSolutions >= cap && prefix < cutoff) {
+                    cutoff = prefix;
+                }
+            }
+        }
+    }
+
+    // Serializable only through ForkJoinTask; the tasks never leave the pool.
+    @SuppressWarnings("serial")
+    private final class Subtrees extends RecursiveAction {
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        Subtrees(final Search search, final int from, final int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new Subtrees(search, from, middle), new Subtrees(search, middle, to));
+                return;
+            }
+            List<byte[]> found = search.keep ? new ArrayList<>() : null;
+            if (!search.cancelled(from)) {
+                var solver = solvers.get();
+                solver.enumerate(search.subtrees.get(from), search.cap, solution -> {
+                    if (found != null) {
+                        found.add(solution.clone());
+                    } else {
+                        search.total.incrementAndGet();
+                    }
+                }, () -> search.cancelled(from));
+                search.count(solver);
+            }
+            search.finished(from, found);
+        }
+    }
+}
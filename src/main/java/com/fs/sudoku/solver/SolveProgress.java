@@ -0,0 +1,22 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Told how a search is going, on the searching thread, every so many nodes; see
+ * {@code setProgress} on {@link BitmaskSolver}, {@link DancingLinksSolver} and
+ * {@link LogicalSolver}, whose nodes are its steps. Reporting allocates nothing, and a slow
+ * handler slows the search, so handlers hand the numbers on rather than print them.
+ */
+@FunctionalInterface
+public interface SolveProgress {
+
+    /**
+     * {@code placed} counts the filled cells of the branch being searched, givens included, and
+     * {@code depth} the cells the search filled on it. {@code nanos} is the time since the search
+     * started.
+     */
+    void progress(int placed, int depth, long nodes, long nanos);
+
+    static long nodesPerSecond(final long nodes, final long nanos) {
+        return nanos <= 0 ? 0 : (long) (nodes * 1e9 / nanos);
+    }
+}
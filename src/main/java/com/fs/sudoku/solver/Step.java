@@ -0,0 +1,41 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Cell;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * One deduction of {@link LogicalSolver}. Placements put their single digit on the one pattern
+ * cell; the other techniques remove {@code digits} from the eliminated cells because of the
+ * pattern cells. Digits use the {@link com.fs.sudoku.domain.Board#getCandidates(int, int)}
+ * convention, bit {@code d} for digit {@code d}.
+ */
+public record Step(Technique technique, int digits, List<Cell> pattern, List<Cell> eliminated) {
+
+    /**
+     * The placed value, or 0 for eliminations.
+     */
+    public int value() {
+        return technique.isPlacement() ? Integer.numberOfTrailingZeros(digits) : 0;
+    }
+
+    @Override
+    public String toString() {
+        var values = IntStream.range(1, Integer.SIZE)
+                .filter(d -> (digits & 1 << d) != 0)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+        if (technique.isPlacement()) {
+            return "%s: %s at %s".formatted(technique.getLabel(), values, cells(pattern));
+        }
+        return "%s on %s removes %s from %s".formatted(technique.getLabel(), cells(pattern), values, cells(eliminated));
+    }
+
+    private static String cells(final List<Cell> cells) {
+        return cells.stream()
+                .map(cell -> "[%s,%s]".formatted(cell.col(), cell.row()))
+                .collect(Collectors.joining(" "));
+    }
+}
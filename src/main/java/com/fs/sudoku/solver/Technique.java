@@ -0,0 +1,35 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Solving techniques of {@link LogicalSolver}, cheapest first.
+ */
+public enum Technique {
+    NAKED_SINGLE("naked single"),
+    HIDDEN_SINGLE("hidden single"),
+    NAKED_PAIR("naked pair"),
+    NAKED_TRIPLE("naked triple"),
+    HIDDEN_PAIR("hidden pair"),
+    HIDDEN_TRIPLE("hidden triple"),
+    POINTING("pointing"),
+    CLAIMING("claiming"),
+    X_WING("X-Wing"),
+    SWORDFISH("swordfish"),
+    SIMPLE_COLORING("simple coloring");
+
+    private final String label;
+
+    Technique(final String label){
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Whether a step of this technique places a value rather than removing candidates.
+     */
+    public boolean isPlacement() {
+        return this == NAKED_SINGLE || this == HIDDEN_SINGLE;
+    }
+}
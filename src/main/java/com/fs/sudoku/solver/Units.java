@@ -0,0 +1,73 @@
+package com.fs.sudoku.solver;
+
+/**
+ * Column, row and box membership for a packed grid of a given box size, {@code index = col * size + row}.
+ * Units {@code 0..size-1} are columns, {@code size..2*size-1} rows and the rest boxes.
+ */
+public final class Units {
+
+    private static final Units[] CACHE = new Units[6];
+
+    private final int boxSize;
+    private final int size;
+    private final int[][] cells;
+    private final int[][] unitsOfCell;
+
+    private Units(final int boxSize) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        var cellCount = size * size;
+        this.cells = new int[3 * size][size];
+        this.unitsOfCell = new int[cellCount][];
+        var filled = new int[3 * size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            var col = cell / size;
+            var row = cell % size;
+            int[] cellUnits = {col, size + row, 2 * size + (col / boxSize) * boxSize + row / boxSize};
+            for (var unit : cellUnits) {
+                cells[unit][filled[unit]++] = cell;
+            }
+            unitsOfCell[cell] = cellUnits;
+        }
+    }
+
+    public static synchronized Units of(final int boxSize) {
+        if (boxSize < 2 || boxSize >= CACHE.length) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        if (CACHE[boxSize] == null) {
+            CACHE[boxSize] = new Units(boxSize);
+        }
+        return CACHE[boxSize];
+    }
+
+    public int boxSize() {
+        return boxSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int cellCount() {
+        return size * size;
+    }
+
+    public int unitCount() {
+        return cells.length;
+    }
+
+    /**
+     * Cells of every unit; shared, callers must not modify it.
+     */
+    public int[][] cells() {
+        return cells;
+    }
+
+    /**
+     * Column, row and box of every cell; shared, callers must not modify it.
+     */
+    public int[][] unitsOfCell() {
+        return unitsOfCell;
+    }
+}
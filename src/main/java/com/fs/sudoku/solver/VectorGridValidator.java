@@ -0,0 +1,125 @@
+package com.fs.sudoku.solver;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Validates a grid a stack at a time. The columns of a stack are contiguous in the packed grid,
+ * so a whole stack (27 cells for 9x9) loads into one vector, each cell becoming its digit bit.
+ * Rotations within each column fold the bits of every box row and then of the whole column;
+ * rotations across the stack fold box rows into boxes. Rows are ORed lane by lane over all
+ * stacks and folded once at the end. Every unit is compared with the full set in one mask test,
+ * so a grid costs a few dozen vector operations and no reductions. The folds are written out
+ * rather than looped over, which keeps C2 from boxing the vectors. A stack must fit 32 lanes,
+ * which limits this validator to box sizes 2 and 3 on CPUs with 512-bit vectors.
+ */
+final class VectorGridValidator implements GridValidator {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_256;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_512;
+
+    private final int boxSize;
+    private final int size;
+    private final int stackCells;
+    private final short full;
+    private final ShortVector one;
+    private final VectorMask<Byte> loadLanes;
+    private final VectorMask<Short> stackLanes;
+    private final VectorMask<Short> rowLanes;
+    // Rotations by 1 and 2 lanes, then 1 and 2 box rows, within each column, and by 1 and 2 columns
+    // within the stack. Box size 2 only needs the first of each pair and repeats it.
+    private final VectorShuffle<Short> boxRowFold1;
+    private final VectorShuffle<Short> boxRowFold2;
+    private final VectorShuffle<Short> columnFold1;
+    private final VectorShuffle<Short> columnFold2;
+    private final VectorShuffle<Short> stackFold1;
+    private final VectorShuffle<Short> stackFold2;
+    // Full in every lane that does not hold a box once folded, so boxes can be ANDed with the rest.
+    private final ShortVector boxPadding;
+
+    private VectorGridValidator(final int boxSize) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.stackCells = boxSize * size;
+        this.full = (short) ((1 << size) - 1);
+        this.one = ShortVector.broadcast(SHORTS, (short) 1);
+        this.loadLanes = BYTES.indexInRange(0, stackCells);
+        this.stackLanes = SHORTS.indexInRange(0, stackCells);
+        this.rowLanes = SHORTS.indexInRange(0, size);
+        var second = boxSize - 1;
+        this.boxRowFold1 = rotation(size, 1);
+        this.boxRowFold2 = rotation(size, second);
+        this.columnFold1 = rotation(size, boxSize);
+        this.columnFold2 = rotation(size, second * boxSize);
+        this.stackFold1 = rotation(stackCells, size);
+        this.stackFold2 = rotation(stackCells, second * size);
+        var padding = new short[SHORTS.length()];
+        for (int lane = 0; lane < padding.length; lane++) {
+            var boxHead = lane < size && lane % boxSize == 0;
+            padding[lane] = boxHead ? 0 : full;
+        }
+        this.boxPadding = ShortVector.fromArray(SHORTS, padding, 0);
+    }
+
+    /**
+     * Whether the CPU runs 512-bit vectors natively; emulated vectors are slower than the scalar path.
+     */
+    static boolean isSupported() {
+        return ShortVector.SPECIES_PREFERRED.vectorBitSize() >= SHORTS.vectorBitSize();
+    }
+
+    static boolean supports(final int boxSize) {
+        return boxSize * boxSize * boxSize <= SHORTS.length();
+    }
+
+    static GridValidator create(final int boxSize) {
+        return new VectorGridValidator(boxSize);
+    }
+
+    @Override
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    @Override
+    public boolean isValid(final byte[] grid) {
+        if (grid.length != size * size) {
+            return false;
+        }
+        var outOfRange = SHORTS.maskAll(false);
+        var units = ShortVector.broadcast(SHORTS, full);
+        var rows = ShortVector.zero(SHORTS);
+        for (int offset = 0; offset < grid.length; offset += stackCells) {
+            var digits = ByteVector.fromArray(BYTES, grid, offset, loadLanes);
+            var shifts = ((ShortVector) digits.convertShape(VectorOperators.B2S, SHORTS, 0)).sub((short) 1);
+            outOfRange = outOfRange.or(shifts.compare(VectorOperators.UNSIGNED_GE, (short) size, stackLanes));
+            var bits = one.lanewise(VectorOperators.LSHL, shifts);
+            rows = rows.or(bits);
+            var boxRows = bits.or(bits.rearrange(boxRowFold1)).or(bits.rearrange(boxRowFold2));
+            var columns = boxRows.or(boxRows.rearrange(columnFold1)).or(boxRows.rearrange(columnFold2));
+            var boxes = boxRows.or(boxRows.rearrange(stackFold1)).or(boxRows.rearrange(stackFold2));
+            units = units.and(columns).and(boxes.or(boxPadding));
+        }
+        var folded = rows.or(rows.rearrange(stackFold1)).or(rows.rearrange(stackFold2));
+        return !outOfRange.anyTrue()
+                && !units.compare(VectorOperators.NE, full, stackLanes).anyTrue()
+                && !folded.compare(VectorOperators.NE, full, rowLanes).anyTrue();
+    }
+
+    /**
+     * Rotates every group of {@code group} lanes left by {@code by}, leaving lanes past the last
+     * whole group in place.
+     */
+    private static VectorShuffle<Short> rotation(final int group, final int by) {
+        var indexes = new int[SHORTS.length()];
+        for (int lane = 0; lane < indexes.length; lane++) {
+            var start = lane - lane % group;
+            indexes[lane] = start + group <= indexes.length ? start + (lane % group + by) % group : lane;
+        }
+        return VectorShuffle.fromArray(SHORTS, indexes, 0);
+    }
+}
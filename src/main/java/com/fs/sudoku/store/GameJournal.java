@@ -0,0 +1,316 @@
+package com.fs.sudoku.store;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.BoardListener;
+import com.fs.sudoku.domain.MoveLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Saves a game as it is played: a snapshot file with the givens, the solution and every value,
+ * plus an append-only journal of the moves made since that snapshot. Each journal record is the
+ * move packed as in {@link MoveLog#encode(int, int, int)} followed by a CRC32C of the move and its
+ * sequence number, so a torn tail from a crash is detected and cut off on resume. Compaction
+ * writes a new snapshot next to the old one, renames it into place and then empties the journal;
+ * both files carry a generation number, and a journal older than the snapshot is discarded, so a
+ * crash at any point leaves a consistent game. Each new game starts at a random generation, so the
+ * journal of a game it replaced is never replayed onto it. Resuming reads one snapshot and at most
+ * {@link JournalOptions#compactEvery()} records however long the game ran. Not thread-safe; the
+ * journal writes on the thread that changes the board. A failed write does not interrupt the
+ * board's other listeners: the journal stops saving and {@link #sync()}, {@link #compact()} and
+ * {@link #close()} throw the failure.
+ */
+public final class GameJournal implements BoardListener, AutoCloseable {
+
+    static final String SNAPSHOT_FILE = "game.snapshot";
+    static final String JOURNAL_FILE = "game.journal";
+    static final int SNAPSHOT_MAGIC = 0x53444B53;
+    static final int JOURNAL_MAGIC = 0x53444B4A;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 8;
+
+    private final Path directory;
+    private final JournalOptions options;
+    private final Board board;
+    private final int size;
+    private final byte[] givens;
+    private final byte[] solution;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ByteBuffer checked = ByteBuffer.allocate(8);
+    private final CRC32C crc = new CRC32C();
+
+    private long generation;
+    private IOException failure;
+    private int records;
+    private int buffered;
+    private int writes;
+
+    private GameJournal(final Path directory, final JournalOptions options, final Board board,
+                        final byte[] givens, final byte[] solution, final FileChannel channel, final long generation) {
+        this.directory = directory;
+        this.options = options;
+        this.board = board;
+        this.size = board.getSize();
+        this.givens = givens;
+        this.solution = solution;
+        this.channel = channel;
+        this.generation = generation;
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE * Math.min(options.batchSize(), 1 << 13));
+    }
+
+    public static boolean exists(final Path directory) {
+        return Files.exists(directory.resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * Starts saving a new game into {@code directory}, replacing any game saved there.
+     */
+    public static GameJournal start(final Path directory, final Board board, final JournalOptions options) throws IOException {
+        if (board.getBoxSize() == 0) {
+            throw new IllegalArgumentException("Only square boards with square boxes can be saved");
+        }
+        Files.createDirectories(directory);
+        var journal = new GameJournal(directory, options, board, board.getGivens(), board.getSolution(),
+                FileChannel.open(directory.resolve(JOURNAL_FILE), CREATE, READ, WRITE),
+                ThreadLocalRandom.current().nextLong());
+        journal.writeSnapshot();
+        journal.restartJournal();
+        board.addListener(journal);
+        return journal;
+    }
+
+    /**
+     * Rebuilds the saved game from its snapshot and the valid prefix of its journal, and keeps
+     * saving further moves.
+     */
+    public static GameJournal resume(final Path directory, final JournalOptions options) throws IOException {
+        var snapshot = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(SNAPSHOT_FILE)));
+        if (snapshot.remaining() < HEADER_SIZE + 4 || snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getShort() != VERSION) {
+            throw new IOException("Not a saved game snapshot");
+        }
+        var boxSize = snapshot.getShort();
+        var generation = snapshot.getLong();
+        var cellCount = boxSize * boxSize * boxSize * boxSize;
+        if (boxSize < 2 || boxSize > 5 || snapshot.remaining() != 3 * cellCount + 4) {
+            throw new IOException("Corrupt saved game snapshot");
+        }
+        var crc = new CRC32C();
+        crc.update(snapshot.array(), 0, snapshot.limit() - 4);
+        if ((int) crc.getValue() != snapshot.getInt(snapshot.limit() - 4)) {
+            throw new IOException("Corrupt saved game snapshot");
+        }
+        var givens = new byte[cellCount];
+        var solution = new byte[cellCount];
+        var values = new byte[cellCount];
+        snapshot.get(givens).get(solution).get(values);
+
+        var board = new Board(boxSize, givens, solution);
+        var size = board.getSize();
+        for (int index = 0; index < cellCount; index++) {
+            if (givens[index] == 0 && values[index] != 0) {
+                board.changeValue(index / size, index % size, values[index]);
+            }
+        }
+        var channel = FileChannel.open(directory.resolve(JOURNAL_FILE), CREATE, READ, WRITE);
+        var journal = new GameJournal(directory, options, board, givens, solution, channel, generation);
+        journal.replay();
+        board.addListener(journal);
+        if (journal.records >= options.compactEvery()) {
+            journal.compact();
+        }
+        return journal;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Moves in the journal since the last snapshot, written or still buffered.
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    @Override
+    public void valueChanged(final int index, final int previous, final int current) {
+        if (failure != null) {
+            return;
+        }
+        var move = MoveLog.encode(index, previous, current);
+        buffer.putInt(move).putInt(checksum(move, records));
+        records++;
+        try {
+            if (++buffered == options.batchSize() || !buffer.hasRemaining()) {
+                flush();
+            }
+            if (records >= options.compactEvery()) {
+                compact();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Writes buffered moves and forces the journal to disk.
+     */
+    public void sync() throws IOException {
+        checkFailure();
+        flush();
+        channel.force(false);
+        writes = 0;
+    }
+
+    /**
+     * Folds the journal into a new snapshot of the board.
+     */
+    public void compact() throws IOException {
+        checkFailure();
+        flush();
+        generation++;
+        writeSnapshot();
+        restartJournal();
+    }
+
+    @Override
+    public void close() throws IOException {
+        board.removeListener(this);
+        try (channel) {
+            sync();
+        }
+    }
+
+    /**
+     * Stops saving and deletes the saved game, for games that are over.
+     */
+    public void discard() throws IOException {
+        board.removeListener(this);
+        channel.close();
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+        Files.deleteIfExists(directory.resolve(JOURNAL_FILE));
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The journal stopped saving moves", failure);
+        }
+    }
+
+    private void replay() throws IOException {
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != JOURNAL_MAGIC || header.getShort() != VERSION
+                || header.getLong(8) != generation) {
+            // Missing, torn, or left over from before the latest snapshot.
+            restartJournal();
+            return;
+        }
+        var chunk = ByteBuffer.allocate(RECORD_SIZE << 12);
+        var position = (long) HEADER_SIZE;
+        var read = chunk.capacity();
+        while (read == chunk.capacity()) {
+            chunk.clear();
+            read = Math.max(channel.read(chunk, position), 0);
+            chunk.flip();
+            while (chunk.remaining() >= RECORD_SIZE) {
+                var move = chunk.getInt();
+                if (chunk.getInt() != checksum(move, records)) {
+                    read = 0;
+                    break;
+                }
+                apply(move);
+                records++;
+                position += RECORD_SIZE;
+            }
+        }
+        channel.truncate(position);
+        channel.position(position);
+    }
+
+    private void apply(final int move) {
+        var index = MoveLog.index(move);
+        var value = MoveLog.current(move);
+        if (value > 0) {
+            board.changeValue(index / size, index % size, value);
+        } else {
+            board.clearValue(index / size, index % size);
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        var cellCount = givens.length;
+        var snapshot = ByteBuffer.allocate(HEADER_SIZE + 3 * cellCount + 4);
+        snapshot.putInt(SNAPSHOT_MAGIC).putShort(VERSION).putShort((short) board.getBoxSize()).putLong(generation);
+        snapshot.put(givens).put(solution);
+        for (int index = 0; index < cellCount; index++) {
+            snapshot.put((byte) board.getValue(index / size, index % size));
+        }
+        crc.reset();
+        crc.update(snapshot.array(), 0, snapshot.position());
+        snapshot.putInt((int) crc.getValue()).flip();
+
+        var temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (var out = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                out.write(snapshot);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    private void restartJournal() throws IOException {
+        channel.truncate(0);
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(JOURNAL_MAGIC).putShort(VERSION).putShort((short) 0).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(false);
+        channel.position(HEADER_SIZE);
+        records = 0;
+        buffered = 0;
+        writes = 0;
+        buffer.clear();
+    }
+
+    private void flush() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        buffered = 0;
+        if (options.syncEvery() > 0 && ++writes >= options.syncEvery()) {
+            channel.force(false);
+            writes = 0;
+        }
+    }
+
+    private int checksum(final int move, final int sequence) {
+        checked.clear();
+        checked.putInt(move).putInt(sequence).flip();
+        crc.reset();
+        crc.update(checked);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,21 @@
+package com.fs.sudoku.store;
+
+/**
+ * How eagerly a {@link GameJournal} persists: moves are written to the file in batches of
+ * {@code batchSize}, forced to disk every {@code syncEvery} writes (0 leaves it to the operating
+ * system until close), and folded into a new snapshot every {@code compactEvery} moves.
+ */
+public record JournalOptions(int batchSize, int syncEvery, int compactEvery) {
+
+    /**
+     * Writes every move, so a crash of the program loses nothing; forces every 16 writes, so a
+     * crash of the machine loses at most the last 16 moves.
+     */
+    public static final JournalOptions DEFAULT = new JournalOptions(1, 16, 4096);
+
+    public JournalOptions {
+        if (batchSize < 1 || syncEvery < 0 || compactEvery < 1) {
+            throw new IllegalArgumentException("Invalid journal options");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.fs.sudoku.store;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Read-only view of a file written by {@link PuzzleStoreWriter}. The file is mapped in segments
+ * of whole records, so stores larger than 2 GB work and every load is a fixed amount of
+ * arithmetic plus reads from the page cache. Safe to share between threads.
+ */
+public final class PuzzleStore implements AutoCloseable {
+
+    private static final long SEGMENT_BYTES = 1L << 30;
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    private final Path path;
+    private final PuzzleStoreFormat format;
+    private final FileChannel channel;
+    private final long count;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private PuzzleStore(final Path path, final FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        var header = ByteBuffer.allocate(PuzzleStoreFormat.HEADER_SIZE);
+        channel.read(header, 0);
+        this.format = PuzzleStoreFormat.readHeader(header.flip());
+        this.count = header.getLong(PuzzleStoreFormat.COUNT_OFFSET);
+        if (PuzzleStoreFormat.HEADER_SIZE + count * format.recordSize > channel.size()) {
+            throw new IOException("Puzzle store is truncated");
+        }
+        this.recordsPerSegment = (int) (SEGMENT_BYTES / format.recordSize);
+        this.segments = new MappedByteBuffer[(int) ((count + recordsPerSegment - 1) / recordsPerSegment)];
+        for (int i = 0; i < segments.length; i++) {
+            var first = (long) i * recordsPerSegment;
+            var records = Math.min(recordsPerSegment, count - first);
+            segments[i] = channel.map(READ_ONLY, PuzzleStoreFormat.HEADER_SIZE + first * format.recordSize,
+                    records * format.recordSize);
+        }
+    }
+
+    public static PuzzleStore open(final Path path) throws IOException {
+        var channel = FileChannel.open(path, READ);
+        try {
+            return new PuzzleStore(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the file starts with a puzzle store header.
+     */
+    public static boolean isStore(final Path path) throws IOException {
+        try (var channel = FileChannel.open(path, READ)) {
+            var magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // keep reading until the magic is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == PuzzleStoreFormat.MAGIC;
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public int getBoxSize() {
+        return format.boxSize;
+    }
+
+    /**
+     * Decodes puzzle {@code index} into the caller's arrays without allocating and returns its
+     * difficulty, or null when it was stored without one. Throws IllegalStateException when the
+     * record's difficulty byte is not one this version writes.
+     */
+    public Difficulty load(final long index, final byte[] givens, final byte[] solution) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle %s of %s".formatted(index, count));
+        }
+        var segment = segments[(int) (index / recordsPerSegment)];
+        var offset = (int) (index % recordsPerSegment) * format.recordSize;
+        var difficulty = format.decode(segment, offset, givens, solution);
+        if (difficulty < 0 || difficulty > DIFFICULTIES.length) {
+            throw new IllegalStateException("Puzzle %s of %s has unknown difficulty %s".formatted(index, path, difficulty));
+        }
+        return difficulty == 0 ? null : DIFFICULTIES[difficulty - 1];
+    }
+
+    /**
+     * Loads puzzle {@code index} into new arrays; {@link #load(long, byte[], byte[])} is the way
+     * to read without allocating.
+     */
+    public Puzzle get(final long index) {
+        var givens = new byte[format.cellCount];
+        var solution = new byte[format.cellCount];
+        load(index, givens, solution);
+        return new Puzzle(format.boxSize, givens, solution);
+    }
+
+    /**
+     * A new board of puzzle {@code index}, built from {@link #get(long)}.
+     */
+    public Board board(final long index) {
+        return get(index).toBoard();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
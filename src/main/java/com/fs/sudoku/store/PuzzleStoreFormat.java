@@ -0,0 +1,130 @@
+package com.fs.sudoku.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout shared by {@link PuzzleStore} and {@link PuzzleStoreWriter}.
+ * <p>
+ * A 32-byte header (magic, version, box size, record size, record count) is followed by
+ * fixed-width records, so the offset of record {@code n} is {@code HEADER_SIZE + n * recordSize}.
+ * Each record holds a difficulty byte (0 when unknown, ordinal + 1 otherwise), one bit per cell
+ * marking the givens and the solution packed as {@code digit - 1}, a nibble per cell for box
+ * sizes up to 4 and a byte per cell above that. A 9x9 record takes 53 bytes.
+ */
+final class PuzzleStoreFormat {
+    static final int MAGIC = 0x53444B50;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int COUNT_OFFSET = 16;
+
+    final int boxSize;
+    final int cellCount;
+    final int givensBytes;
+    final int solutionBytes;
+    final int recordSize;
+    private final boolean nibbles;
+
+    PuzzleStoreFormat(final int boxSize) {
+        if (boxSize < 2 || boxSize > 5) {
+            throw new IllegalArgumentException("Box size must be between 2 and 5");
+        }
+        this.boxSize = boxSize;
+        this.cellCount = boxSize * boxSize * boxSize * boxSize;
+        this.nibbles = boxSize <= 4;
+        this.givensBytes = (cellCount + 7) / 8;
+        this.solutionBytes = nibbles ? (cellCount + 1) / 2 : cellCount;
+        this.recordSize = 1 + givensBytes + solutionBytes;
+    }
+
+    void writeHeader(final ByteBuffer header, final long count) {
+        header.putInt(MAGIC)
+                .putShort(VERSION)
+                .put((byte) boxSize)
+                .put((byte) 0)
+                .putInt(recordSize)
+                .putInt(0)
+                .putLong(count)
+                .putLong(0);
+    }
+
+    static PuzzleStoreFormat readHeader(final ByteBuffer header) throws IOException {
+        if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a puzzle store");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported puzzle store version " + header.getShort(4));
+        }
+        var format = new PuzzleStoreFormat(header.get(6));
+        if (header.getInt(8) != format.recordSize) {
+            throw new IOException("Corrupt puzzle store header");
+        }
+        return format;
+    }
+
+    /**
+     * Rejects digits the record cannot hold before writing anything: a solution digit outside
+     * 1..size would spill into the next cell's nibble, and a given other than its solution digit
+     * would be lost.
+     */
+    void encode(final ByteBuffer out, final byte[] givens, final byte[] solution, final int difficulty) {
+        var size = boxSize * boxSize;
+        for (int i = 0; i < cellCount; i++) {
+            if (solution[i] < 1 || solution[i] > size) {
+                throw new IllegalArgumentException("Invalid solution digit %s at cell %s".formatted(solution[i], i));
+            }
+            if (givens[i] != 0 && givens[i] != solution[i]) {
+                throw new IllegalArgumentException("Given %s at cell %s differs from the solution".formatted(givens[i], i));
+            }
+        }
+        out.put((byte) difficulty);
+        for (int base = 0; base < cellCount; base += 8) {
+            var bits = 0;
+            for (int i = 0; i < 8 && base + i < cellCount; i++) {
+                if (givens[base + i] != 0) {
+                    bits |= 1 << i;
+                }
+            }
+            out.put((byte) bits);
+        }
+        if (nibbles) {
+            for (int i = 0; i < cellCount; i += 2) {
+                var high = solution[i] - 1;
+                var low = i + 1 < cellCount ? solution[i + 1] - 1 : 0;
+                out.put((byte) (high << 4 | low));
+            }
+        } else {
+            for (int i = 0; i < cellCount; i++) {
+                out.put((byte) (solution[i] - 1));
+            }
+        }
+    }
+
+    /**
+     * Decodes the record at {@code offset} of {@code in} using absolute reads only, so a shared
+     * mapped buffer can be read from several threads. Returns the difficulty byte.
+     */
+    int decode(final ByteBuffer in, final int offset, final byte[] givens, final byte[] solution) {
+        var solutionStart = offset + 1 + givensBytes;
+        if (nibbles) {
+            for (int i = 0; i < cellCount; i += 2) {
+                var packed = in.get(solutionStart + i / 2);
+                solution[i] = (byte) (((packed >> 4) & 0xF) + 1);
+                if (i + 1 < cellCount) {
+                    solution[i + 1] = (byte) ((packed & 0xF) + 1);
+                }
+            }
+        } else {
+            for (int i = 0; i < cellCount; i++) {
+                solution[i] = (byte) (in.get(solutionStart + i) + 1);
+            }
+        }
+        for (int base = 0; base < cellCount; base += 8) {
+            var bits = in.get(offset + 1 + base / 8);
+            for (int i = 0; i < 8 && base + i < cellCount; i++) {
+                givens[base + i] = (bits & (1 << i)) != 0 ? solution[base + i] : 0;
+            }
+        }
+        return in.get(offset);
+    }
+}
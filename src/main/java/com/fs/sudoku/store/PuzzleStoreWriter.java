@@ -0,0 +1,66 @@
+package com.fs.sudoku.store;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+public final class PuzzleStoreWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final PuzzleStoreFormat format;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long count;
+
+    public PuzzleStoreWriter(final Path path, final int boxSize) throws IOException {
+        this.format = new PuzzleStoreFormat(boxSize);
+        this.channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, format.recordSize));
+        format.writeHeader(buffer, 0);
+    }
+
+    public void write(final Puzzle puzzle) throws IOException {
+        write(puzzle, null);
+    }
+
+    public void write(final Puzzle puzzle, final Difficulty difficulty) throws IOException {
+        if (puzzle.boxSize() != format.boxSize) {
+            throw new IllegalArgumentException("This store holds puzzles of box size " + format.boxSize);
+        }
+        if (buffer.remaining() < format.recordSize) {
+            flush();
+        }
+        format.encode(buffer, puzzle.givens(), puzzle.solution(), difficulty == null ? 0 : difficulty.ordinal() + 1);
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+            var header = ByteBuffer.allocate(PuzzleStoreFormat.HEADER_SIZE);
+            format.writeHeader(header, count);
+            channel.write(header.flip(), 0);
+            channel.force(true);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
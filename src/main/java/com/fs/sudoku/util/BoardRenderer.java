@@ -0,0 +1,100 @@
+package com.fs.sudoku.util;
+
+import com.fs.sudoku.domain.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Renders {@link BoardTemplate#of(int)} without formatting: the template is compiled once
+ * into a byte buffer with the offset of every cell, each render patches only the cells that
+ * changed since the previous one and the whole frame goes out in a single channel write.
+ */
+public final class BoardRenderer {
+    private static final String PLACEHOLDER = "%s";
+
+    private final WritableByteChannel out;
+    private final int size;
+    private final byte[] frame;
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final byte[] shown;
+
+    public BoardRenderer(final WritableByteChannel out) {
+        this(out, 3);
+    }
+
+    public BoardRenderer(final WritableByteChannel out, final int boxSize) {
+        this.out = out;
+        this.size = boxSize * boxSize;
+        this.offsets = new int[size * size];
+        this.shown = new byte[size * size];
+        var template = BoardTemplate.of(boxSize) + "\n";
+        this.frame = new byte[template.length()];
+        var cell = 0;
+        for (int i = 0; i < template.length(); i++) {
+            if (template.startsWith(PLACEHOLDER, i)) {
+                offsets[cell++] = i;
+            }
+            frame[i] = (byte) template.charAt(i);
+        }
+        if (cell != offsets.length) {
+            throw new IllegalStateException("The board template must have %s cells".formatted(offsets.length));
+        }
+        for (var offset : offsets) {
+            frame[offset] = ' ';
+            frame[offset + 1] = ' ';
+        }
+        this.buffer = ByteBuffer.wrap(frame);
+    }
+
+    public void render(final Board board) throws IOException {
+        for (int cell = 0; cell < offsets.length; cell++) {
+            // Template cells go row by row, the board is stored column by column.
+            patch(cell, (byte) board.getValue(cell % size, cell / size));
+        }
+        write();
+    }
+
+    /**
+     * Renders a copy of the values of a board, as from {@link Board#getValues()}.
+     */
+    public void render(final byte[] values) throws IOException {
+        if (values.length != offsets.length) {
+            throw new IllegalArgumentException("A board of this size has %s cells".formatted(offsets.length));
+        }
+        for (int cell = 0; cell < offsets.length; cell++) {
+            patch(cell, values[(cell % size) * size + cell / size]);
+        }
+        write();
+    }
+
+    private void patch(final int cell, final byte value) {
+        if (value != shown[cell]) {
+            shown[cell] = value;
+            var offset = offsets[cell];
+            if (value >= 10 && value <= size) {
+                frame[offset] = (byte) ('0' + value / 10);
+                frame[offset + 1] = (byte) ('0' + value % 10);
+            } else {
+                frame[offset] = ' ';
+                frame[offset + 1] = symbol(value);
+            }
+        }
+    }
+
+    private void write() throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private byte symbol(final byte value) {
+        if (value == 0) {
+            return ' ';
+        }
+        return value > 0 && value <= size ? (byte) ('0' + value) : (byte) '?';
+    }
+}
@@ -1,5 +1,7 @@
 package com.fs.sudoku.util;
 
+import java.util.function.IntFunction;
+
 public final class BoardTemplate {
     private BoardTemplate() {}
 
@@ -55,4 +57,49 @@ public final class BoardTemplate {
             *|---0---||---1---||---2---|*|---3---||---4---||---5---|*|---6---||---7---||---8---|*
             *************************************************************************************
             """;
+
+    /**
+     * The same layout as {@link #BOARD_TEMPLATE} for a square board of the given box size, with
+     * one two-character {@code %s} per cell, row by row. Box size 3 gives {@link #BOARD_TEMPLATE}.
+     */
+    public static String of(final int boxSize) {
+        if (boxSize == 3) {
+            return BOARD_TEMPLATE;
+        }
+        var size = boxSize * boxSize;
+        var margin = String.valueOf(size - 1).length();
+        var stars = "*".repeat(2 * margin + 9 * size + boxSize - 1) + "\n";
+        var edge = "*".repeat(margin);
+        var header = line(boxSize, edge, edge, col -> "|" + "-".repeat(4 - String.valueOf(col).length()) + col + "---|");
+        var blank = line(boxSize, edge, edge, col -> "|       |");
+        var dashes = line(boxSize, edge, edge, col -> "|-------|");
+        var template = new StringBuilder(stars).append(header);
+        for (int row = 0; row < size; row++) {
+            if (row > 0) {
+                if (row % boxSize == 0) {
+                    template.append(stars);
+                }
+                template.append(dashes);
+            }
+            var label = String.valueOf(row);
+            var fill = "*".repeat(margin - label.length());
+            template.append(blank)
+                    .append(line(boxSize, fill + label, label + fill, col -> "|  %s   |"))
+                    .append(blank)
+                    .append(row == size - 1 ? header : dashes);
+        }
+        return template.append(stars).toString();
+    }
+
+    private static String line(final int boxSize, final String left, final String right, final IntFunction<String> cell) {
+        var size = boxSize * boxSize;
+        var line = new StringBuilder(left);
+        for (int col = 0; col < size; col++) {
+            if (col > 0 && col % boxSize == 0) {
+                line.append('*');
+            }
+            line.append(cell.apply(col));
+        }
+        return line.append(right).append('\n').toString();
+    }
 }
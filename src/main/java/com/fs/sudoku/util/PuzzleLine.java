@@ -0,0 +1,56 @@
+package com.fs.sudoku.util;
+
+/**
+ * The common one-line puzzle format: 81 characters read row by row, digits for filled cells and
+ * {@code 0} or {@code .} for empty ones. Grids use the board layout, {@code index = col * 9 + row}.
+ */
+public final class PuzzleLine {
+    public static final int SIZE = 9;
+    public static final int LENGTH = SIZE * SIZE;
+
+    private PuzzleLine() {}
+
+    /**
+     * Fills {@code grid} from the line and returns false, leaving the grid partially written, when
+     * the line is not a valid puzzle line.
+     */
+    public static boolean parse(final CharSequence line, final byte[] grid) {
+        if (line.length() != LENGTH || grid.length != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            var c = line.charAt(i);
+            byte digit;
+            if (c >= '1' && c <= '9') {
+                digit = (byte) (c - '0');
+            } else if (c == '0' || c == '.') {
+                digit = 0;
+            } else {
+                return false;
+            }
+            grid[(i % SIZE) * SIZE + i / SIZE] = digit;
+        }
+        return true;
+    }
+
+    public static byte[] parse(final CharSequence line) {
+        var grid = new byte[LENGTH];
+        if (!parse(line, grid)) {
+            throw new IllegalArgumentException("Not a puzzle line: " + line);
+        }
+        return grid;
+    }
+
+    public static void format(final byte[] grid, final StringBuilder out) {
+        for (int i = 0; i < LENGTH; i++) {
+            var digit = grid[(i % SIZE) * SIZE + i / SIZE];
+            out.append(digit == 0 ? '.' : (char) ('0' + digit));
+        }
+    }
+
+    public static String format(final byte[] grid) {
+        var out = new StringBuilder(LENGTH);
+        format(grid, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.fs.sudoku.batch;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.util.PuzzleLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSolverTest {
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+    private static final String HARD_SOLUTION =
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+    @Test
+    void testSolvesLinesInInputOrder() throws IOException {
+        var generator = new PuzzleGenerator(new SplittableRandom(11));
+        List<String> solutions = new ArrayList<>();
+        var input = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            var puzzle = generator.generate();
+            input.append(PuzzleLine.format(puzzle.givens())).append('\n');
+            solutions.add(PuzzleLine.format(puzzle.solution()));
+        }
+        var output = new StringWriter();
+        try (var solver = new BatchSolver(3)) {
+            assertEquals(2000, solver.solve(new BufferedReader(new StringReader(input.toString())), output));
+        }
+        var lines = output.toString().split("\n");
+        assertEquals(2000, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            var parts = lines[i].split(",");
+            assertEquals(solutions.get(i), parts[0]);
+            assertTrue(Long.parseLong(parts[1]) >= 0);
+        }
+    }
+
+    @Test
+    void testReportsInvalidAndUnsolvableLines() throws IOException {
+        var conflicting = "88" + HARD.substring(2);
+        var input = String.join("\n", HARD, "not a puzzle", conflicting) + "\n";
+        var output = new StringWriter();
+        try (var solver = new BatchSolver(2)) {
+            solver.solve(new BufferedReader(new StringReader(input)), output);
+        }
+        var lines = output.toString().split("\n");
+        assertTrue(lines[0].startsWith(HARD_SOLUTION + ","));
+        assertEquals(BatchSolver.INVALID, lines[1]);
+        assertEquals(BatchSolver.NO_SOLUTION, lines[2]);
+    }
+
+    @Test
+    void testPuzzleLineRoundTrip() {
+        assertEquals(HARD.replace('0', '.'), PuzzleLine.format(PuzzleLine.parse(HARD)));
+        assertEquals(8, PuzzleLine.parse(HARD)[0]);
+        assertEquals(3, PuzzleLine.parse(HARD)[2 * 9 + 1]);
+    }
+
+    @Test
+    void testVerifiesSolvedLines() throws IOException {
+        var generator = new PuzzleGenerator(new SplittableRandom(13));
+        var input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(PuzzleLine.format(generator.generate().givens())).append('\n');
+        }
+        input.append("not a puzzle\n");
+        var output = new StringWriter();
+        try (var solver = new BatchSolver(2)) {
+            solver.solve(new BufferedReader(new StringReader(input.toString())), output);
+        }
+        var verifier = new BatchVerifier();
+        verifier.verify(new BufferedReader(new StringReader(input.toString())),
+                new BufferedReader(new StringReader(output.toString())));
+        assertEquals(200, verifier.getVerified());
+        assertEquals(0, verifier.getFailed());
+        assertEquals(1, verifier.getUnsolved());
+
+        // A solution of another puzzle is a valid grid that drops the givens; swapping two cells breaks the rules.
+        var lines = output.toString().split("\n");
+        var swapped = lines[7].charAt(1) + "" + lines[7].charAt(0) + lines[7].substring(2);
+        var tampered = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            tampered.append(i == 3 ? lines[4] : i == 7 ? swapped : lines[i]).append('\n');
+        }
+        verifier = new BatchVerifier();
+        verifier.verify(new BufferedReader(new StringReader(input.toString())),
+                new BufferedReader(new StringReader(tampered.toString())));
+        assertEquals(198, verifier.getVerified());
+        assertEquals(2, verifier.getFailed());
+        assertEquals(4, verifier.getFirstFailure());
+    }
+
+    @Test
+    void testRejectsTruncatedResults() throws IOException {
+        var generator = new PuzzleGenerator(new SplittableRandom(17));
+        var input = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            input.append(PuzzleLine.format(generator.generate().givens())).append('\n');
+        }
+        var output = new StringWriter();
+        try (var solver = new BatchSolver(1)) {
+            solver.solve(new BufferedReader(new StringReader(input.toString())), output);
+        }
+        var truncated = output.toString().substring(0, output.toString().indexOf('\n', 1) + 1);
+        var verifier = new BatchVerifier();
+        var e = assertThrows(IOException.class, () -> verifier.verify(new BufferedReader(new StringReader(input.toString())),
+                new BufferedReader(new StringReader(truncated))));
+        assertEquals("Fewer results than puzzles at line 2", e.getMessage());
+        assertThrows(IOException.class, () -> new BatchVerifier().verify(
+                new BufferedReader(new StringReader(input.toString())), new BufferedReader(new StringReader(""))));
+    }
+}
@@ -0,0 +1,60 @@
+package com.fs.sudoku.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandReaderTest {
+
+    private static List<GameCommand> readAll(final String input, final List<String> prompts) throws IOException {
+        var reader = new CommandReader(new StringReader(input), 3, prompts::add);
+        var commands = new ArrayList<GameCommand>();
+        for (var command = reader.next(); command != null; command = reader.next()) {
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    @Test
+    void testParsesMenuKeystrokes() throws IOException {
+        var prompts = new ArrayList<String>();
+        var commands = readAll("1\n2 0 1 5\n3 4 4\n4 5\n6 maybe YES 6 no 7 9 x 8", prompts);
+        assertEquals(List.of(GameCommand.START, new GameCommand.Insert(0, 1, 5), new GameCommand.Remove(4, 4),
+                GameCommand.SHOW, GameCommand.STATUS, new GameCommand.Clear(true), new GameCommand.Clear(false),
+                GameCommand.FINISH, new GameCommand.Invalid("9"), new GameCommand.Invalid("x"), GameCommand.EXIT), commands);
+        assertEquals("Enter the number to insert at position [0,1]", prompts.get(2));
+        assertTrue(prompts.contains("Please enter 'yes' or 'no'"));
+    }
+
+    @Test
+    void testAsksAgainForNumbersOutOfRange() throws IOException {
+        var prompts = new ArrayList<String>();
+        var commands = readAll("2 9 x 3 4 0 7", prompts);
+        assertEquals(List.of(new GameCommand.Insert(3, 4, 7)), commands);
+        assertEquals(3, prompts.stream().filter(prompt -> prompt.startsWith("Please enter a number")).count());
+        assertTrue(prompts.contains("Please enter a number between 1 and 9"));
+    }
+
+    @Test
+    void testScriptsParseBack() throws IOException {
+        var commands = List.of(GameCommand.START, new GameCommand.Insert(8, 0, 9), new GameCommand.Remove(2, 7),
+                GameCommand.SHOW, GameCommand.STATUS, new GameCommand.Clear(false), GameCommand.FINISH,
+                new GameCommand.Invalid("0"), GameCommand.EXIT);
+        var script = new StringBuilder();
+        for (var command : commands) {
+            script.append(command.toScript()).append('\n');
+        }
+        assertEquals(commands, readAll(script.toString(), new ArrayList<>()));
+    }
+
+    @Test
+    void testEndsInTheMiddleOfACommand() throws IOException {
+        assertEquals(List.of(GameCommand.SHOW), readAll("4 2 1", new ArrayList<>()));
+        assertEquals(List.of(), readAll(" \n\t", new ArrayList<>()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.fs.sudoku.command;
+
+import com.fs.sudoku.PlayGame;
+import com.fs.sudoku.domain.GameStatusEnum;
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLoopTest {
+
+    private static String play(final Puzzle puzzle, final long seed, final String script) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var game = new PlayGame(puzzle, 3, null, new SplittableRandom(seed));
+        game.run(new StringReader(script), new PrintStream(out, true), false);
+        return out.toString();
+    }
+
+    private static int firstGiven(final Puzzle puzzle) {
+        var index = 0;
+        while (puzzle.givens()[index] == 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private static GameOutput recorder(final List<String> lines, final List<GameStatusEnum> statuses) {
+        return new GameOutput() {
+            public void print(final String line) {
+                lines.add(line);
+            }
+
+            public void show(final byte[] values) {
+                lines.add("board");
+            }
+
+            public void status(final GameStatusEnum status, final boolean hasErrors) {
+                statuses.add(status);
+            }
+        };
+    }
+
+    @Test
+    void testAppliesCommandsInOrder() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(2)).generate();
+        var lines = new ArrayList<String>();
+        var statuses = new ArrayList<GameStatusEnum>();
+        var loop = new GameLoop(puzzle, () -> fail("No new puzzles with a given one"), null, recorder(lines, statuses), false);
+        loop.begin();
+        assertTrue(loop.apply(new GameCommand.Insert(0, 0, 1)));
+        assertTrue(loop.apply(GameCommand.START));
+        var given = firstGiven(puzzle);
+        assertTrue(loop.apply(new GameCommand.Remove(given / 9, given % 9)));
+        assertTrue(loop.apply(GameCommand.STATUS));
+        assertTrue(loop.apply(GameCommand.SHOW));
+        assertFalse(loop.apply(GameCommand.EXIT));
+        assertEquals(List.of("The game has not started yet", "The game is ready to start",
+                "The position [%s,%s] has a fixed value".formatted(given / 9, given % 9), "Your current game board:",
+                "board"), lines);
+        assertEquals(List.of(GameStatusEnum.NON_STARTED), statuses);
+    }
+
+    @Test
+    void testReplaysScriptsExactly() throws IOException {
+        var script = "1 4 5 2 0 0 1 2 8 8 9 3 0 0 4 6 yes 5 7 9 1";
+        var first = play(null, 11, script);
+        assertTrue(first.startsWith("A new medium puzzle is ready to start\n"), first);
+        assertTrue(first.contains("The game is currently in status: not started"), first);
+        assertEquals(first, play(null, 11, script));
+        assertNotEquals(first, play(null, 12, script));
+    }
+
+    @Test
+    void testPlaysThousandsOfMovesFromAScript() throws IOException {
+        var random = new SplittableRandom(5);
+        var puzzle = new PuzzleGenerator(random).generate();
+        var script = new StringBuilder(GameCommand.START.toScript()).append('\n');
+        var fixed = 0;
+        for (int i = 0; i < 20_000; i++) {
+            var index = random.nextInt(81);
+            var command = random.nextBoolean()
+                    ? new GameCommand.Insert(index / 9, index % 9, random.nextInt(1, 10))
+                    : new GameCommand.Remove(index / 9, index % 9);
+            fixed += puzzle.givens()[index] != 0 ? 1 : 0;
+            script.append(command.toScript()).append('\n');
+        }
+        for (int index = 0; index < 81; index++) {
+            if (puzzle.givens()[index] == 0) {
+                script.append(new GameCommand.Insert(index / 9, index % 9, puzzle.solution()[index]).toScript()).append('\n');
+            }
+        }
+        script.append("5\n7\n8\n");
+
+        var output = play(puzzle, 0, script.toString());
+        assertEquals(fixed, output.lines().filter(line -> line.endsWith("has a fixed value")).count());
+        assertTrue(output.contains("The game is currently in status: completed\nThe game does not contain errors\n"));
+        assertTrue(output.contains("Congratulations, you completed the game!"));
+    }
+
+    @Test
+    void testNewGameReplacesTheOneInProgress() {
+        var generator = new PuzzleGenerator(new SplittableRandom(3));
+        var puzzles = List.of(generator.generate(), generator.generate()).iterator();
+        var lines = new ArrayList<String>();
+        var loop = new GameLoop(null, puzzles::next, null, recorder(lines, new ArrayList<>()), false);
+        loop.begin();
+        loop.apply(GameCommand.START);
+        var first = loop.getBoard();
+        loop.apply(GameCommand.START);
+        assertNotSame(first, loop.getBoard());
+        assertEquals(List.of("A new medium puzzle is ready to start", "The previous game was abandoned",
+                "A new medium puzzle is ready to start"), lines);
+    }
+
+    @Test
+    void testUnseededGamesComeFromThePool() throws IOException {
+        var out = new ByteArrayOutputStream();
+        new PlayGame(null, 3, null).run(new StringReader("1 4 1 4"), new PrintStream(out, true), false);
+        var output = out.toString();
+        assertTrue(output.startsWith("A new medium puzzle is ready to start\n"), output);
+        assertTrue(output.contains("The previous game was abandoned\n"), output);
+    }
+}
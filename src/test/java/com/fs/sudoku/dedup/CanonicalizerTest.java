@@ -0,0 +1,173 @@
+package com.fs.sudoku.dedup;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.io.TextPuzzleReader;
+import com.fs.sudoku.util.PuzzleLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalizerTest {
+
+    @Test
+    void testEquivalentPuzzlesShareKey() {
+        var random = new SplittableRandom(17);
+        for (int boxSize = 2; boxSize <= 4; boxSize++) {
+            var generator = new PuzzleGenerator(boxSize, random);
+            var canonicalizer = new Canonicalizer(boxSize);
+            for (int i = 0; i < 20; i++) {
+                var givens = generator.generate().givens();
+                var key = canonicalizer.key(givens);
+                for (int j = 0; j < 10; j++) {
+                    assertEquals(key, canonicalizer.key(transform(givens, boxSize, random)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCanonicalFormIsStable() {
+        var generator = new PuzzleGenerator(new SplittableRandom(3));
+        var canonicalizer = new Canonicalizer(3);
+        var canonical = new byte[81];
+        var again = new byte[81];
+        for (int i = 0; i < 50; i++) {
+            var givens = generator.generate().givens();
+            canonicalizer.canonicalize(givens, canonical);
+            canonicalizer.canonicalize(canonical, again);
+            assertArrayEquals(canonical, again);
+            var count = 0;
+            for (int index = 0; index < 81; index++) {
+                count += givens[index] != 0 ? 1 : 0;
+                count -= canonical[index] != 0 ? 1 : 0;
+            }
+            assertEquals(0, count);
+            // Givens come first and are labeled in order of appearance.
+            assertEquals(1, canonical[0]);
+        }
+    }
+
+    @Test
+    void testDifferentPuzzlesGetDifferentKeys() {
+        var generator = new PuzzleGenerator(new SplittableRandom(8));
+        var canonicalizer = new Canonicalizer(3);
+        var keys = new HashSet<PuzzleKey>();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(keys.add(canonicalizer.key(generator.generate().givens())));
+        }
+    }
+
+    @Test
+    void testDeduplicatorDropsEquivalentPuzzles() {
+        var random = new SplittableRandom(29);
+        var generator = new PuzzleGenerator(random);
+        try (var deduplicator = new Deduplicator(3, 0, 1)) {
+            for (int i = 0; i < 30; i++) {
+                var givens = generator.generate().givens();
+                assertTrue(deduplicator.isNew(givens));
+                assertFalse(deduplicator.isNew(transform(givens, 3, random)));
+            }
+            assertEquals(30, deduplicator.getUniqueCount());
+        }
+    }
+
+    @Test
+    void testCopiesFirstPuzzleOfEachClassInOrder() throws IOException {
+        var random = new SplittableRandom(31);
+        var generator = new PuzzleGenerator(random);
+        var originals = new ArrayList<byte[]>();
+        var input = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            originals.add(generator.generate().givens());
+        }
+        for (int i = 0; i < 1200; i++) {
+            var original = originals.get(i % originals.size());
+            input.append(PuzzleLine.format(i < originals.size() ? original : transform(original, 3, random))).append('\n');
+        }
+        var out = new StringWriter();
+        try (var deduplicator = new Deduplicator(3, 0, 4);
+             var reader = new TextPuzzleReader(new StringReader(input.toString()), false)) {
+            assertEquals(1200, deduplicator.copyUnique(reader, out));
+        }
+        var lines = out.toString().split("\n");
+        assertEquals(originals.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(PuzzleLine.format(originals.get(i)), lines[i]);
+        }
+    }
+
+    @Test
+    void testIndexGrowsAndKeepsKeys() {
+        var index = new PuzzleKeyIndex();
+        var random = new SplittableRandom(1);
+        var seed = random.nextLong();
+        for (long i = 0; i < 100_000; i++) {
+            assertTrue(index.add(new PuzzleKey(PuzzleKey.mix(seed + i), i)));
+        }
+        assertEquals(100_000, index.size());
+        assertTrue(index.capacity() > 100_000);
+        for (long i = 0; i < 100_000; i++) {
+            assertFalse(index.add(new PuzzleKey(PuzzleKey.mix(seed + i), i)));
+        }
+        assertFalse(index.contains(new PuzzleKey(PuzzleKey.mix(seed), 1)));
+        assertThrows(IllegalArgumentException.class, () -> index.add(0, 0));
+    }
+
+    /**
+     * Applies a random symmetry: relabeling, transposition, band and stack swaps, and row and
+     * column swaps within them.
+     */
+    static byte[] transform(final byte[] givens, final int boxSize, final SplittableRandom random) {
+        var size = boxSize * boxSize;
+        var rows = lines(boxSize, random);
+        var cols = lines(boxSize, random);
+        var labels = new byte[size + 1];
+        var digits = shuffle(size, random);
+        for (int d = 1; d <= size; d++) {
+            labels[d] = (byte) (digits[d - 1] + 1);
+        }
+        var transpose = random.nextBoolean();
+        var result = new byte[size * size];
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                var value = givens[cols[col] * size + rows[row]];
+                var index = transpose ? row * size + col : col * size + row;
+                result[index] = labels[value];
+            }
+        }
+        return result;
+    }
+
+    private static int[] lines(final int boxSize, final SplittableRandom random) {
+        var bands = shuffle(boxSize, random);
+        var lines = new int[boxSize * boxSize];
+        for (int band = 0; band < boxSize; band++) {
+            var within = shuffle(boxSize, random);
+            for (int i = 0; i < boxSize; i++) {
+                lines[band * boxSize + i] = bands[band] * boxSize + within[i];
+            }
+        }
+        return lines;
+    }
+
+    private static int[] shuffle(final int n, final SplittableRandom random) {
+        var values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
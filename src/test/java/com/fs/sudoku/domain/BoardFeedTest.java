@@ -0,0 +1,113 @@
+package com.fs.sudoku.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.fs.sudoku.domain.BoardFeed.Overflow.BLOCK;
+import static com.fs.sudoku.domain.BoardFeed.Overflow.RESYNC;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardFeedTest {
+
+    private static Board board() {
+        var solution = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            solution[i] = (byte) (i % 4 + 1);
+        }
+        return new Board(2, new byte[16], solution);
+    }
+
+    private static final class Recorder implements BoardFeed.Subscriber {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void valueChanged(final int index, final int previous, final int current) {
+            events.add(index + ":" + previous + ">" + current);
+        }
+
+        @Override
+        public void statusChanged(final GameStatusEnum previous, final GameStatusEnum current) {
+            events.add(previous + ">" + current);
+        }
+
+        @Override
+        public void errorsChanged(final boolean errors) {
+            events.add("errors " + errors);
+        }
+
+        @Override
+        public void resetStarted() {
+            events.add("reset");
+        }
+
+        @Override
+        public void resetFinished() {
+            events.add("reset done");
+        }
+
+        @Override
+        public void resync() {
+            events.add("resync");
+        }
+    }
+
+    @Test
+    void testDeliversEventsInOrder() {
+        var board = board();
+        var feed = new BoardFeed(board, 10, BLOCK);
+        assertEquals(16, feed.getCapacity());
+        var recorder = new Recorder();
+        assertEquals(0, feed.drain(recorder));
+        board.changeValue(0, 0, 2);
+        board.changeValue(0, 0, 1);
+        board.reset();
+        assertEquals(9, feed.drain(recorder));
+        assertEquals(List.of("0:0>2", "NON_STARTED>INCOMPLETED", "errors true", "0:2>1", "errors false",
+                "reset", "0:1>0", "INCOMPLETED>NON_STARTED", "reset done"), recorder.events);
+    }
+
+    @Test
+    void testResyncsAfterOverflow() {
+        var board = board();
+        var feed = new BoardFeed(board, 4, RESYNC);
+        var recorder = new Recorder();
+        for (int row = 0; row < 4; row++) {
+            board.changeValue(0, row, row + 1);
+        }
+        assertEquals(1, feed.drain(recorder));
+        assertEquals(List.of("resync"), recorder.events);
+        board.clearValue(0, 3);
+        assertEquals(1, feed.drain(recorder));
+        assertEquals(List.of("resync", "3:4>0"), recorder.events);
+    }
+
+    @Test
+    void testBlocksUntilTheReaderCatchesUp() throws Exception {
+        var board = board();
+        var feed = new BoardFeed(board, 2, BLOCK);
+        var writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                board.changeValue(1, 1, i % 4 + 1);
+            }
+        });
+        var recorder = new Recorder();
+        while (writer.isAlive()) {
+            feed.drain(recorder, 10, TimeUnit.MILLISECONDS);
+        }
+        writer.join();
+        feed.drain(recorder);
+        var cells = recorder.events.stream().filter(event -> event.startsWith("5:")).toList();
+        assertEquals(1_000, cells.size());
+        assertEquals("5:0>1", cells.get(0));
+        assertEquals("5:3>4", cells.get(999));
+        assertFalse(recorder.events.contains("resync"));
+
+        feed.close();
+        board.clearValue(1, 1);
+        board.changeValue(1, 1, 2);
+        assertEquals(0, feed.drain(recorder));
+    }
+}
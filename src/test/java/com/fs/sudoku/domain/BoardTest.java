@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -168,4 +169,186 @@ class BoardTest {
         spaces.get(0).get(0).setActual(null);
         assertFalse(board.gameIsFinished());
     }
+
+    @Test
+    void testStatusFollowsIncrementalChanges() {
+        board.changeValue(0, 0, 1);
+        board.changeValue(0, 0, 2);
+        assertTrue(board.hasErrors());
+        board.changeValue(0, 0, 1);
+        assertFalse(board.hasErrors());
+        board.clearValue(0, 0);
+        assertEquals(NON_STARTED, board.getStatus());
+        assertFalse(board.hasErrors());
+    }
+
+    @Test
+    void testCandidatesOnSquareBoard() {
+        List<List<Space>> grid = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<Space> col = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                col.add(new Space(1, false));
+            }
+            grid.add(col);
+        }
+        Board b = new Board(grid);
+        assertEquals(2, b.getBoxSize());
+        assertEquals(0b11110, b.getCandidates(3, 3));
+        b.changeValue(0, 0, 1);
+        b.changeValue(3, 1, 2);
+        b.changeValue(0, 3, 3);
+        assertEquals(0b10000, b.getCandidates(0, 1));
+        b.clearValue(0, 0);
+        assertEquals(0b10010, b.getCandidates(0, 1));
+    }
+
+    @Test
+    void testCandidatesUnavailableOnIrregularBoard() {
+        assertEquals(0, board.getBoxSize());
+        assertEquals(0, board.getCandidates(0, 0));
+    }
+
+    private static Board compactBoard() {
+        // 4x4: column 0 holds 1,2,3,4 with 1 given; every other column is empty with solution 1
+        var givens = new byte[16];
+        var solution = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            solution[i] = (byte) (i < 4 ? i + 1 : 1);
+        }
+        givens[0] = 1;
+        return new Board(2, givens, solution);
+    }
+
+    @Test
+    void testCompactBoardTracksStatusAndErrors() {
+        Board b = compactBoard();
+        assertTrue(b.isCompact());
+        assertEquals(NON_STARTED, b.getStatus());
+        assertEquals(1, b.getValue(0, 0));
+        assertFalse(b.changeValue(0, 0, 2));
+        assertTrue(b.changeValue(0, 1, 3));
+        assertEquals(INCOMPLETED, b.getStatus());
+        assertTrue(b.hasErrors());
+        b.changeValue(0, 1, 2);
+        assertFalse(b.hasErrors());
+        assertTrue(b.clearValue(0, 1));
+        assertEquals(NON_STARTED, b.getStatus());
+    }
+
+    @Test
+    void testCompactBoardRejectsGivensThatDisagreeWithSolution() {
+        var solution = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            solution[i] = (byte) (i % 4 + 1);
+        }
+        var givens = new byte[16];
+        givens[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> new Board(2, givens, solution));
+        givens[0] = 5;
+        assertThrows(IllegalArgumentException.class, () -> new Board(2, givens, solution));
+        givens[0] = -1;
+        assertThrows(IllegalArgumentException.class, () -> new Board(2, givens, solution));
+        givens[0] = 1;
+        solution[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> new Board(2, givens, solution));
+        solution[0] = 1;
+        assertEquals(1, new Board(2, givens, solution).getValue(0, 0));
+    }
+
+    @Test
+    void testCompactBoardSpacesAreViews() {
+        Board b = compactBoard();
+        var space = b.getSpaces().get(0).get(2);
+        assertNull(space.getActual());
+        assertEquals(3, space.getExpected());
+        assertTrue(b.getSpaces().get(0).get(0).isFixed());
+        space.setActual(3);
+        assertEquals(3, b.getValue(0, 2));
+        b.reset();
+        assertNull(space.getActual());
+        assertEquals(1, b.getValue(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> space.setActual(5));
+    }
+
+    @Test
+    void testCompactBoardGivensAndSolution() {
+        Board b = compactBoard();
+        var givens = b.getGivens();
+        assertEquals(1, givens[0]);
+        assertEquals(0, givens[1]);
+        b.changeValue(1, 0, 2);
+        assertTrue(b.hasErrors());
+        var solution = new byte[16];
+        Arrays.fill(solution, (byte) 2);
+        b.setSolution(solution);
+        assertFalse(b.hasErrors());
+        assertEquals(2, b.getSpaces().get(0).get(3).getExpected());
+        assertEquals(1, b.getSpaces().get(0).get(0).getExpected());
+    }
+
+    @Test
+    void testConflictsFollowRulesWithoutSolution() {
+        Board b = compactBoard();
+        b.changeValue(0, 1, 1);
+        assertTrue(b.hasConflicts());
+        assertTrue(b.hasConflict(0, 0));
+        assertTrue(b.hasConflict(0, 1));
+        assertEquals(List.of(new Cell(0, 0)), b.getConflicts(0, 1));
+        b.changeValue(1, 1, 1);
+        assertEquals(List.of(new Cell(0, 0), new Cell(1, 1)), b.getConflicts(0, 1));
+        assertEquals(List.of(new Cell(0, 1), new Cell(0, 0)), b.getConflicts(1, 1));
+        b.clearValue(0, 1);
+        assertEquals(List.of(new Cell(0, 0)), b.getConflicts(1, 1));
+        b.clearValue(1, 1);
+        assertFalse(b.hasConflicts());
+        assertFalse(b.hasConflict(0, 0));
+        assertEquals(List.of(), b.getConflicts(0, 0));
+    }
+
+    @Test
+    void testConflictsIgnoreMatchingSolution() {
+        Board b = compactBoard();
+        b.changeValue(2, 0, 3);
+        assertTrue(b.hasErrors());
+        assertFalse(b.hasConflicts());
+        assertFalse(b.hasConflict(2, 0));
+        assertFalse(b.hasConflict(3, 3));
+    }
+
+    @Test
+    void testConflictsUnavailableOnIrregularBoard() {
+        board.changeValue(0, 0, 1);
+        board.changeValue(0, 1, 1);
+        assertFalse(board.hasConflicts());
+        assertEquals(List.of(), board.getConflicts(0, 0));
+    }
+
+    @Test
+    void testListenersHearStatusTransitions() {
+        Board b = compactBoard();
+        var heard = new ArrayList<String>();
+        b.addListener(new BoardListener() {
+            @Override
+            public void valueChanged(final int index, final int previous, final int current) {
+            }
+
+            @Override
+            public void statusChanged(final GameStatusEnum previous, final GameStatusEnum current) {
+                heard.add(previous + ">" + current);
+            }
+
+            @Override
+            public void errorsChanged(final boolean errors) {
+                heard.add("errors " + errors);
+            }
+        });
+        b.changeValue(0, 1, 3);
+        b.changeValue(0, 1, 2);
+        b.changeValue(0, 2, 3);
+        assertEquals(List.of("NON_STARTED>INCOMPLETED", "errors true", "errors false"), heard);
+        heard.clear();
+        b.reset();
+        assertEquals(List.of("INCOMPLETED>NON_STARTED"), heard);
+    }
 }
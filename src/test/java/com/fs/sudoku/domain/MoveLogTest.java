@@ -0,0 +1,139 @@
+package com.fs.sudoku.domain;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveLogTest {
+
+    private static Board board() {
+        return new PuzzleGenerator(new SplittableRandom(21)).generate().toBoard();
+    }
+
+    private static List<int[]> openCells(final Board board) {
+        List<int[]> cells = new ArrayList<>();
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                if (board.getValue(col, row) == 0) {
+                    cells.add(new int[] {col, row});
+                }
+            }
+        }
+        return cells;
+    }
+
+    @Test
+    void testUndoAndRedoSingleMoves() {
+        var board = board();
+        var log = new MoveLog(board);
+        var cell = openCells(board).get(0);
+        board.changeValue(cell[0], cell[1], 4);
+        board.changeValue(cell[0], cell[1], 7);
+        assertEquals(2, log.getPosition());
+        assertEquals(MoveLog.encode(cell[0] * 9 + cell[1], 4, 7), log.getMove(1));
+
+        assertTrue(log.undo());
+        assertEquals(4, board.getValue(cell[0], cell[1]));
+        assertTrue(log.undo());
+        assertEquals(0, board.getValue(cell[0], cell[1]));
+        assertFalse(log.undo());
+        assertTrue(log.redo());
+        assertEquals(4, board.getValue(cell[0], cell[1]));
+
+        board.clearValue(cell[0], cell[1]);
+        assertFalse(log.canRedo());
+        assertEquals(2, log.getEndPosition());
+    }
+
+    @Test
+    void testResetUndoesAsOneStep() {
+        var board = board();
+        var log = new MoveLog(board);
+        var cells = openCells(board);
+        for (int i = 0; i < 5; i++) {
+            board.changeValue(cells.get(i)[0], cells.get(i)[1], i + 1);
+        }
+        board.reset();
+        assertEquals(GameStatusEnum.NON_STARTED, board.getStatus());
+        log.undo();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, board.getValue(cells.get(i)[0], cells.get(i)[1]));
+        }
+        log.redo();
+        assertEquals(GameStatusEnum.NON_STARTED, board.getStatus());
+    }
+
+    @Test
+    void testSeekMatchesRecordedStates() {
+        var board = board();
+        var log = new MoveLog(board);
+        var cells = openCells(board);
+        var random = new SplittableRandom(22);
+        List<byte[]> states = new ArrayList<>();
+        states.add(board.getValues());
+        while (log.getPosition() < 500) {
+            var cell = cells.get(random.nextInt(cells.size()));
+            board.changeValue(cell[0], cell[1], random.nextInt(1, 10));
+            if (log.getPosition() == states.size()) {
+                states.add(board.getValues());
+            }
+        }
+        for (var target : new long[] {3, 500, 0, 257, 256, 64, 499, 130}) {
+            log.seek(target);
+            assertArrayEquals(states.get((int) target), board.getValues(), "position " + target);
+        }
+    }
+
+    @Test
+    void testDropsOldestMovesAtCapacity() {
+        var board = board();
+        var log = new MoveLog(board, 100);
+        var cells = openCells(board);
+        List<byte[]> states = new ArrayList<>();
+        states.add(board.getValues());
+        for (int i = 0; i < 300; i++) {
+            var cell = cells.get(i % cells.size());
+            board.changeValue(cell[0], cell[1], i % 9 + 1);
+            states.add(board.getValues());
+        }
+        assertEquals(200, log.getFirstPosition());
+        assertEquals(100, log.toArray().length);
+        log.seek(200);
+        assertArrayEquals(states.get(200), board.getValues());
+        log.seek(260);
+        assertArrayEquals(states.get(260), board.getValues());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.seek(199));
+        while (log.undo()) {
+            // back to the oldest retained move
+        }
+        assertArrayEquals(states.get(200), board.getValues());
+    }
+
+    @Test
+    void testRecordsSpaceBackedBoards() {
+        List<List<Space>> spaces = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<Space> col = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                col.add(new Space(1, i == 0 && j == 0));
+            }
+            spaces.add(col);
+        }
+        var board = new Board(spaces);
+        var log = new MoveLog(board);
+        spaces.get(2).get(3).setActual(3);
+        board.changeValue(1, 1, 200);
+        assertEquals(-1, board.getValue(1, 1));
+        log.undo();
+        assertEquals(0, board.getValue(1, 1));
+        log.redo();
+        assertEquals(-1, board.getValue(1, 1));
+        log.seek(0);
+        assertEquals(0, board.getValue(2, 3));
+    }
+}
@@ -0,0 +1,83 @@
+package com.fs.sudoku.generator;
+
+import com.fs.sudoku.solver.BitmaskSolver;
+import com.fs.sudoku.solver.DancingLinksSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static com.fs.sudoku.generator.Difficulty.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleGeneratorTest {
+
+    @Test
+    void testGeneratedSolutionIsValid() {
+        var generator = new PuzzleGenerator(new SplittableRandom(1));
+        var solution = generator.generateSolution();
+        assertEquals(1, new DancingLinksSolver(3).countSolutions(solution, 2));
+    }
+
+    @Test
+    void testGeneratedPuzzleHasUniqueSolution() {
+        var generator = new PuzzleGenerator(new SplittableRandom(2));
+        for (int i = 0; i < 20; i++) {
+            var puzzle = generator.generate();
+            assertArrayEquals(puzzle.solution(), new DancingLinksSolver(3).solve(puzzle.givens()));
+            assertEquals(1, new BitmaskSolver(3).countSolutions(puzzle.givens(), 2));
+            assertTrue(puzzle.givenCount() < 40);
+        }
+    }
+
+    @Test
+    void testGeneratesRequestedDifficulty() {
+        var generator = new PuzzleGenerator(new SplittableRandom(3));
+        for (var difficulty : Difficulty.values()) {
+            var puzzle = generator.generate(difficulty);
+            assertEquals(difficulty, generator.grade(puzzle.givens()));
+            assertEquals(1, new BitmaskSolver(3).countSolutions(puzzle.givens(), 2));
+        }
+    }
+
+    @Test
+    void testSameSeedGeneratesSamePuzzle() {
+        var first = new PuzzleGenerator(new SplittableRandom(4)).generate(MEDIUM);
+        var second = new PuzzleGenerator(new SplittableRandom(4)).generate(MEDIUM);
+        assertArrayEquals(first.givens(), second.givens());
+    }
+
+    @Test
+    void testGeneratesOtherBoxSizes() {
+        var puzzle = new PuzzleGenerator(2, new SplittableRandom(5)).generate();
+        assertEquals(1, new BitmaskSolver(2).countSolutions(puzzle.givens(), 2));
+        var board = puzzle.toBoard();
+        assertEquals(2, board.getBoxSize());
+        assertFalse(board.gameIsFinished());
+    }
+
+    @Test
+    void testGraderRanksSinglesTechniques() {
+        var grader = new DifficultyGrader(3);
+        var hard = new byte[81];
+        var line = "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+        for (int i = 0; i < 81; i++) {
+            hard[i] = (byte) (line.charAt(i) - '0');
+        }
+        assertEquals(HARD, grader.grade(hard));
+        var solution = new DancingLinksSolver(3).solve(hard);
+        var oneMissing = solution.clone();
+        oneMissing[40] = 0;
+        assertEquals(EASY, grader.grade(oneMissing));
+    }
+
+    @Test
+    void testGeneratesLargeBoards() {
+        var hex = new PuzzleGenerator(4, new SplittableRandom(6)).generate(HARD);
+        assertEquals(1, new BitmaskSolver(4).countSolutions(hex.givens(), 2));
+        assertArrayEquals(hex.solution(), new DancingLinksSolver(4).solve(hex.givens()));
+        var large = new PuzzleGenerator(5, new SplittableRandom(7)).generate(EASY).toBoard();
+        assertEquals(25, large.getSize());
+        assertTrue(large.isCompact());
+        assertEquals(EASY, new PuzzleGenerator(5, new SplittableRandom(7)).grade(large.getGivens()));
+    }
+}
@@ -0,0 +1,140 @@
+package com.fs.sudoku.io;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.store.PuzzleStoreWriter;
+import com.fs.sudoku.util.PuzzleLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleReaderTest {
+    private static final String PUZZLE =
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+    private static final String SOLUTION =
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadsLines() throws IOException {
+        var text = "# two puzzles\n" + PUZZLE + "\r\n\n" + SOLUTION.replace('4', '0') + "  # trailing comment";
+        var givens = new byte[81];
+        var solution = new byte[81];
+        try (var reader = new TextPuzzleReader(new StringReader(text), false)) {
+            assertTrue(reader.read(givens, solution));
+            assertArrayEquals(PuzzleLine.parse(PUZZLE), givens);
+            assertArrayEquals(new byte[81], solution);
+            assertTrue(reader.read(givens, solution));
+            assertEquals(SOLUTION.replace('4', '.'), PuzzleLine.format(givens));
+            assertFalse(reader.read(givens, solution));
+        }
+    }
+
+    @Test
+    void testSkipsMalformedLines() throws IOException {
+        var text = PUZZLE.substring(1) + "\n" + PUZZLE + "1\n" + SOLUTION + "\n" + PUZZLE.replace('7', 'x') + "\n"
+                + PUZZLE + "\n" + PUZZLE.substring(5);
+        var givens = new byte[81];
+        var solution = new byte[81];
+        try (var reader = new TextPuzzleReader(new StringReader(text), false)) {
+            assertEquals(0, reader.getFirstSkipped());
+            assertTrue(reader.read(givens, solution));
+            assertEquals(SOLUTION, PuzzleLine.format(givens));
+            assertEquals(2, reader.getSkipped());
+            assertEquals(1, reader.getFirstSkipped());
+            assertTrue(reader.read(givens, solution));
+            assertEquals(PUZZLE, PuzzleLine.format(givens));
+            assertFalse(reader.read(givens, solution));
+            assertEquals(4, reader.getSkipped());
+            assertEquals(1, reader.getFirstSkipped());
+        }
+    }
+
+    @Test
+    void testSkipsMalformedSdkPuzzles() throws IOException {
+        var text = "[Puzzle]\n" + PUZZLE.substring(0, 40) + "x\n" + SOLUTION + "\n" + PUZZLE.substring(0, 9);
+        var givens = new byte[81];
+        var solution = new byte[81];
+        try (var reader = new TextPuzzleReader(new StringReader(text), true)) {
+            assertTrue(reader.read(givens, solution));
+            assertEquals(SOLUTION, PuzzleLine.format(givens));
+            assertFalse(reader.read(givens, solution));
+            assertEquals(2, reader.getSkipped());
+            assertEquals(2, reader.getFirstSkipped());
+        }
+    }
+
+    @Test
+    void testReadsSdkFilesAndSolvesThem() throws IOException {
+        var sdk = new StringBuilder("#A Author\n[Puzzle]\n");
+        for (int row = 0; row < 9; row++) {
+            var cells = PUZZLE.substring(row * 9, row * 9 + 9);
+            sdk.append(cells, 0, 3).append('|').append(cells, 3, 6).append('|').append(cells, 6, 9).append('\n');
+            if (row == 2 || row == 5) {
+                sdk.append("---+---+---\n");
+            }
+        }
+        sdk.append("[State]\n").append(SOLUTION, 0, 9).append('\n');
+        var file = dir.resolve("puzzle.sdk");
+        Files.writeString(file, sdk);
+
+        assertEquals(PuzzleFormat.SDK, PuzzleFormat.detect(file));
+        try (var reader = PuzzleFormat.open(file)) {
+            var puzzle = reader.next();
+            assertEquals(PUZZLE, PuzzleLine.format(puzzle.givens()));
+            assertEquals(SOLUTION, PuzzleLine.format(puzzle.solution()));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testReadsPuzzleStores() throws IOException {
+        var generator = new PuzzleGenerator(2, new SplittableRandom(5));
+        var first = generator.generate();
+        var second = generator.generate();
+        var file = dir.resolve("puzzles.bin");
+        try (var writer = new PuzzleStoreWriter(file, 2)) {
+            writer.write(first);
+            writer.write(second);
+        }
+
+        assertEquals(PuzzleFormat.STORE, PuzzleFormat.detect(file));
+        try (var reader = PuzzleFormat.open(file)) {
+            assertEquals(2, reader.getBoxSize());
+            var puzzle = reader.next();
+            assertArrayEquals(first.givens(), puzzle.givens());
+            assertArrayEquals(first.solution(), puzzle.solution());
+            assertArrayEquals(second.givens(), reader.next().givens());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testReadsArguments() throws IOException {
+        var reader = new ArgumentsPuzzleReader(2, "0,0;1,true", "1,2;3,false", "3,3;2,TRUE");
+        var puzzle = reader.next();
+        assertEquals(1, puzzle.givens()[0]);
+        assertEquals(0, puzzle.givens()[6]);
+        assertEquals(2, puzzle.givens()[15]);
+        assertEquals(1, puzzle.solution()[0]);
+        assertEquals(2, puzzle.solution()[15]);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testRejectsMalformedArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentsPuzzleReader(3, "0,0;5").next());
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentsPuzzleReader(3, "0,9;5,true").next());
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentsPuzzleReader(3, "a,0;5,true").next());
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentsPuzzleReader(3, "0,0;5,true", "0,0;6,false").next());
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentsPuzzleReader(3, "0,0;5,true", "0,1;5,true").next());
+    }
+}
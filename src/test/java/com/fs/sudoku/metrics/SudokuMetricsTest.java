@@ -0,0 +1,99 @@
+package com.fs.sudoku.metrics;
+
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.solver.DancingLinksSolver;
+import com.fs.sudoku.solver.LogicalSolver;
+import com.fs.sudoku.solver.SolutionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SudokuMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        SudokuMetrics.disable();
+    }
+
+    @Test
+    void testRecordsBoardOperations() {
+        var registry = SudokuMetrics.enable();
+        var board = new PuzzleGenerator(new SplittableRandom(2)).generate().toBoard();
+        board.changeValue(0, 0, 1);
+        board.changeValue(0, 1, 2);
+        board.clearValue(0, 0);
+        board.getStatus();
+        board.hasErrors();
+        board.gameIsFinished();
+
+        assertEquals(2, operation(registry, "changeValue"));
+        assertEquals(1, operation(registry, "clearValue"));
+        assertEquals(1, operation(registry, "getStatus"));
+        assertEquals(1, operation(registry, "hasErrors"));
+        assertEquals(1, operation(registry, "gameIsFinished"));
+    }
+
+    @Test
+    void testRecordsSearchesAndGeneration() {
+        var registry = SudokuMetrics.enable(new SimpleMeterRegistry());
+        var puzzle = new PuzzleGenerator(new SplittableRandom(5)).generate(Difficulty.EASY);
+        var solver = new DancingLinksSolver(3);
+        solver.solve(puzzle.givens());
+        new LogicalSolver(3).rate(puzzle.givens());
+
+        assertEquals(1, registry.get("sudoku.generator.generate").tag("difficulty", "easy").timer().count());
+        assertEquals(1, registry.get("sudoku.solver.search").tag("solver", "dancing-links").timer().count());
+        var nodes = registry.get("sudoku.solver.nodes").tag("solver", "dancing-links").summary();
+        assertEquals(solver.getNodes(), (long) nodes.totalAmount());
+        assertTrue(solver.getNodes() > 0);
+        assertEquals(1, registry.get("sudoku.solver.search").tag("solver", "logical").timer().count());
+        assertNull(registry.find("sudoku.solver.nodes").tag("solver", "logical").summary());
+        assertNull(registry.find("sudoku.solver.search").tag("solver", "bitmask").timer());
+
+        var out = new ByteArrayOutputStream();
+        SudokuMetrics.report(new PrintStream(out, true));
+        assertTrue(out.toString().contains("sudoku.solver.search dancing-links: count=1"));
+    }
+
+    @Test
+    void testRecordsOneSearchPerCount() {
+        var registry = SudokuMetrics.enable(new SimpleMeterRegistry());
+        var givens = new PuzzleGenerator(new SplittableRandom(7)).generate().givens();
+        givens[givens.length - 1] = 0;
+        givens[0] = 0;
+        try (var counter = new SolutionCounter(3, 2)) {
+            counter.count(givens, 1000);
+        }
+
+        assertEquals(1, registry.get("sudoku.solver.search").tag("solver", "counter").timer().count());
+        assertTrue(registry.get("sudoku.solver.nodes").tag("solver", "counter").summary().totalAmount() > 0);
+        assertNull(registry.find("sudoku.solver.search").tag("solver", "bitmask").timer());
+    }
+
+    @Test
+    void testRecordsNothingWhileDisabled() {
+        var registry = SudokuMetrics.enable();
+        SudokuMetrics.disable();
+        assertFalse(SudokuMetrics.isEnabled());
+        assertNull(SudokuMetrics.registry());
+        assertEquals(0, SudokuMetrics.start());
+        var board = new PuzzleGenerator(new SplittableRandom(2)).generate().toBoard();
+        board.changeValue(0, 0, 1);
+        new DancingLinksSolver(3).solve(board.getGivens());
+
+        assertEquals(0, operation(registry, "changeValue"));
+        assertNull(registry.find("sudoku.solver.search").timer());
+    }
+
+    private static long operation(final MeterRegistry registry, final String operation) {
+        return registry.get("sudoku.board.operation").tag("operation", operation).timer().count();
+    }
+}
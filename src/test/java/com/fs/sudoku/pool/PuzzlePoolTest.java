@@ -0,0 +1,119 @@
+package com.fs.sudoku.pool;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+
+import static com.fs.sudoku.generator.Difficulty.EASY;
+import static com.fs.sudoku.generator.Difficulty.MEDIUM;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzlePoolTest {
+    @TempDir
+    Path dir;
+
+    private final PuzzleGenerator grader = new PuzzleGenerator(new SplittableRandom(1));
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + 30_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the pool");
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertPuzzle(final Puzzle puzzle, final Difficulty difficulty) {
+        assertNotNull(puzzle);
+        assertEquals(difficulty, grader.grade(puzzle.givens()));
+        assertFalse(puzzle.toBoard().gameIsFinished());
+    }
+
+    @Test
+    void testKeepsEachDifficultyBetweenWatermarks() throws Exception {
+        try (var pool = new PuzzlePool(3, Set.of(EASY, MEDIUM), new PoolOptions(3, 8, 2, 0), null)) {
+            await(() -> pool.getReady(EASY) >= 8 && pool.getReady(MEDIUM) >= 8);
+            var seen = new HashSet<String>();
+            // Generators may overshoot the high watermark by a puzzle each.
+            var polls = pool.getReady(MEDIUM) - 2;
+            for (int i = 0; i < polls; i++) {
+                var puzzle = pool.poll(MEDIUM);
+                assertPuzzle(puzzle, MEDIUM);
+                assertTrue(seen.add(new String(puzzle.givens())));
+            }
+            assertTrue(pool.getReady(EASY) >= 8);
+            await(() -> pool.getReady(MEDIUM) >= 8);
+            assertEquals(0, pool.getMisses());
+            assertThrows(IllegalArgumentException.class, () -> pool.poll(Difficulty.HARD));
+        }
+    }
+
+    @Test
+    void testHandsOutPuzzlesUnderBursts() throws Exception {
+        try (var pool = new PuzzlePool(3, Set.of(EASY), new PoolOptions(2, 4, 1, 0), null)) {
+            await(() -> pool.getReady(EASY) >= 4);
+            var polled = 0;
+            while (pool.poll(EASY) != null) {
+                polled++;
+            }
+            assertTrue(polled >= 4);
+            for (int i = 0; i < 20; i++) {
+                assertPuzzle(pool.take(EASY), EASY);
+            }
+        }
+    }
+
+    @Test
+    void testReportsPuzzlesGeneratedOnTheCallingThread() throws Exception {
+        try (var pool = new PuzzlePool(3, Set.of(EASY), new PoolOptions(1, 2, 1, 0), null)) {
+            var heard = new ArrayList<Long>();
+            pool.setMissListener(heard::add);
+            for (int i = 0; i < 10; i++) {
+                assertPuzzle(pool.take(EASY), EASY);
+            }
+            assertEquals(pool.getMisses(), heard.size());
+            for (int i = 0; i < heard.size(); i++) {
+                assertEquals(i + 1, heard.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testSpillsSurplusAndResumesFromFiles() throws Exception {
+        var options = new PoolOptions(2, 6, 1, 12);
+        try (var pool = new PuzzlePool(3, Set.of(EASY), options, dir)) {
+            await(() -> pool.getSpilled(EASY) >= 12 && pool.getReady(EASY) >= 6);
+            assertEquals(12, pool.getSpilled(EASY));
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(5, files.filter(file -> file.getFileName().toString().startsWith("easy-")).count());
+        }
+
+        try (var pool = new PuzzlePool(3, Set.of(EASY), options, dir)) {
+            assertTrue(pool.getSpilled(EASY) + pool.getReady(EASY) >= 18);
+            for (int i = 0; i < 18; i++) {
+                assertPuzzle(pool.take(EASY), EASY);
+            }
+            assertEquals(0, pool.getMisses());
+        }
+    }
+
+    @Test
+    void testRejectsFilesOfAnotherBoxSize() throws Exception {
+        try (var pool = new PuzzlePool(2, Set.of(EASY), new PoolOptions(1, 3, 1, 3), dir)) {
+            assertEquals(2, pool.take(EASY).boxSize());
+            await(() -> pool.getSpilled(EASY) >= 2);
+        }
+        assertThrows(IOException.class, () -> new PuzzlePool(3, Set.of(EASY), PoolOptions.DEFAULT, dir));
+    }
+}
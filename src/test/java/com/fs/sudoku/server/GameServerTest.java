@@ -0,0 +1,100 @@
+package com.fs.sudoku.server;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    private static final Puzzle PUZZLE = new PuzzleGenerator(new SplittableRandom(41)).generate();
+    private static final Supplier<Board> BOARDS = PUZZLE::toBoard;
+
+    @Test
+    void testHandlerPlaysAGame() {
+        var sessions = new SessionRegistry();
+        var handler = new GameCommandHandler(sessions, BOARDS);
+        var id = handler.handle("NEW").substring(3);
+        assertEquals(1, sessions.size());
+        assertEquals("OK NON_STARTED false", handler.handle("STATUS " + id));
+
+        var fixedCell = -1;
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                var index = col * 9 + row;
+                if (PUZZLE.givens()[index] != 0) {
+                    fixedCell = index;
+                    continue;
+                }
+                var wrong = PUZZLE.solution()[index] % 9 + 1;
+                assertEquals("OK", handler.handle("INSERT %s %s %s %s".formatted(id, col, row, wrong)));
+                assertEquals("OK", handler.handle("insert %s %s %s %s".formatted(id, col, row, PUZZLE.solution()[index])));
+            }
+        }
+        assertEquals("ERR fixed", handler.handle("REMOVE %s %s %s".formatted(id, fixedCell / 9, fixedCell % 9)));
+        assertEquals("OK COMPLETED false", handler.handle("STATUS " + id));
+        assertEquals("OK finished", handler.handle("FINISH " + id));
+        assertEquals(0, sessions.size());
+        assertEquals("ERR unknown session", handler.handle("STATUS " + id));
+    }
+
+    @Test
+    void testHandlerRejectsBadCommands() {
+        var handler = new GameCommandHandler(new SessionRegistry(), BOARDS);
+        var id = handler.handle("NEW").substring(3);
+        assertEquals("ERR unknown command", handler.handle("JUMP"));
+        assertTrue(handler.handle("INSERT %s 9 0 1".formatted(id)).startsWith("ERR"));
+        assertTrue(handler.handle("INSERT %s 0 0 0".formatted(id)).startsWith("ERR"));
+        assertTrue(handler.handle("INSERT %s 0 0".formatted(id)).startsWith("ERR"));
+        assertTrue(handler.handle("STATUS abc").startsWith("ERR"));
+        assertEquals("OK", handler.handle("CLOSE " + id));
+    }
+
+    @Test
+    void testServesConcurrentClients() throws Exception {
+        try (var server = new GameServer(0, BOARDS)) {
+            server.start();
+            var result = LoadClient.run("localhost", server.getPort(), 200, 50);
+            assertEquals(0, result.errors());
+            assertTrue(result.commands() >= 200 * 4);
+            assertEquals(0, server.getSessions().size());
+        }
+    }
+
+    @Test
+    void testLoadClientPlaysOtherBoxSizes() throws Exception {
+        var puzzle = new PuzzleGenerator(2, new SplittableRandom(3)).generate();
+        try (var server = new GameServer(0, puzzle::toBoard)) {
+            server.start();
+            var result = LoadClient.run("localhost", server.getPort(), 10, 50);
+            assertEquals(0, result.errors());
+        }
+    }
+
+    @Test
+    void testEvictsIdleSessions() throws Exception {
+        var sessions = new SessionRegistry();
+        var idle = sessions.create(PUZZLE.toBoard());
+        var used = sessions.create(PUZZLE.toBoard());
+        Thread.sleep(30);
+        assertNotNull(sessions.get(used.getId()));
+        assertEquals(1, sessions.evictIdle(20_000_000L));
+        assertNull(sessions.get(idle.getId()));
+        assertNotNull(sessions.get(used.getId()));
+
+        try (var server = new GameServer(0, BOARDS, Duration.ofMillis(20))) {
+            var handler = new GameCommandHandler(server.getSessions(), BOARDS);
+            handler.handle("NEW");
+            var deadline = System.nanoTime() + 10_000_000_000L;
+            while (server.getSessions().size() > 0) {
+                assertTrue(System.nanoTime() < deadline, "The idle session was not evicted");
+                Thread.sleep(5);
+            }
+        }
+    }
+}
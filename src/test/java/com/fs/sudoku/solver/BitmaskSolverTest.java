@@ -0,0 +1,58 @@
+package com.fs.sudoku.solver;
+
+import org.junit.jupiter.api.Test;
+
+import static com.fs.sudoku.solver.DancingLinksSolverTest.grid;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmaskSolverTest {
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @Test
+    void testAgreesWithDancingLinks() {
+        var solver = new BitmaskSolver(3);
+        assertArrayEquals(new DancingLinksSolver(3).solve(grid(HARD)), solver.solve(grid(HARD)));
+        assertEquals(1, solver.countSolutions(grid(HARD), 2));
+    }
+
+    @Test
+    void testCountsEmptySmallBoard() {
+        assertEquals(288, new BitmaskSolver(2).countSolutions(new byte[16], 1000));
+    }
+
+    @Test
+    void testConflictingGivensHaveNoSolution() {
+        var grid = grid(HARD);
+        grid[1] = 8;
+        assertEquals(0, new BitmaskSolver(3).countSolutions(grid, 2));
+        assertNull(new BitmaskSolver(3).solve(grid));
+    }
+
+    @Test
+    void testNodeBudgetGivesUp() {
+        var solver = new BitmaskSolver(4);
+        assertEquals(-1, solver.countSolutions(new byte[256], 2, 10));
+        assertEquals(2, solver.countSolutions(new byte[256], 2, 1_000));
+        assertEquals(1, solver.countSolutions(solver.solve(new byte[256]), 2, 10));
+    }
+
+    @Test
+    void testReportsProgress() {
+        var solver = new BitmaskSolver(3);
+        var reports = new long[2];
+        solver.setProgress((placed, depth, nodes, nanos) -> {
+            assertTrue(placed > 21 && placed <= 81);
+            assertEquals(placed - 21, depth);
+            assertEquals(reports[1] + 100, nodes);
+            reports[0]++;
+            reports[1] = nodes;
+        }, 100);
+        solver.solve(grid(HARD));
+        assertEquals(solver.getNodes() / 100, reports[0]);
+        solver.setProgress(null, 0);
+        reports[0] = 0;
+        solver.solve(grid(HARD));
+        assertEquals(0, reports[0]);
+    }
+}
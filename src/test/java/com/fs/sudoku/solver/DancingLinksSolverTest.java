@@ -0,0 +1,117 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.domain.Space;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DancingLinksSolverTest {
+    // Arto Inkala's "world's hardest sudoku"
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+    private static final String HARD_SOLUTION =
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+    static byte[] grid(final String line) {
+        var grid = new byte[line.length()];
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            grid[i] = (byte) (c >= '1' && c <= '9' ? c - '0' : 0);
+        }
+        return grid;
+    }
+
+    @Test
+    void testSolvesHardPuzzle() {
+        var solver = new DancingLinksSolver(3);
+        assertArrayEquals(grid(HARD_SOLUTION), solver.solve(grid(HARD)));
+        assertEquals(1, solver.countSolutions(grid(HARD), 2));
+    }
+
+    @Test
+    void testCountsMultipleSolutions() {
+        var ambiguous = grid("800000000003600000070090200050007000000045700000100030001000068008000090000010400");
+        assertEquals(2, new DancingLinksSolver(3).countSolutions(ambiguous, 2));
+    }
+
+    @Test
+    void testSolverIsReusable() {
+        var solver = new DancingLinksSolver(3);
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(grid(HARD_SOLUTION), solver.solve(grid(HARD)));
+        }
+    }
+
+    @Test
+    void testCountStopsAtLimit() {
+        var solver = new DancingLinksSolver(2);
+        assertEquals(288, solver.countSolutions(new byte[16], 1000));
+        assertEquals(10, solver.countSolutions(new byte[16], 10));
+    }
+
+    @Test
+    void testConflictingGivensHaveNoSolution() {
+        var grid = grid(HARD);
+        grid[1] = 8;
+        var solver = new DancingLinksSolver(3);
+        assertNull(solver.solve(grid));
+        assertArrayEquals(grid(HARD_SOLUTION), solver.solve(grid(HARD)));
+    }
+
+    @Test
+    void testSolvesLargerBoxes() {
+        var solution = new DancingLinksSolver(4).solve(new byte[256]);
+        assertNotNull(solution);
+        assertEquals(1, new DancingLinksSolver(4).countSolutions(solution, 2));
+    }
+
+    @Test
+    void testBoardSolverFillsExpectedValues() {
+        var givens = grid(HARD);
+        List<List<Space>> spaces = new ArrayList<>();
+        for (int col = 0; col < 9; col++) {
+            List<Space> column = new ArrayList<>();
+            for (int row = 0; row < 9; row++) {
+                var given = givens[col * 9 + row];
+                column.add(new Space(given, given != 0));
+            }
+            spaces.add(column);
+        }
+        var board = new Board(spaces);
+        board.changeValue(0, 1, 1);
+        assertTrue(board.hasErrors());
+        assertTrue(BoardSolver.solve(board));
+        assertFalse(board.hasErrors());
+        assertArrayEquals(grid(HARD_SOLUTION), solutionOf(board));
+    }
+
+    private static byte[] solutionOf(final Board board) {
+        var solution = new byte[81];
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                solution[col * 9 + row] = (byte) board.getSpaces().get(col).get(row).getExpected();
+            }
+        }
+        return solution;
+    }
+
+    @Test
+    void testReportsProgress() {
+        var solver = new DancingLinksSolver(3);
+        var givens = (int) HARD.chars().filter(c -> c != '0').count();
+        var reports = new long[2];
+        solver.setProgress((placed, depth, nodes, nanos) -> {
+            assertTrue(placed >= givens && placed <= 81);
+            assertEquals(placed - givens, depth);
+            assertEquals(reports[1] + 10, nodes);
+            reports[0]++;
+            reports[1] = nodes;
+        }, 10);
+        solver.solve(grid(HARD));
+        assertEquals(solver.getNodes() / 10, reports[0]);
+    }
+}
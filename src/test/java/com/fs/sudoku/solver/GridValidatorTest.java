@@ -0,0 +1,103 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridValidatorTest {
+
+    @Test
+    void testAcceptsSolutionsOfEveryBoxSize() {
+        var random = new SplittableRandom(5);
+        for (int boxSize = 2; boxSize <= 3; boxSize++) {
+            var generator = new PuzzleGenerator(boxSize, random);
+            var validator = GridValidator.forBoxSize(boxSize);
+            var scalar = new ScalarGridValidator(boxSize);
+            assertEquals(boxSize, validator.getBoxSize());
+            for (int i = 0; i < 20; i++) {
+                var puzzle = generator.generate();
+                assertTrue(validator.isValid(puzzle.solution()));
+                assertTrue(scalar.isValid(puzzle.solution()));
+                assertTrue(validator.isSolution(puzzle.givens(), puzzle.solution()));
+            }
+        }
+        for (int boxSize = 4; boxSize <= 5; boxSize++) {
+            var grid = BoardSolver.forBoxSize(boxSize).solve(new byte[boxSize * boxSize * boxSize * boxSize]);
+            assertTrue(GridValidator.forBoxSize(boxSize).isValid(grid));
+            grid[grid.length - 1] = (byte) (grid[grid.length - 1] % (boxSize * boxSize) + 1);
+            assertFalse(GridValidator.forBoxSize(boxSize).isValid(grid));
+        }
+    }
+
+    @Test
+    void testRejectsBrokenGrids() {
+        var random = new SplittableRandom(9);
+        for (int boxSize = 2; boxSize <= 3; boxSize++) {
+            var size = boxSize * boxSize;
+            var generator = new PuzzleGenerator(boxSize, random);
+            var validator = GridValidator.forBoxSize(boxSize);
+            var scalar = new ScalarGridValidator(boxSize);
+            for (int i = 0; i < 10; i++) {
+                var solution = generator.generate().solution();
+                for (int cell = 0; cell < solution.length; cell++) {
+                    // Every other digit, out-of-range values, and digits whose bit would wrap onto a real one.
+                    for (var digit : new int[]{0, -1, size + 1, 17, 33, 127, -128, solution[cell] % size + 1}) {
+                        var broken = solution.clone();
+                        broken[cell] = (byte) digit;
+                        assertFalse(validator.isValid(broken), "cell " + cell + " digit " + digit);
+                        assertFalse(scalar.isValid(broken));
+                    }
+                }
+                // Swapping two cells of a column keeps the column whole and breaks two rows.
+                var swapped = solution.clone();
+                swapped[0] = solution[size - 1];
+                swapped[size - 1] = solution[0];
+                assertFalse(validator.isValid(swapped));
+                assertFalse(scalar.isValid(swapped));
+            }
+        }
+    }
+
+    @Test
+    void testRejectsLatinSquaresWithBrokenBoxes() {
+        // Every column and row holds each digit once, but boxes do not.
+        var grid = new byte[81];
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                grid[col * 9 + row] = (byte) ((col + row) % 9 + 1);
+            }
+        }
+        assertFalse(GridValidator.forBoxSize(3).isValid(grid));
+        assertFalse(new ScalarGridValidator(3).isValid(grid));
+        assertFalse(GridValidator.forBoxSize(3).isValid(new byte[80]));
+    }
+
+    @Test
+    void testRejectsSolutionsThatDropGivens() {
+        var generator = new PuzzleGenerator(new SplittableRandom(4));
+        var first = generator.generate();
+        var second = generator.generate();
+        var validator = GridValidator.forBoxSize(3);
+        assertTrue(validator.isValid(second.solution()));
+        assertFalse(validator.isSolution(first.givens(), second.solution()));
+    }
+
+    @Test
+    void testValidatesBoardValuesWithoutSolution() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(6)).generate();
+        // Givens double as the expected values, so the board knows nothing about the open cells.
+        var board = new Board(3, puzzle.givens(), puzzle.givens());
+        var validator = GridValidator.forBoxSize(3);
+        assertFalse(validator.isValid(board.getValues()));
+        var solution = puzzle.solution();
+        for (int index = 0; index < 81; index++) {
+            board.changeValue(index / 9, index % 9, solution[index]);
+        }
+        assertArrayEquals(solution, board.getValues());
+        assertTrue(validator.isValid(board.getValues()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+
+import static com.fs.sudoku.generator.Difficulty.*;
+import static com.fs.sudoku.solver.DancingLinksSolverTest.grid;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogicalSolverTest {
+    private static final String UNRATED =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @Test
+    void testRatesSinglesPuzzles() {
+        var generator = new PuzzleGenerator(new SplittableRandom(11));
+        var solver = new LogicalSolver(3);
+        assertEquals(Technique.NAKED_SINGLE, solver.rate(generator.generate(EASY).givens()));
+        var medium = generator.generate(MEDIUM);
+        assertEquals(Technique.HIDDEN_SINGLE, solver.rate(medium.givens()));
+        var grid = medium.givens().clone();
+        solver.solve(grid);
+        assertArrayEquals(medium.solution(), grid);
+    }
+
+    @Test
+    void testStepsAgreeWithSolution() {
+        var generator = new PuzzleGenerator(new SplittableRandom(12));
+        var solver = new LogicalSolver(3);
+        var used = EnumSet.noneOf(Technique.class);
+        for (int i = 0; i < 100; i++) {
+            var puzzle = generator.generate(HARD);
+            var grid = puzzle.givens().clone();
+            for (var step : solver.solve(grid)) {
+                used.add(step.technique());
+                if (step.technique().isPlacement()) {
+                    var cell = step.pattern().get(0);
+                    assertEquals((int) puzzle.solution()[cell.col() * 9 + cell.row()], step.value(), step.toString());
+                }
+                for (var cell : step.eliminated()) {
+                    var digit = puzzle.solution()[cell.col() * 9 + cell.row()];
+                    assertEquals(0, step.digits() & 1 << digit, step.toString());
+                }
+            }
+            for (int cell = 0; cell < grid.length; cell++) {
+                assertTrue(grid[cell] == 0 || grid[cell] == puzzle.solution()[cell]);
+            }
+        }
+        assertTrue(used.size() > 4, used.toString());
+        assertTrue(used.contains(Technique.HIDDEN_PAIR), used.toString());
+    }
+
+    @Test
+    void testStopsWhereGuessingIsNeeded() {
+        var solver = new LogicalSolver(3);
+        assertNull(solver.rate(grid(UNRATED)));
+    }
+
+    @Test
+    void testHintsFinishABoard() {
+        var board = new PuzzleGenerator(new SplittableRandom(13)).generate(MEDIUM).toBoard();
+        var solver = new LogicalSolver(3);
+        while (!board.gameIsFinished()) {
+            var hint = solver.nextHint(board);
+            var placement = hint.get(hint.size() - 1);
+            assertTrue(placement.technique().isPlacement());
+            var cell = placement.pattern().get(0);
+            board.changeValue(cell.col(), cell.row(), placement.value());
+            assertFalse(board.hasErrors());
+        }
+        assertTrue(solver.nextHint(board).isEmpty());
+    }
+
+    @Test
+    void testReportsProgress() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(14)).generate(MEDIUM);
+        var givens = 0;
+        for (var given : puzzle.givens()) {
+            givens += given != 0 ? 1 : 0;
+        }
+        var solver = new LogicalSolver(3);
+        var reports = new ArrayList<long[]>();
+        solver.setProgress((placed, depth, nodes, nanos) -> reports.add(new long[]{placed, depth, nodes}), 1);
+        var steps = solver.solve(puzzle.givens().clone());
+        assertEquals(steps.size(), reports.size());
+        var last = reports.get(reports.size() - 1);
+        assertEquals(81, last[0]);
+        assertEquals(81 - givens, last[1]);
+        assertEquals(steps.size(), last[2]);
+    }
+}
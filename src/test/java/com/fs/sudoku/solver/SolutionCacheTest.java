@@ -0,0 +1,116 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.io.TextPuzzleReader;
+import com.fs.sudoku.util.PuzzleLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+    private static final String HARD_SOLUTION =
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+    @Test
+    void testRepeatedPuzzlesAreLookedUp() {
+        var solves = new AtomicInteger();
+        var cache = new SolutionCache(3, 1 << 20, grid -> {
+            solves.incrementAndGet();
+            return new DancingLinksSolver(3).solve(grid);
+        });
+        var givens = PuzzleLine.parse(HARD);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HARD_SOLUTION, PuzzleLine.format(cache.solve(givens)));
+        }
+        assertEquals(1, solves.get());
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertNull(cache.solve(PuzzleLine.parse("88" + HARD.substring(2))));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        var generator = new PuzzleGenerator(new SplittableRandom(4));
+        var cache = new SolutionCache(3, 640 * (41 + SolutionCache.ENTRY_OVERHEAD));
+        var first = generator.generate();
+        cache.put(first.givens(), first.solution());
+        for (int i = 0; i < 2000; i++) {
+            var puzzle = generator.generate();
+            cache.put(puzzle.givens(), puzzle.solution());
+            // Keep the first puzzle recently used.
+            assertArrayEquals(first.solution(), cache.get(first.givens()));
+        }
+        assertEquals(640, cache.getMaxEntries());
+        assertTrue(cache.size() <= cache.getMaxEntries());
+        assertTrue(cache.getEvictions() > 0);
+        assertArrayEquals(first.solution(), cache.get(first.givens()));
+    }
+
+    @Test
+    void testPacksEveryBoxSize() {
+        for (int boxSize = 2; boxSize <= 5; boxSize++) {
+            var solution = new DancingLinksSolver(boxSize).solve(new byte[boxSize * boxSize * boxSize * boxSize]);
+            var givens = solution.clone();
+            givens[0] = 0;
+            var cache = new SolutionCache(boxSize, 1 << 20);
+            cache.put(givens, solution);
+            assertArrayEquals(solution, cache.get(givens));
+        }
+    }
+
+    @Test
+    void testWarmsFromPuzzleFiles() throws IOException {
+        var cache = new SolutionCache(3, 1 << 20, grid -> fail("Warm puzzles are not solved again"));
+        var lines = HARD + "\n" + HARD_SOLUTION + "\n";
+        var solved = new SolutionCache(3, 1 << 20);
+        assertEquals(2, solved.warm(new TextPuzzleReader(new StringReader(lines), false)));
+        assertEquals(2, solved.size());
+        for (var line : new String[]{HARD, HARD_SOLUTION}) {
+            cache.put(PuzzleLine.parse(line), solved.get(PuzzleLine.parse(line)));
+        }
+        assertEquals(HARD_SOLUTION, PuzzleLine.format(cache.solve(PuzzleLine.parse(HARD))));
+    }
+
+    @Test
+    void testConcurrentSolvesAgree() throws Exception {
+        var generator = new PuzzleGenerator(new SplittableRandom(12));
+        var puzzles = new ArrayList<byte[][]>();
+        for (int i = 0; i < 50; i++) {
+            var puzzle = generator.generate();
+            puzzles.add(new byte[][]{puzzle.givens(), puzzle.solution()});
+        }
+        var cache = new SolutionCache(3, 1 << 20);
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (var puzzle : puzzles) {
+                            if (!Arrays.equals(puzzle[1], cache.solve(puzzle[0]))) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (var result : results) {
+                assertTrue(result.get());
+            }
+        }
+        assertEquals(50, cache.size());
+        assertEquals(4 * 20 * 50, cache.getHits() + cache.getMisses());
+    }
+}
@@ -0,0 +1,118 @@
+package com.fs.sudoku.solver;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static com.fs.sudoku.solver.DancingLinksSolverTest.grid;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCounterTest {
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @Test
+    void testCountsMatchSequentialSearch() {
+        var random = new SplittableRandom(21);
+        var generator = new PuzzleGenerator(random);
+        var sequential = new BitmaskSolver(3);
+        try (var counter = new SolutionCounter(3, 4)) {
+            for (int i = 0; i < 10; i++) {
+                var givens = generator.generate().givens();
+                assertTrue(counter.isUnique(givens));
+                // Dropping givens opens up more solutions.
+                for (int cell = 0, dropped = 0; cell < givens.length && dropped < 4; cell++) {
+                    if (givens[cell] != 0 && random.nextInt(3) == 0) {
+                        givens[cell] = 0;
+                        dropped++;
+                    }
+                }
+                for (var cap : new int[]{1, 2, 50, 100_000}) {
+                    assertEquals(sequential.countSolutions(givens, cap), counter.count(givens, cap));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEnumerationIsIndependentOfParallelism() {
+        var givens = grid(HARD);
+        givens[0] = 0;
+        givens[3 * 9 + 7] = 0;
+        var validator = GridValidator.forBoxSize(3);
+        try (var one = new SolutionCounter(3, 1);
+             var four = new SolutionCounter(3, 4)) {
+            var total = one.count(givens, Integer.MAX_VALUE);
+            assertTrue(total > 20);
+            var all = one.enumerate(givens, Integer.MAX_VALUE);
+            assertEquals(total, all.size());
+            for (var cap : new int[]{1, 7, 20, total}) {
+                var first = one.enumerate(givens, cap);
+                var second = four.enumerate(givens, cap);
+                assertEquals(Math.min(cap, total), first.size());
+                for (int i = 0; i < first.size(); i++) {
+                    assertArrayEquals(all.get(i), first.get(i));
+                    assertArrayEquals(first.get(i), second.get(i));
+                }
+            }
+            var distinct = new HashSet<String>();
+            for (var solution : all) {
+                assertTrue(validator.isSolution(givens, solution));
+                assertTrue(distinct.add(Arrays.toString(solution)));
+            }
+        }
+    }
+
+    @Test
+    void testEnumeratesEmptySmallBoard() {
+        try (var counter = new SolutionCounter(2, 3)) {
+            assertEquals(288, counter.count(new byte[16], 1000));
+            var solutions = counter.enumerate(new byte[16], 1000);
+            assertEquals(288, solutions.size());
+            var distinct = new HashSet<String>();
+            solutions.forEach(solution -> distinct.add(Arrays.toString(solution)));
+            assertEquals(288, distinct.size());
+        }
+    }
+
+    @Test
+    void testStopsAtCap() {
+        try (var counter = new SolutionCounter(3, 2)) {
+            // An empty 9x9 grid has billions of solutions; the cap must end the search early.
+            assertEquals(5000, counter.count(new byte[81], 5000));
+            assertEquals(300, counter.enumerate(new byte[81], 300).size());
+            assertEquals(0, counter.count(new byte[81], 0));
+        }
+    }
+
+    @Test
+    void testConflictingGivensHaveNoSolution() {
+        var givens = grid(HARD);
+        givens[1] = 8;
+        try (var counter = new SolutionCounter(3, 2)) {
+            assertEquals(0, counter.count(givens, 2));
+            assertTrue(counter.enumerate(givens, 2).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> counter.count(new byte[80], 2));
+        }
+    }
+
+    @Test
+    void testCountsBoardWithEntries() {
+        var puzzle = new PuzzleGenerator(new SplittableRandom(2)).generate();
+        var board = puzzle.toBoard();
+        try (var counter = new SolutionCounter(3, 2)) {
+            assertEquals(1, counter.count(board, 2));
+            var open = 0;
+            while (puzzle.givens()[open] != 0) {
+                open++;
+            }
+            var wrong = puzzle.solution()[open] % 9 + 1;
+            board.changeValue(open / 9, open % 9, wrong);
+            assertEquals(0, counter.count(board, 2));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.fs.sudoku.store;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+    @TempDir
+    Path dir;
+
+    private static Board board() {
+        return new PuzzleGenerator(new SplittableRandom(41)).generate().toBoard();
+    }
+
+    private static void play(final Board board, final int moves, final long seed) {
+        var random = new SplittableRandom(seed);
+        for (int i = 0; i < moves; i++) {
+            board.changeValue(random.nextInt(9), random.nextInt(9), random.nextInt(1, 10));
+            if (i % 7 == 0) {
+                board.clearValue(random.nextInt(9), random.nextInt(9));
+            }
+        }
+    }
+
+    private static void assertSameValues(final Board expected, final Board actual) {
+        assertArrayEquals(expected.getGivens(), actual.getGivens());
+        assertArrayEquals(expected.getSolution(), actual.getSolution());
+        for (int col = 0; col < 9; col++) {
+            for (int row = 0; row < 9; row++) {
+                assertEquals(expected.getValue(col, row), actual.getValue(col, row));
+            }
+        }
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.hasErrors(), actual.hasErrors());
+    }
+
+    @Test
+    void testResumesSavedGame() throws IOException {
+        var board = board();
+        var journal = GameJournal.start(dir, board, new JournalOptions(4, 2, 1000));
+        play(board, 200, 1);
+        journal.close();
+
+        assertTrue(GameJournal.exists(dir));
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+            resumed.getBoard().reset();
+        }
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            board.reset();
+            assertSameValues(board, resumed.getBoard());
+        }
+    }
+
+    @Test
+    void testCompactionKeepsJournalShort() throws IOException {
+        var board = board();
+        var journal = GameJournal.start(dir, board, new JournalOptions(1, 0, 50));
+        play(board, 1000, 2);
+        assertTrue(journal.getRecords() < 50);
+        journal.close();
+        assertTrue(Files.size(dir.resolve(GameJournal.JOURNAL_FILE)) < GameJournal.HEADER_SIZE + 50 * GameJournal.RECORD_SIZE);
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+        }
+    }
+
+    @Test
+    void testCutsOffTornTail() throws IOException {
+        var board = board();
+        var journal = GameJournal.start(dir, board, JournalOptions.DEFAULT);
+        play(board, 30, 3);
+        journal.close();
+        var file = dir.resolve(GameJournal.JOURNAL_FILE);
+        var length = Files.size(file);
+        try (var channel = FileChannel.open(file, APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}));
+        }
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+            assertEquals(length, Files.size(file));
+            resumed.getBoard().clearValue(0, 0);
+            board.clearValue(0, 0);
+        }
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+        }
+    }
+
+    @Test
+    void testIgnoresJournalOlderThanSnapshot() throws IOException {
+        var board = board();
+        var journal = GameJournal.start(dir, board, JournalOptions.DEFAULT);
+        play(board, 20, 4);
+        journal.sync();
+        var file = dir.resolve(GameJournal.JOURNAL_FILE);
+        var stale = Files.readAllBytes(file);
+        journal.compact();
+        journal.close();
+        // A crash between renaming the new snapshot and emptying the journal.
+        Files.write(file, stale);
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+            assertEquals(0, resumed.getRecords());
+        }
+    }
+
+    @Test
+    void testIgnoresJournalOfReplacedGame() throws IOException {
+        var journal = GameJournal.start(dir, board(), JournalOptions.DEFAULT);
+        play(journal.getBoard(), 20, 5);
+        journal.close();
+        var file = dir.resolve(GameJournal.JOURNAL_FILE);
+        var stale = Files.readAllBytes(file);
+        var board = new PuzzleGenerator(new SplittableRandom(42)).generate().toBoard();
+        GameJournal.start(dir, board, JournalOptions.DEFAULT).close();
+        // A crash between renaming the new game's snapshot and emptying the old game's journal.
+        Files.write(file, stale);
+        try (var resumed = GameJournal.resume(dir, JournalOptions.DEFAULT)) {
+            assertSameValues(board, resumed.getBoard());
+            assertEquals(0, resumed.getRecords());
+        }
+    }
+
+    @Test
+    void testDiscardDeletesSavedGame() throws IOException {
+        var journal = GameJournal.start(dir, board(), JournalOptions.DEFAULT);
+        journal.discard();
+        assertFalse(GameJournal.exists(dir));
+    }
+}
@@ -0,0 +1,128 @@
+package com.fs.sudoku.store;
+
+import com.fs.sudoku.domain.Puzzle;
+import com.fs.sudoku.generator.Difficulty;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import com.fs.sudoku.solver.DancingLinksSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTripsPuzzlesAndDifficulty() throws IOException {
+        var generator = new PuzzleGenerator(new SplittableRandom(21));
+        List<Puzzle> puzzles = new ArrayList<>();
+        var file = dir.resolve("puzzles.bin");
+        try (var writer = new PuzzleStoreWriter(file, 3)) {
+            for (int i = 0; i < 3000; i++) {
+                var puzzle = generator.generate();
+                puzzles.add(puzzle);
+                writer.write(puzzle, i % 2 == 0 ? generator.grade(puzzle.givens()) : null);
+            }
+        }
+        assertEquals(32 + 3000 * 53, Files.size(file));
+
+        try (var store = PuzzleStore.open(file)) {
+            assertEquals(3000, store.size());
+            assertEquals(3, store.getBoxSize());
+            var givens = new byte[81];
+            var solution = new byte[81];
+            for (int i = 0; i < puzzles.size(); i++) {
+                var difficulty = store.load(i, givens, solution);
+                assertArrayEquals(puzzles.get(i).givens(), givens);
+                assertArrayEquals(puzzles.get(i).solution(), solution);
+                if (i % 2 == 0) {
+                    assertEquals(generator.grade(givens), difficulty);
+                } else {
+                    assertNull(difficulty);
+                }
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(3000));
+            assertFalse(store.board(5).gameIsFinished());
+        }
+    }
+
+    @Test
+    void testRoundTripsLargerBoxes() throws IOException {
+        var solution = new DancingLinksSolver(4).solve(new byte[256]);
+        var givens = solution.clone();
+        for (int i = 0; i < givens.length; i += 3) {
+            givens[i] = 0;
+        }
+        var file = dir.resolve("hex.bin");
+        try (var writer = new PuzzleStoreWriter(file, 4)) {
+            writer.write(new Puzzle(4, givens, solution), Difficulty.HARD);
+        }
+        try (var store = PuzzleStore.open(file)) {
+            var puzzle = store.get(0);
+            assertArrayEquals(givens, puzzle.givens());
+            assertArrayEquals(solution, puzzle.solution());
+        }
+    }
+
+    @Test
+    void testRejectsInvalidDigitsWithoutCorruptingNeighbours() throws IOException {
+        var generator = new PuzzleGenerator(new SplittableRandom(5));
+        var first = generator.generate();
+        var last = generator.generate();
+        var badSolution = first.solution().clone();
+        badSolution[41] = 0;
+        var badGiven = first.givens().clone();
+        badGiven[40] = (byte) (first.solution()[40] % 9 + 1);
+        var file = dir.resolve("checked.bin");
+        try (var writer = new PuzzleStoreWriter(file, 3)) {
+            writer.write(first);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new Puzzle(3, first.givens(), badSolution)));
+            badSolution[41] = 10;
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new Puzzle(3, first.givens(), badSolution)));
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new Puzzle(3, badGiven, first.solution())));
+            writer.write(last);
+        }
+        try (var store = PuzzleStore.open(file)) {
+            assertEquals(2, store.size());
+            assertArrayEquals(first.solution(), store.get(0).solution());
+            assertArrayEquals(last.givens(), store.get(1).givens());
+            assertArrayEquals(last.solution(), store.get(1).solution());
+        }
+    }
+
+    @Test
+    void testRejectsUnknownDifficulty() throws IOException {
+        var file = dir.resolve("puzzles.bin");
+        try (var writer = new PuzzleStoreWriter(file, 3)) {
+            var generator = new PuzzleGenerator(new SplittableRandom(4));
+            writer.write(generator.generate(), Difficulty.EASY);
+            writer.write(generator.generate(), Difficulty.HARD);
+        }
+        try (var channel = FileChannel.open(file, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x7F}), 32 + 53);
+        }
+        try (var store = PuzzleStore.open(file)) {
+            assertEquals(Difficulty.EASY, store.load(0, new byte[81], new byte[81]));
+            var e = assertThrows(IllegalStateException.class, () -> store.load(1, new byte[81], new byte[81]));
+            assertTrue(e.getMessage().contains("Puzzle 1 of " + file));
+        }
+    }
+
+    @Test
+    void testRejectsForeignFiles() throws IOException {
+        var file = dir.resolve("other.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> PuzzleStore.open(file));
+    }
+}
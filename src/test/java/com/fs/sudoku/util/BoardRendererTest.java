@@ -0,0 +1,82 @@
+package com.fs.sudoku.util;
+
+import com.fs.sudoku.domain.Board;
+import com.fs.sudoku.generator.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.SplittableRandom;
+
+import static com.fs.sudoku.util.BoardTemplate.BOARD_TEMPLATE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardRendererTest {
+
+    private static String formatted(final Board board) {
+        var args = new Object[81];
+        var argPos = 0;
+        for (int i = 0; i < 9; i++) {
+            for (var col : board.getSpaces()) {
+                args[argPos++] = " " + ((col.get(i).getActual() == null) ? " " : col.get(i).getActual());
+            }
+        }
+        return BOARD_TEMPLATE.formatted(args) + "\n";
+    }
+
+    @Test
+    void testMatchesTemplateFormatting() throws IOException {
+        var board = new PuzzleGenerator(new SplittableRandom(31)).generate().toBoard();
+        var out = new ByteArrayOutputStream();
+        var renderer = new BoardRenderer(Channels.newChannel(out));
+
+        renderer.render(board);
+        assertEquals(formatted(board), out.toString());
+
+        board.changeValue(0, 0, 4);
+        board.changeValue(8, 3, 9);
+        board.clearValue(0, 0);
+        out.reset();
+        renderer.render(board);
+        assertEquals(formatted(board), out.toString());
+
+        board.reset();
+        out.reset();
+        renderer.render(board);
+        assertEquals(formatted(board), out.toString());
+    }
+
+    @Test
+    void testRendersValueSnapshots() throws IOException {
+        var board = new PuzzleGenerator(new SplittableRandom(5)).generate().toBoard();
+        var out = new ByteArrayOutputStream();
+        var renderer = new BoardRenderer(Channels.newChannel(out));
+        board.changeValue(4, 7, 2);
+        renderer.render(board.getValues());
+        assertEquals(formatted(board), out.toString());
+    }
+
+    @Test
+    void testTemplateOfBoxSizeThreeIsBoardTemplate() {
+        assertEquals(BOARD_TEMPLATE, BoardTemplate.of(3));
+        var hex = BoardTemplate.of(4);
+        assertEquals(256, hex.split("%s", -1).length - 1);
+        var width = hex.lines().findFirst().orElseThrow().length();
+        assertTrue(hex.lines().allMatch(line -> line.length() == width));
+    }
+
+    @Test
+    void testRendersTwoDigitValues() throws IOException {
+        var board = new PuzzleGenerator(4, new SplittableRandom(8)).generate().toBoard();
+        var out = new ByteArrayOutputStream();
+        var renderer = new BoardRenderer(Channels.newChannel(out), 4);
+        renderer.render(board);
+        var args = new Object[256];
+        for (int cell = 0; cell < args.length; cell++) {
+            var value = board.getValue(cell % 16, cell / 16);
+            args[cell] = value == 0 ? "  " : "%2d".formatted(value);
+        }
+        assertEquals(BoardTemplate.of(4).formatted(args) + "\n", out.toString());
+    }
+}